@@ -0,0 +1,112 @@
+/*
+* Copyright 2014 JBoss Inc
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*       http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.drools.workbench.screens.common.backend.server;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+
+import org.drools.workbench.models.datamodel.oracle.PackageDataModelOracle;
+import org.guvnor.common.services.project.builder.events.InvalidateDMOPackageCacheEvent;
+import org.guvnor.common.services.project.builder.events.InvalidateDMOProjectCacheEvent;
+import org.kie.workbench.common.services.datamodel.backend.server.DataModelOracleUtilities;
+import org.kie.workbench.common.services.datamodel.model.PackageDataModelOracleBaselinePayload;
+
+/**
+ * Cache of the Data Model payloads sent to the guided editors. A payload depends only upon the Package's oracle and
+ * the classes consumed by the asset, so assets in the same Package consuming the same classes share one payload.
+ * Entries are keyed by the oracle, of which DataModelService holds one per Package, and the set of consumed classes.
+ * Entries are invalidated when the Package's or Project's Data Model Oracle is invalidated. Payloads are shared and
+ * must not be modified.
+ */
+@ApplicationScoped
+public class PackageDataModelPayloadCache {
+
+    public static final String MAX_ENTRIES_PER_PACKAGE_PROPERTY = "org.drools.workbench.dataModelPayloadCache.maxEntriesPerPackage";
+
+    private static final int DEFAULT_MAX_ENTRIES_PER_PACKAGE = 100;
+
+    //Oracles are weakly referenced so that those evicted from DataModelService's cache can be collected
+    private final Map<PackageDataModelOracle, Map<Set<String>, PackageDataModelOracleBaselinePayload>> cache = new WeakHashMap<PackageDataModelOracle, Map<Set<String>, PackageDataModelOracleBaselinePayload>>();
+
+    /**
+     * Data Model payload for a Package's oracle containing the provided classes
+     * @param oracle
+     * @param consumedFQCNs
+     * @return
+     */
+    public PackageDataModelOracleBaselinePayload getDataModel( final PackageDataModelOracle oracle,
+                                                               final Set<String> consumedFQCNs ) {
+        final Set<String> key = Collections.unmodifiableSet( new HashSet<String>( consumedFQCNs ) );
+        synchronized ( cache ) {
+            final Map<Set<String>, PackageDataModelOracleBaselinePayload> payloads = cache.get( oracle );
+            final PackageDataModelOracleBaselinePayload dataModel = ( payloads == null ? null : payloads.get( key ) );
+            if ( dataModel != null ) {
+                return dataModel;
+            }
+        }
+
+        //Populate outside of the lock; concurrent requests for the same entry build equivalent payloads
+        final PackageDataModelOracleBaselinePayload dataModel = new PackageDataModelOracleBaselinePayload();
+        DataModelOracleUtilities.populateDataModel( oracle,
+                                                    dataModel,
+                                                    new HashSet<String>( key ) );
+
+        synchronized ( cache ) {
+            Map<Set<String>, PackageDataModelOracleBaselinePayload> payloads = cache.get( oracle );
+            if ( payloads == null ) {
+                payloads = makePayloads();
+                cache.put( oracle,
+                           payloads );
+            }
+            payloads.put( key,
+                          dataModel );
+        }
+        return dataModel;
+    }
+
+    public void invalidate() {
+        synchronized ( cache ) {
+            cache.clear();
+        }
+    }
+
+    public void onInvalidatePackage( @Observes final InvalidateDMOPackageCacheEvent event ) {
+        invalidate();
+    }
+
+    public void onInvalidateProject( @Observes final InvalidateDMOProjectCacheEvent event ) {
+        invalidate();
+    }
+
+    private Map<Set<String>, PackageDataModelOracleBaselinePayload> makePayloads() {
+        return new LinkedHashMap<Set<String>, PackageDataModelOracleBaselinePayload>( 16,
+                                                                                      0.75f,
+                                                                                      true ) {
+            @Override
+            protected boolean removeEldestEntry( final Map.Entry<Set<String>, PackageDataModelOracleBaselinePayload> eldest ) {
+                return size() > Integer.getInteger( MAX_ENTRIES_PER_PACKAGE_PROPERTY,
+                                                    DEFAULT_MAX_ENTRIES_PER_PACKAGE );
+            }
+        };
+    }
+
+}
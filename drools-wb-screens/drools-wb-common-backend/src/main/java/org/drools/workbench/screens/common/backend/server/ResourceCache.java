@@ -0,0 +1,174 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.common.backend.server;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.enterprise.event.Observes;
+
+import org.uberfire.backend.vfs.Path;
+import org.uberfire.workbench.events.ResourceAddedEvent;
+import org.uberfire.workbench.events.ResourceBatchChangesEvent;
+import org.uberfire.workbench.events.ResourceDeletedEvent;
+import org.uberfire.workbench.events.ResourceRenamedEvent;
+import org.uberfire.workbench.events.ResourceUpdatedEvent;
+
+/**
+ * Base for caches of values derived from the resources held in a folder, such as a Package or a Project. Entries are
+ * keyed by the folder's URI and are invalidated when a resource accepted by the cache is added, updated, deleted or
+ * renamed within the folder. A batch of changes, raised for external changes such as a git push, invalidates all
+ * entries. Values loaded before an invalidation are not cached after it. The cache is bounded, evicting the least
+ * recently used entries.
+ * @param <T> Value derived from a folder's resources
+ */
+public abstract class ResourceCache<T> {
+
+    private final Map<String, T> entries;
+
+    //Guarded by entries
+    private long generation;
+
+    protected ResourceCache( final String maxEntriesProperty,
+                             final int defaultMaxEntries ) {
+        this.entries = new LinkedHashMap<String, T>( 16,
+                                                     0.75f,
+                                                     true ) {
+            @Override
+            protected boolean removeEldestEntry( final Map.Entry<String, T> eldest ) {
+                return size() > Integer.getInteger( maxEntriesProperty,
+                                                    defaultMaxEntries );
+            }
+        };
+    }
+
+    /**
+     * Whether a change to the resource can affect the cached values
+     * @param path
+     * @return
+     */
+    protected abstract boolean accept( final Path path );
+
+    /**
+     * Whether a change to the resource affects the entry for the folder. By default resources anywhere beneath the
+     * folder affect its entry.
+     * @param folderUri
+     * @param uri
+     * @return
+     */
+    protected boolean isAffected( final String folderUri,
+                                  final String uri ) {
+        return uri.startsWith( getFolderPrefix( folderUri ) );
+    }
+
+    protected static String getFolderPrefix( final String folderUri ) {
+        return folderUri.endsWith( "/" ) ? folderUri : folderUri + "/";
+    }
+
+    /**
+     * Cached value for the folder
+     * @param folderUri
+     * @return null if the folder is not cached
+     */
+    protected T get( final String folderUri ) {
+        synchronized ( entries ) {
+            return entries.get( folderUri );
+        }
+    }
+
+    /**
+     * Generation of the cache; read before loading a value to be put
+     * @return
+     */
+    protected long getGeneration() {
+        synchronized ( entries ) {
+            return generation;
+        }
+    }
+
+    /**
+     * Cache a value, unless the cache has been invalidated since the given generation
+     * @param folderUri
+     * @param value
+     * @param generation
+     */
+    protected void put( final String folderUri,
+                        final T value,
+                        final long generation ) {
+        synchronized ( entries ) {
+            if ( generation == this.generation ) {
+                entries.put( folderUri,
+                             value );
+            }
+        }
+    }
+
+    public int getSize() {
+        synchronized ( entries ) {
+            return entries.size();
+        }
+    }
+
+    public void invalidate() {
+        synchronized ( entries ) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    /**
+     * Invalidate the entries affected by a change to the resource
+     * @param path
+     */
+    public void invalidate( final Path path ) {
+        if ( path == null || !accept( path ) ) {
+            return;
+        }
+        final String uri = path.toURI();
+        synchronized ( entries ) {
+            generation++;
+            final Iterator<String> keys = entries.keySet().iterator();
+            while ( keys.hasNext() ) {
+                if ( isAffected( keys.next(),
+                                 uri ) ) {
+                    keys.remove();
+                }
+            }
+        }
+    }
+
+    public void onResourceAdded( @Observes final ResourceAddedEvent event ) {
+        invalidate( event.getPath() );
+    }
+
+    public void onResourceUpdated( @Observes final ResourceUpdatedEvent event ) {
+        invalidate( event.getPath() );
+    }
+
+    public void onResourceDeleted( @Observes final ResourceDeletedEvent event ) {
+        invalidate( event.getPath() );
+    }
+
+    public void onResourceRenamed( @Observes final ResourceRenamedEvent event ) {
+        invalidate( event.getPath() );
+        invalidate( event.getDestinationPath() );
+    }
+
+    public void onBatchChanges( @Observes final ResourceBatchChangesEvent event ) {
+        invalidate();
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.common.backend.server;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.drools.workbench.models.datamodel.oracle.PackageDataModelOracle;
+import org.junit.Test;
+import org.kie.workbench.common.services.datamodel.backend.server.builder.packages.PackageDataModelOracleBuilder;
+import org.kie.workbench.common.services.datamodel.model.PackageDataModelOracleBaselinePayload;
+
+import static org.junit.Assert.*;
+
+public class PackageDataModelPayloadCacheTest {
+
+    @Test
+    public void testPayloadIsSharedForSameClasses() {
+        final PackageDataModelPayloadCache cache = new PackageDataModelPayloadCache();
+        final PackageDataModelOracle oracle = PackageDataModelOracleBuilder.newPackageOracleBuilder( "org.test" ).build();
+
+        final PackageDataModelOracleBaselinePayload payload1 = cache.getDataModel( oracle,
+                                                                                   makeClasses( "org.test.Applicant",
+                                                                                                "org.test.Mortgage" ) );
+        final PackageDataModelOracleBaselinePayload payload2 = cache.getDataModel( oracle,
+                                                                                   makeClasses( "org.test.Mortgage",
+                                                                                                "org.test.Applicant" ) );
+        assertSame( payload1,
+                    payload2 );
+        assertNotSame( payload1,
+                       cache.getDataModel( oracle,
+                                           makeClasses( "org.test.Applicant" ) ) );
+    }
+
+    @Test
+    public void testPayloadIsNotSharedBetweenOracles() {
+        final PackageDataModelPayloadCache cache = new PackageDataModelPayloadCache();
+        final PackageDataModelOracle oracle1 = PackageDataModelOracleBuilder.newPackageOracleBuilder( "org.test1" ).build();
+        final PackageDataModelOracle oracle2 = PackageDataModelOracleBuilder.newPackageOracleBuilder( "org.test2" ).build();
+
+        assertNotSame( cache.getDataModel( oracle1,
+                                           makeClasses() ),
+                       cache.getDataModel( oracle2,
+                                           makeClasses() ) );
+    }
+
+    @Test
+    public void testInvalidate() {
+        final PackageDataModelPayloadCache cache = new PackageDataModelPayloadCache();
+        final PackageDataModelOracle oracle = PackageDataModelOracleBuilder.newPackageOracleBuilder( "org.test" ).build();
+
+        final PackageDataModelOracleBaselinePayload payload = cache.getDataModel( oracle,
+                                                                                  makeClasses() );
+        cache.invalidate();
+        assertNotSame( payload,
+                       cache.getDataModel( oracle,
+                                           makeClasses() ) );
+    }
+
+    private Set<String> makeClasses( final String... fqcns ) {
+        return new HashSet<String>( Arrays.asList( fqcns ) );
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.common.backend.server;
+
+import org.junit.After;
+import org.junit.Test;
+import org.uberfire.backend.vfs.Path;
+import org.uberfire.backend.vfs.PathFactory;
+
+import static org.junit.Assert.*;
+
+public class ResourceCacheTest {
+
+    private static final String MAX_ENTRIES_PROPERTY = "org.drools.workbench.test.resourceCache.maxEntries";
+
+    @After
+    public void tearDown() {
+        System.clearProperty( MAX_ENTRIES_PROPERTY );
+    }
+
+    @Test
+    public void testChangeInvalidatesEnclosingFolder() {
+        final TestResourceCache cache = new TestResourceCache();
+        cache.put( "default://project1",
+                   "value1",
+                   cache.getGeneration() );
+        cache.put( "default://project2",
+                   "value2",
+                   cache.getGeneration() );
+
+        cache.invalidate( makePath( "default://project1/src/main/resources/org/test/rule.drl" ) );
+
+        assertNull( cache.get( "default://project1" ) );
+        assertEquals( "value2",
+                      cache.get( "default://project2" ) );
+    }
+
+    @Test
+    public void testFolderSharingPrefixIsNotInvalidated() {
+        final TestResourceCache cache = new TestResourceCache();
+        cache.put( "default://project1",
+                   "value1",
+                   cache.getGeneration() );
+
+        cache.invalidate( makePath( "default://project10/src/main/resources/org/test/rule.drl" ) );
+
+        assertEquals( "value1",
+                      cache.get( "default://project1" ) );
+    }
+
+    @Test
+    public void testUnacceptedChangeIsIgnored() {
+        final TestResourceCache cache = new TestResourceCache();
+        cache.put( "default://project1",
+                   "value1",
+                   cache.getGeneration() );
+
+        cache.invalidate( makePath( "default://project1/src/main/resources/org/test/readme.txt" ) );
+
+        assertEquals( "value1",
+                      cache.get( "default://project1" ) );
+    }
+
+    @Test
+    public void testValueLoadedBeforeInvalidationIsNotCached() {
+        final TestResourceCache cache = new TestResourceCache();
+        final long generation = cache.getGeneration();
+
+        cache.invalidate( makePath( "default://project1/src/main/resources/org/test/rule.drl" ) );
+        cache.put( "default://project1",
+                   "value1",
+                   generation );
+
+        assertNull( cache.get( "default://project1" ) );
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntriesAreEvicted() {
+        System.setProperty( MAX_ENTRIES_PROPERTY,
+                            "2" );
+        final TestResourceCache cache = new TestResourceCache();
+        cache.put( "default://project1",
+                   "value1",
+                   cache.getGeneration() );
+        cache.put( "default://project2",
+                   "value2",
+                   cache.getGeneration() );
+        cache.get( "default://project1" );
+        cache.put( "default://project3",
+                   "value3",
+                   cache.getGeneration() );
+
+        assertEquals( 2,
+                      cache.getSize() );
+        assertEquals( "value1",
+                      cache.get( "default://project1" ) );
+        assertNull( cache.get( "default://project2" ) );
+    }
+
+    private Path makePath( final String uri ) {
+        return PathFactory.newPath( uri.substring( uri.lastIndexOf( '/' ) + 1 ),
+                                    uri );
+    }
+
+    private static class TestResourceCache extends ResourceCache<String> {
+
+        private TestResourceCache() {
+            super( MAX_ENTRIES_PROPERTY,
+                   10 );
+        }
+
+        @Override
+        protected boolean accept( final Path path ) {
+            return path.getFileName().endsWith( ".drl" );
+        }
+
+    }
+
+}
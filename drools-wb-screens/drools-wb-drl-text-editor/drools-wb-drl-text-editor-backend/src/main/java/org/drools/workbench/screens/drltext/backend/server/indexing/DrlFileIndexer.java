@@ -92,7 +92,7 @@ public class DrlFileIndexer implements Indexer {
 
         } catch ( Exception e ) {
             logger.error( "Unable to index '" + path.toUri().toString() + "'.",
-                          e.getMessage() );
+                          e );
         }
 
         return index;
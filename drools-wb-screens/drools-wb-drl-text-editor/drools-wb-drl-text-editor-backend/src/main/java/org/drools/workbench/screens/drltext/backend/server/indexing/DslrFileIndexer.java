@@ -110,7 +110,7 @@ public class DslrFileIndexer implements Indexer {
 
         } catch ( Exception e ) {
             logger.error( "Unable to index '" + path.toUri().toString() + "'.",
-                          e.getMessage() );
+                          e );
         }
 
         return index;
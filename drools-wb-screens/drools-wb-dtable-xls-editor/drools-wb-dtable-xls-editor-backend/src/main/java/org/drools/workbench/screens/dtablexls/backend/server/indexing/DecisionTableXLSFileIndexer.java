@@ -17,13 +17,14 @@ package org.drools.workbench.screens.dtablexls.backend.server.indexing;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
 
-import org.drools.compiler.compiler.DecisionTableFactory;
-import org.drools.compiler.compiler.DrlParser;
-import org.drools.compiler.lang.descr.PackageDescr;
+import org.drools.decisiontable.parser.xls.ExcelParser;
+import org.drools.template.parser.DataListener;
 import org.drools.workbench.models.datamodel.oracle.ProjectDataModelOracle;
 import org.drools.workbench.screens.dtablexls.type.DecisionTableXLSResourceTypeDefinition;
 import org.guvnor.common.services.project.model.Package;
@@ -33,7 +34,6 @@ import org.kie.uberfire.metadata.model.KObject;
 import org.kie.uberfire.metadata.model.KObjectKey;
 import org.kie.workbench.common.services.datamodel.backend.server.service.DataModelService;
 import org.kie.workbench.common.services.refactoring.backend.server.indexing.DefaultIndexBuilder;
-import org.kie.workbench.common.services.refactoring.backend.server.indexing.PackageDescrIndexVisitor;
 import org.kie.workbench.common.services.refactoring.backend.server.util.KObjectUtil;
 import org.kie.workbench.common.services.shared.project.KieProjectService;
 import org.slf4j.Logger;
@@ -72,35 +72,31 @@ public class DecisionTableXLSFileIndexer implements Indexer {
         InputStream inputStream = null;
 
         try {
-            inputStream = ioService.newInputStream( path,
-                                                    StandardOpenOption.READ );
-            final String drl = DecisionTableFactory.loadFromInputStream( inputStream,
-                                                                         null );
-            final DrlParser drlParser = new DrlParser();
-            final PackageDescr packageDescr = drlParser.parse( true,
-                                                               drl );
-            if ( packageDescr == null ) {
-                logger.error( "Unable to parse DRL for '" + path.toUri().toString() + "'." );
-                return index;
-            }
-
             final ProjectDataModelOracle dmo = getProjectDataModelOracle( path );
             final Project project = projectService.resolveProject( Paths.convert( path ) );
             final Package pkg = projectService.resolvePackage( Paths.convert( path ) );
 
             final DefaultIndexBuilder builder = new DefaultIndexBuilder( project,
                                                                          pkg );
-            final PackageDescrIndexVisitor visitor = new PackageDescrIndexVisitor( dmo,
-                                                                                   builder,
-                                                                                   packageDescr );
-            visitor.visit();
+
+            //Index rules in batches rather than generating and re-parsing the DRL for the whole spreadsheet
+            final DecisionTableXLSIndexListener listener = new DecisionTableXLSIndexListener( dmo,
+                                                                                              builder );
+            final List<DataListener> listeners = new ArrayList<DataListener>();
+            listeners.add( listener );
+
+            inputStream = ioService.newInputStream( path,
+                                                    StandardOpenOption.READ );
+            final ExcelParser parser = new ExcelParser( listeners );
+            parser.parseFile( inputStream );
+            listener.index();
 
             index = KObjectUtil.toKObject( path,
                                            builder.build() );
 
         } catch ( Exception e ) {
             logger.error( "Unable to index '" + path.toUri().toString() + "'.",
-                          e.getMessage() );
+                          e );
         } finally {
             if ( inputStream != null ) {
                 try {
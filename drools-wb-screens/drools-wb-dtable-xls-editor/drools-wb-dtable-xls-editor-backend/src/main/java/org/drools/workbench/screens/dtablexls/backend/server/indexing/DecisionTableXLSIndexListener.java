@@ -0,0 +1,107 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.dtablexls.backend.server.indexing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.drools.compiler.compiler.DrlParser;
+import org.drools.compiler.compiler.DroolsParserException;
+import org.drools.compiler.lang.descr.PackageDescr;
+import org.drools.decisiontable.parser.DefaultRuleSheetListener;
+import org.drools.template.model.DRLOutput;
+import org.drools.template.model.Package;
+import org.drools.template.model.Rule;
+import org.drools.workbench.models.datamodel.oracle.ProjectDataModelOracle;
+import org.kie.workbench.common.services.refactoring.backend.server.indexing.DefaultIndexBuilder;
+import org.kie.workbench.common.services.refactoring.backend.server.indexing.PackageDescrIndexVisitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.uberfire.commons.validation.PortablePreconditions;
+
+/**
+ * RuleSheetListener that indexes a XLS Decision Table. Rules are read by the drools DefaultRuleSheetListener and are
+ * rendered and parsed in batches; hence the DRL and PackageDescr for the whole spreadsheet are never held in memory.
+ */
+public class DecisionTableXLSIndexListener extends DefaultRuleSheetListener {
+
+    private static final Logger logger = LoggerFactory.getLogger( DecisionTableXLSIndexListener.class );
+
+    //Number of rules rendered and parsed together
+    private static final int BATCH_SIZE = 100;
+
+    private final ProjectDataModelOracle dmo;
+    private final DefaultIndexBuilder builder;
+
+    public DecisionTableXLSIndexListener( final ProjectDataModelOracle dmo,
+                                          final DefaultIndexBuilder builder ) {
+        this.dmo = PortablePreconditions.checkNotNull( "dmo",
+                                                       dmo );
+        this.builder = PortablePreconditions.checkNotNull( "builder",
+                                                           builder );
+    }
+
+    /**
+     * Index the rules read from the spreadsheet. Call once the spreadsheet has been parsed.
+     * @return The number of rules indexed
+     * @throws DroolsParserException
+     */
+    public int index() throws DroolsParserException {
+        //The RuleSet contains the package, imports, globals, functions, queries and declarations and the rules
+        final Package ruleSet = getRuleSet();
+        final List<Rule> rules = new ArrayList<Rule>( ruleSet.getRules() );
+
+        int indexed = 0;
+        for ( int i = 0; i < rules.size(); i = i + BATCH_SIZE ) {
+            ruleSet.getRules().clear();
+            for ( Rule rule : rules.subList( i,
+                                             Math.min( i + BATCH_SIZE,
+                                                       rules.size() ) ) ) {
+                ruleSet.addRule( rule );
+            }
+            if ( indexBatch( ruleSet,
+                             i ) ) {
+                indexed = indexed + ruleSet.getRules().size();
+            }
+        }
+        return indexed;
+    }
+
+    private boolean indexBatch( final Package ruleSet,
+                                final int firstRule ) throws DroolsParserException {
+        final DRLOutput out = new DRLOutput();
+        ruleSet.renderDRL( out );
+
+        final DrlParser drlParser = new DrlParser();
+        final PackageDescr packageDescr = drlParser.parse( true,
+                                                           out.getDRL() );
+        final String rules = "rules " + ( firstRule + 1 ) + " to " + ( firstRule + ruleSet.getRules().size() );
+        if ( packageDescr == null ) {
+            logger.warn( "Unable to parse DRL for " + rules + ": " + drlParser.getErrors() );
+            return false;
+        }
+        if ( drlParser.hasErrors() ) {
+            logger.warn( "Errors parsing DRL for " + rules + "; indexing what could be parsed: " + drlParser.getErrors() );
+        }
+
+        final PackageDescrIndexVisitor visitor = new PackageDescrIndexVisitor( dmo,
+                                                                               builder,
+                                                                               packageDescr );
+        visitor.visit();
+        return true;
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.dtablexls.backend.server.indexing;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.drools.compiler.compiler.DecisionTableFactory;
+import org.drools.compiler.compiler.DrlParser;
+import org.drools.compiler.lang.descr.PackageDescr;
+import org.drools.decisiontable.parser.xls.ExcelParser;
+import org.drools.template.parser.DataListener;
+import org.drools.workbench.models.datamodel.oracle.ProjectDataModelOracle;
+import org.junit.Test;
+import org.kie.workbench.common.services.refactoring.backend.server.indexing.DefaultIndexBuilder;
+import org.kie.workbench.common.services.refactoring.backend.server.indexing.PackageDescrIndexVisitor;
+import org.uberfire.commons.data.Pair;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks DecisionTableXLSIndexListener produces the same terms as indexing the DRL compiled for the whole spreadsheet
+ */
+public class DecisionTableXLSIndexListenerTest {
+
+    private static final String CONVERSION = "/org/drools/workbench/screens/dtablexls/backend/server/conversion/";
+
+    private final ProjectDataModelOracle dmo = new TestDecisionTableXLSFileIndexer().getProjectDataModelOracle( null );
+
+    @Test
+    public void testIndexingFixtures() throws Exception {
+        assertSameTerms( "dtable1.xls" );
+        assertSameTerms( "dtable2.xls" );
+        assertSameTerms( "dtable3.xls" );
+    }
+
+    @Test
+    public void testConversionFixtures() throws Exception {
+        assertSameTerms( CONVERSION + "Actions.xls" );
+        assertSameTerms( CONVERSION + "Attributes.xls" );
+        assertSameTerms( CONVERSION + "Conditions.xls" );
+        assertSameTerms( CONVERSION + "Conditions-indexedParameters.xls" );
+        assertSameTerms( CONVERSION + "Metadata.xls" );
+        assertSameTerms( CONVERSION + "MultipleRuleTables.xls" );
+        assertSameTerms( CONVERSION + "MultipleSingleParameters.xls" );
+        assertSameTerms( CONVERSION + "Properties.xls" );
+        assertSameTerms( CONVERSION + "SequentialSalience.xls" );
+    }
+
+    private void assertSameTerms( final String fileName ) throws Exception {
+        final Set<Pair<String, String>> expected = indexCompiledDrl( fileName );
+        final Set<Pair<String, String>> actual = indexWithListener( fileName );
+        assertFalse( fileName,
+                     expected.isEmpty() );
+        assertEquals( fileName,
+                      expected,
+                      actual );
+    }
+
+    private Set<Pair<String, String>> indexCompiledDrl( final String fileName ) throws Exception {
+        final InputStream is = getClass().getResourceAsStream( fileName );
+        try {
+            final String drl = DecisionTableFactory.loadFromInputStream( is,
+                                                                         null );
+            final PackageDescr packageDescr = new DrlParser().parse( true,
+                                                                     drl );
+            final DefaultIndexBuilder builder = new DefaultIndexBuilder( null,
+                                                                         null );
+            final PackageDescrIndexVisitor visitor = new PackageDescrIndexVisitor( dmo,
+                                                                                   builder,
+                                                                                   packageDescr );
+            visitor.visit();
+            return builder.build();
+        } finally {
+            is.close();
+        }
+    }
+
+    private Set<Pair<String, String>> indexWithListener( final String fileName ) throws Exception {
+        final InputStream is = getClass().getResourceAsStream( fileName );
+        try {
+            final DefaultIndexBuilder builder = new DefaultIndexBuilder( null,
+                                                                         null );
+            final DecisionTableXLSIndexListener listener = new DecisionTableXLSIndexListener( dmo,
+                                                                                              builder );
+            final List<DataListener> listeners = new ArrayList<DataListener>();
+            listeners.add( listener );
+            new ExcelParser( listeners ).parseFile( is );
+            assertTrue( fileName,
+                        listener.index() > 0 );
+            return builder.build();
+        } finally {
+            is.close();
+        }
+    }
+
+}
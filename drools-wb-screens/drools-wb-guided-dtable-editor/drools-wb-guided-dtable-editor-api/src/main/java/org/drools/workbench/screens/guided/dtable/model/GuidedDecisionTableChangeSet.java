@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.guided.dtable.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.drools.workbench.models.guided.dtable.shared.model.GuidedDecisionTable52;
+import org.jboss.errai.common.client.api.annotations.Portable;
+
+/**
+ * Changes to a Guided Decision Table made against a known version of the persisted table. Column changes, if any,
+ * are applied first followed by changes to rows; rows in the row patch therefore have the new columns.
+ */
+@Portable
+public class GuidedDecisionTableChangeSet {
+
+    public static final int NEW_COLUMN = -1;
+
+    private String baseVersion;
+    private GuidedDecisionTable52 columnModel;
+    private List<Integer> columnSources = new ArrayList<Integer>();
+    private GuidedDecisionTableRowPatch rowPatch = new GuidedDecisionTableRowPatch();
+
+    public GuidedDecisionTableChangeSet() {
+    }
+
+    /**
+     * @param baseVersion Version of the table the changes were made to; changes are rejected if the table has changed since
+     */
+    public GuidedDecisionTableChangeSet( final String baseVersion ) {
+        this.baseVersion = baseVersion;
+    }
+
+    public String getBaseVersion() {
+        return baseVersion;
+    }
+
+    /**
+     * Replace the column definitions. The model's data is ignored. Each entry of columnSources gives, for the
+     * corresponding column of the model's expanded columns, the index of the existing column whose cells it takes
+     * or NEW_COLUMN for a column populated with its default value.
+     * @param columnModel
+     * @param columnSources
+     */
+    public void setColumns( final GuidedDecisionTable52 columnModel,
+                            final List<Integer> columnSources ) {
+        this.columnModel = columnModel;
+        this.columnSources = columnSources;
+    }
+
+    public GuidedDecisionTable52 getColumnModel() {
+        return columnModel;
+    }
+
+    public List<Integer> getColumnSources() {
+        return columnSources;
+    }
+
+    public boolean hasColumnChanges() {
+        return columnModel != null;
+    }
+
+    public GuidedDecisionTableRowPatch getRowPatch() {
+        return rowPatch;
+    }
+
+    public void setRowPatch( final GuidedDecisionTableRowPatch rowPatch ) {
+        this.rowPatch = rowPatch;
+    }
+
+}
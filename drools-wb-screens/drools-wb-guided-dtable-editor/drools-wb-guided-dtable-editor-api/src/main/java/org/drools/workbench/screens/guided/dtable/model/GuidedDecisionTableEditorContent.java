@@ -30,6 +30,7 @@ public class GuidedDecisionTableEditorContent {
     private GuidedDecisionTable52 model;
     private Set<PortableWorkDefinition> workItemDefinitions;
     private PackageDataModelOracleBaselinePayload dataModel;
+    private String version;
 
     public GuidedDecisionTableEditorContent() {
     }
@@ -45,6 +46,22 @@ public class GuidedDecisionTableEditorContent {
                                                              dataModel );
     }
 
+    /**
+     * @param model
+     * @param workItemDefinitions
+     * @param dataModel
+     * @param version Version of the persisted table the model was read from
+     */
+    public GuidedDecisionTableEditorContent( final GuidedDecisionTable52 model,
+                                             final Set<PortableWorkDefinition> workItemDefinitions,
+                                             final PackageDataModelOracleBaselinePayload dataModel,
+                                             final String version ) {
+        this( model,
+              workItemDefinitions,
+              dataModel );
+        this.version = version;
+    }
+
     public GuidedDecisionTable52 getModel() {
         return model;
     }
@@ -57,4 +74,8 @@ public class GuidedDecisionTableEditorContent {
         return dataModel;
     }
 
+    public String getVersion() {
+        return version;
+    }
+
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.guided.dtable.model;
+
+import org.jboss.errai.common.client.api.annotations.Portable;
+import org.uberfire.commons.validation.PortablePreconditions;
+
+/**
+ * Content for the Guided Decision Table editor when rows are paged. The content's model holds the column
+ * definitions only; its data is empty and rows are provided by the page.
+ */
+@Portable
+public class GuidedDecisionTableEditorPagedContent {
+
+    private GuidedDecisionTableEditorContent content;
+    private GuidedDecisionTablePage page;
+
+    public GuidedDecisionTableEditorPagedContent() {
+    }
+
+    public GuidedDecisionTableEditorPagedContent( final GuidedDecisionTableEditorContent content,
+                                                  final GuidedDecisionTablePage page ) {
+        this.content = PortablePreconditions.checkNotNull( "content",
+                                                           content );
+        this.page = PortablePreconditions.checkNotNull( "page",
+                                                        page );
+    }
+
+    public GuidedDecisionTableEditorContent getContent() {
+        return content;
+    }
+
+    public GuidedDecisionTablePage getPage() {
+        return page;
+    }
+
+}
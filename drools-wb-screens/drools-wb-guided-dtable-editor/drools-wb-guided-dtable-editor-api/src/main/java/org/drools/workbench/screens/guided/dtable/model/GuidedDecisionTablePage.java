@@ -0,0 +1,93 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.guided.dtable.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.drools.workbench.models.guided.dtable.shared.model.DTCellValue52;
+import org.jboss.errai.common.client.api.annotations.Portable;
+
+/**
+ * A window of rows of a Guided Decision Table. Each row is accompanied by its index in the whole table, which
+ * identifies the row in a GuidedDecisionTableRowPatch regardless of the sort and filter applied.
+ */
+@Portable
+public class GuidedDecisionTablePage {
+
+    private String version;
+    private int offset;
+    private int totalRowCount;
+    private int matchedRowCount;
+    private List<Integer> rowIndexes = new ArrayList<Integer>();
+    private List<List<DTCellValue52>> rows = new ArrayList<List<DTCellValue52>>();
+
+    public GuidedDecisionTablePage() {
+    }
+
+    public GuidedDecisionTablePage( final String version,
+                                    final int offset,
+                                    final int totalRowCount,
+                                    final int matchedRowCount ) {
+        this.version = version;
+        this.offset = offset;
+        this.totalRowCount = totalRowCount;
+        this.matchedRowCount = matchedRowCount;
+    }
+
+    public void addRow( final int rowIndex,
+                        final List<DTCellValue52> row ) {
+        rowIndexes.add( rowIndex );
+        rows.add( row );
+    }
+
+    /**
+     * Version of the table the rows were read from; see GuidedDecisionTableChangeSet
+     * @return
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Number of rows in the whole table
+     * @return
+     */
+    public int getTotalRowCount() {
+        return totalRowCount;
+    }
+
+    /**
+     * Number of rows matching the request's filters
+     * @return
+     */
+    public int getMatchedRowCount() {
+        return matchedRowCount;
+    }
+
+    public List<Integer> getRowIndexes() {
+        return rowIndexes;
+    }
+
+    public List<List<DTCellValue52>> getRows() {
+        return rows;
+    }
+
+}
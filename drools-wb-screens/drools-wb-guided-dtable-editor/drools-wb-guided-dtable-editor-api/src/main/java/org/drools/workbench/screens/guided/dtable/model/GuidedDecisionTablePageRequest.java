@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.guided.dtable.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jboss.errai.common.client.api.annotations.Portable;
+
+/**
+ * A request for a window of rows of a Guided Decision Table. Column indexes refer to the table's data, i.e. the
+ * expanded column list including the row number and description columns.
+ */
+@Portable
+public class GuidedDecisionTablePageRequest {
+
+    public static final int NO_SORT = -1;
+
+    private int offset;
+    private int limit;
+    private int sortColumnIndex = NO_SORT;
+    private boolean sortAscending = true;
+
+    //Column index to text that a cell's value must contain, case-insensitive
+    private Map<Integer, String> filters = new HashMap<Integer, String>();
+
+    public GuidedDecisionTablePageRequest() {
+    }
+
+    public GuidedDecisionTablePageRequest( final int offset,
+                                           final int limit ) {
+        this.offset = offset;
+        this.limit = limit;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public void setOffset( final int offset ) {
+        this.offset = offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit( final int limit ) {
+        this.limit = limit;
+    }
+
+    public int getSortColumnIndex() {
+        return sortColumnIndex;
+    }
+
+    public boolean isSortAscending() {
+        return sortAscending;
+    }
+
+    public void setSort( final int sortColumnIndex,
+                         final boolean sortAscending ) {
+        this.sortColumnIndex = sortColumnIndex;
+        this.sortAscending = sortAscending;
+    }
+
+    public Map<Integer, String> getFilters() {
+        return filters;
+    }
+
+    public void addFilter( final int columnIndex,
+                           final String text ) {
+        filters.put( columnIndex,
+                     text );
+    }
+
+}
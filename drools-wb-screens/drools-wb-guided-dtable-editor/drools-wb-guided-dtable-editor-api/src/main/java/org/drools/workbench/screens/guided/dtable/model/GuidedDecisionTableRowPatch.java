@@ -0,0 +1,72 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.guided.dtable.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.drools.workbench.models.guided.dtable.shared.model.DTCellValue52;
+import org.jboss.errai.common.client.api.annotations.Portable;
+
+/**
+ * Changes to the rows of a Guided Decision Table. Rows are identified by their index in the whole table, as given
+ * by GuidedDecisionTablePage. Updates are applied first, then deletions, then appended rows are added to the end.
+ */
+@Portable
+public class GuidedDecisionTableRowPatch {
+
+    private Map<Integer, List<DTCellValue52>> updatedRows = new HashMap<Integer, List<DTCellValue52>>();
+    private Set<Integer> deletedRows = new HashSet<Integer>();
+    private List<List<DTCellValue52>> appendedRows = new ArrayList<List<DTCellValue52>>();
+
+    public GuidedDecisionTableRowPatch() {
+    }
+
+    public void updateRow( final int rowIndex,
+                           final List<DTCellValue52> row ) {
+        updatedRows.put( rowIndex,
+                         row );
+    }
+
+    public void deleteRow( final int rowIndex ) {
+        deletedRows.add( rowIndex );
+    }
+
+    public void appendRow( final List<DTCellValue52> row ) {
+        appendedRows.add( row );
+    }
+
+    public Map<Integer, List<DTCellValue52>> getUpdatedRows() {
+        return updatedRows;
+    }
+
+    public Set<Integer> getDeletedRows() {
+        return deletedRows;
+    }
+
+    public List<List<DTCellValue52>> getAppendedRows() {
+        return appendedRows;
+    }
+
+    public boolean isEmpty() {
+        return updatedRows.isEmpty() && deletedRows.isEmpty() && appendedRows.isEmpty();
+    }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.guided.dtable.model;
+
+import org.jboss.errai.common.client.api.annotations.Portable;
+
+/**
+ * Thrown when changes are saved against a version of a Guided Decision Table that is no longer the latest
+ */
+@Portable
+public class GuidedDecisionTableVersionConflictException extends RuntimeException {
+
+    private String baseVersion;
+    private String currentVersion;
+
+    public GuidedDecisionTableVersionConflictException() {
+    }
+
+    public GuidedDecisionTableVersionConflictException( final String baseVersion,
+                                                        final String currentVersion ) {
+        super( "Decision table has been changed since version " + baseVersion + ". Current version is " + currentVersion + "." );
+        this.baseVersion = baseVersion;
+        this.currentVersion = currentVersion;
+    }
+
+    public String getBaseVersion() {
+        return baseVersion;
+    }
+
+    public String getCurrentVersion() {
+        return currentVersion;
+    }
+
+}
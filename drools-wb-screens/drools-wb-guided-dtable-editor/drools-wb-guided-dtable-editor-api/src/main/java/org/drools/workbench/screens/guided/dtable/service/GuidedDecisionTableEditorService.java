@@ -17,13 +17,19 @@
 package org.drools.workbench.screens.guided.dtable.service;
 
 import org.drools.workbench.models.guided.dtable.shared.model.GuidedDecisionTable52;
+import org.drools.workbench.screens.guided.dtable.model.GuidedDecisionTableChangeSet;
 import org.drools.workbench.screens.guided.dtable.model.GuidedDecisionTableEditorContent;
+import org.drools.workbench.screens.guided.dtable.model.GuidedDecisionTableEditorPagedContent;
+import org.drools.workbench.screens.guided.dtable.model.GuidedDecisionTablePage;
+import org.drools.workbench.screens.guided.dtable.model.GuidedDecisionTablePageRequest;
+import org.drools.workbench.screens.guided.dtable.model.GuidedDecisionTableVersionConflictException;
 import org.guvnor.common.services.shared.file.SupportsCopy;
 import org.guvnor.common.services.shared.file.SupportsCreate;
 import org.guvnor.common.services.shared.file.SupportsDelete;
 import org.guvnor.common.services.shared.file.SupportsRead;
 import org.guvnor.common.services.shared.file.SupportsRename;
 import org.guvnor.common.services.shared.file.SupportsUpdate;
+import org.guvnor.common.services.shared.metadata.model.Metadata;
 import org.guvnor.common.services.shared.validation.ValidationService;
 import org.jboss.errai.bus.server.annotations.Remote;
 import org.kie.workbench.common.services.datamodel.model.PackageDataModelOracleBaselinePayload;
@@ -46,4 +52,53 @@ public interface GuidedDecisionTableEditorService
 
     PackageDataModelOracleBaselinePayload loadDataModel( final Path path );
 
+    /**
+     * Load the column definitions, with empty data, and a window of rows
+     * @param path
+     * @param request
+     * @return
+     */
+    GuidedDecisionTableEditorPagedContent loadPagedContent( final Path path,
+                                                            final GuidedDecisionTablePageRequest request );
+
+    /**
+     * Load a window of rows
+     * @param path
+     * @param request
+     * @return
+     */
+    GuidedDecisionTablePage loadPage( final Path path,
+                                      final GuidedDecisionTablePageRequest request );
+
+    /**
+     * Save the table if the persisted table has not changed since it was loaded
+     * @param path
+     * @param model
+     * @param baseVersion Version of the table the model was loaded from, or null to save regardless
+     * @param metadata
+     * @param comment
+     * @return The new version of the table
+     * @throws GuidedDecisionTableVersionConflictException if the table has changed since the base version
+     */
+    String save( final Path path,
+                 final GuidedDecisionTable52 model,
+                 final String baseVersion,
+                 final Metadata metadata,
+                 final String comment );
+
+    /**
+     * Apply changes to the persisted table and save the result, if the persisted table has not changed since the
+     * change set's base version
+     * @param path
+     * @param changeSet
+     * @param metadata
+     * @param comment
+     * @return The new version of the table
+     * @throws GuidedDecisionTableVersionConflictException if the table has changed since the change set's base version
+     */
+    String saveChanges( final Path path,
+                        final GuidedDecisionTableChangeSet changeSet,
+                        final Metadata metadata,
+                        final String comment );
+
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.guided.dtable.backend.server;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.enterprise.context.ApplicationScoped;
+
+/**
+ * Cache of the DRL generated for Guided Decision Tables. Entries are keyed by the version of the table's content, as
+ * computed by GuidedDTPersistence.getVersion(), hence the same table has the same entry whether it was read from a
+ * file or received from an editor, and an entry can never be stale. Entries for content that is no longer used are
+ * evicted as the cache is bounded, evicting the least recently used entries.
+ */
+@ApplicationScoped
+public class GuidedDecisionTableDRLCache {
+
+    public static final String MAX_ENTRIES_PROPERTY = "org.drools.workbench.guided.dtable.drlCache.maxEntries";
+
+    private static final int DEFAULT_MAX_ENTRIES = 50;
+
+    private final Map<String, String> entries = Collections.synchronizedMap( new LinkedHashMap<String, String>( 16,
+                                                                                                             0.75f,
+                                                                                                             true ) {
+        @Override
+        protected boolean removeEldestEntry( final Map.Entry<String, String> eldest ) {
+            return size() > Integer.getInteger( MAX_ENTRIES_PROPERTY,
+                                                DEFAULT_MAX_ENTRIES );
+        }
+    } );
+
+    /**
+     * Get the DRL generated for a table
+     * @param version Version of the table's content
+     * @return The DRL or null if none has been cached for the version
+     */
+    public String get( final String version ) {
+        return entries.get( version );
+    }
+
+    public void put( final String version,
+                     final String drl ) {
+        entries.put( version,
+                     drl );
+    }
+
+    public int getSize() {
+        return entries.size();
+    }
+
+    public void invalidate() {
+        entries.clear();
+    }
+
+}
@@ -19,8 +19,8 @@ import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
 
-import org.drools.workbench.models.guided.dtable.backend.GuidedDTXMLPersistence;
 import org.drools.workbench.models.guided.dtable.shared.model.GuidedDecisionTable52;
+import org.drools.workbench.screens.guided.dtable.backend.server.util.GuidedDTPersistence;
 import org.drools.workbench.screens.guided.dtable.type.GuidedDTableResourceTypeDefinition;
 import org.drools.workbench.screens.guided.rule.backend.server.GuidedRuleEditorServiceUtilities;
 import org.guvnor.common.services.backend.file.CopyHelper;
@@ -55,8 +55,8 @@ public class GuidedDecisionTableEditorCopyHelper implements CopyHelper {
                              final Path destination ) {
         //Load existing file
         final org.uberfire.java.nio.file.Path _destination = Paths.convert( destination );
-        final String content = ioService.readAllString( Paths.convert( destination ) );
-        final GuidedDecisionTable52 model = GuidedDTXMLPersistence.getInstance().unmarshal( content );
+        final byte[] content = ioService.readAllBytes( Paths.convert( destination ) );
+        final GuidedDecisionTable52 model = GuidedDTPersistence.getInstance().unmarshal( content );
 
         //Update table name
         final String tableName = FileNameUtil.removeExtension( destination,
@@ -65,7 +65,7 @@ public class GuidedDecisionTableEditorCopyHelper implements CopyHelper {
 
         //Save file
         ioService.write( _destination,
-                         GuidedDTXMLPersistence.getInstance().marshal( model ),
+                         GuidedDTPersistence.getInstance().marshal( model ),
                          utilities.makeCommentedOption( "File [" + source.toURI() + "] copied to [" + destination.toURI() + "]." ) );
     }
 
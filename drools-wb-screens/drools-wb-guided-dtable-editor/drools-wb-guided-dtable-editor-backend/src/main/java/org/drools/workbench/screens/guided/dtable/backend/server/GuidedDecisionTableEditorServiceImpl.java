@@ -17,6 +17,11 @@
 package org.drools.workbench.screens.guided.dtable.backend.server;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
@@ -29,9 +34,16 @@ import javax.inject.Named;
 import com.google.common.base.Charsets;
 import org.drools.workbench.models.datamodel.oracle.PackageDataModelOracle;
 import org.drools.workbench.models.datamodel.workitems.PortableWorkDefinition;
-import org.drools.workbench.models.guided.dtable.backend.GuidedDTXMLPersistence;
+import org.drools.workbench.models.guided.dtable.shared.model.DTCellValue52;
 import org.drools.workbench.models.guided.dtable.shared.model.GuidedDecisionTable52;
+import org.drools.workbench.screens.common.backend.server.PackageDataModelPayloadCache;
+import org.drools.workbench.screens.guided.dtable.backend.server.util.GuidedDTPersistence;
+import org.drools.workbench.screens.guided.dtable.model.GuidedDecisionTableChangeSet;
 import org.drools.workbench.screens.guided.dtable.model.GuidedDecisionTableEditorContent;
+import org.drools.workbench.screens.guided.dtable.model.GuidedDecisionTableEditorPagedContent;
+import org.drools.workbench.screens.guided.dtable.model.GuidedDecisionTablePage;
+import org.drools.workbench.screens.guided.dtable.model.GuidedDecisionTablePageRequest;
+import org.drools.workbench.screens.guided.dtable.model.GuidedDecisionTableVersionConflictException;
 import org.drools.workbench.screens.guided.dtable.service.GuidedDecisionTableEditorService;
 import org.drools.workbench.screens.workitems.service.WorkItemsEditorService;
 import org.guvnor.common.services.backend.exceptions.ExceptionUtilities;
@@ -52,15 +64,18 @@ import org.kie.workbench.common.services.backend.file.GlobalsFileFilter;
 import org.kie.workbench.common.services.backend.file.RDRLFileFilter;
 import org.kie.workbench.common.services.backend.file.RDSLRFileFilter;
 import org.kie.workbench.common.services.backend.source.SourceServices;
-import org.kie.workbench.common.services.datamodel.backend.server.DataModelOracleUtilities;
 import org.kie.workbench.common.services.datamodel.backend.server.service.DataModelService;
 import org.kie.workbench.common.services.datamodel.model.PackageDataModelOracleBaselinePayload;
 import org.kie.workbench.common.services.shared.project.KieProjectService;
 import org.uberfire.backend.server.util.Paths;
 import org.uberfire.backend.vfs.Path;
+import org.uberfire.commons.data.Pair;
+import org.uberfire.commons.validation.PortablePreconditions;
 import org.uberfire.io.IOService;
 import org.uberfire.java.nio.base.options.CommentedOption;
 import org.uberfire.java.nio.file.FileAlreadyExistsException;
+import org.uberfire.java.nio.file.StandardOpenOption;
+import org.uberfire.java.nio.file.attribute.BasicFileAttributes;
 import org.uberfire.rpc.SessionInfo;
 import org.uberfire.security.Identity;
 import org.uberfire.workbench.events.ResourceOpenedEvent;
@@ -78,6 +93,10 @@ public class GuidedDecisionTableEditorServiceImpl implements GuidedDecisionTable
     private static final RDSLRFileFilter FILTER_RDSLR = new RDSLRFileFilter();
     private static final GlobalsFileFilter FILTER_GLOBAL = new GlobalsFileFilter();
 
+    //Changes to a table are applied under one of these locks, selected by the table's path
+    private static final int VERSION_LOCKS = 64;
+    private final Object[] versionLocks = makeVersionLocks();
+
     @Inject
     @Named("ioStrategy")
     private IOService ioService;
@@ -106,6 +125,9 @@ public class GuidedDecisionTableEditorServiceImpl implements GuidedDecisionTable
     @Inject
     private DataModelService dataModelService;
 
+    @Inject
+    private PackageDataModelPayloadCache dataModelPayloadCache;
+
     @Inject
     private SourceServices sourceServices;
 
@@ -118,6 +140,15 @@ public class GuidedDecisionTableEditorServiceImpl implements GuidedDecisionTable
     @Inject
     private GenericValidator genericValidator;
 
+    @Inject
+    private GuidedDecisionTableValidationCache validationCache;
+
+    @Inject
+    private GuidedDecisionTablePageCache pageCache;
+
+    @Inject
+    private GuidedDecisionTableSourceService sourceService;
+
     @Override
     public Path create( final Path context,
                         final String fileName,
@@ -136,7 +167,7 @@ public class GuidedDecisionTableEditorServiceImpl implements GuidedDecisionTable
             }
 
             ioService.write( nioPath,
-                             GuidedDTXMLPersistence.getInstance().marshal( content ),
+                             GuidedDTPersistence.getInstance().marshal( content ),
                              makeCommentedOption( comment ) );
 
             return newPath;
@@ -149,59 +180,155 @@ public class GuidedDecisionTableEditorServiceImpl implements GuidedDecisionTable
     @Override
     public GuidedDecisionTable52 load( final Path path ) {
         try {
-            final String content = ioService.readAllString( Paths.convert( path ) );
-
-            return GuidedDTXMLPersistence.getInstance().unmarshal( content );
+            return load( path,
+                         null ).getK1();
 
         } catch ( Exception e ) {
             throw ExceptionUtilities.handleException( e );
         }
     }
 
+    //Load the model and, if a digest is provided, the version of the persisted content
+    private Pair<GuidedDecisionTable52, String> load( final Path path,
+                                                      final MessageDigest digest ) throws IOException {
+        InputStream inputStream = null;
+        try {
+            inputStream = ioService.newInputStream( Paths.convert( path ),
+                                                    StandardOpenOption.READ );
+            if ( digest == null ) {
+                return new Pair<GuidedDecisionTable52, String>( GuidedDTPersistence.getInstance().unmarshal( inputStream ),
+                                                                null );
+            }
+
+            inputStream = new DigestInputStream( inputStream,
+                                                 digest );
+            final GuidedDecisionTable52 model = GuidedDTPersistence.getInstance().unmarshal( inputStream );
+
+            //Content not consumed by unmarshalling is still part of the version
+            final byte[] buffer = new byte[ 8192 ];
+            while ( inputStream.read( buffer ) != -1 ) {
+            }
+            return new Pair<GuidedDecisionTable52, String>( model,
+                                                            GuidedDTPersistence.toVersion( digest.digest() ) );
+
+        } finally {
+            if ( inputStream != null ) {
+                try {
+                    inputStream.close();
+                } catch ( IOException e ) {
+                }
+            }
+        }
+    }
+
     @Override
     public GuidedDecisionTableEditorContent loadContent( final Path path ) {
         try {
-            final GuidedDecisionTable52 model = load( path );
-            final PackageDataModelOracle oracle = dataModelService.getDataModel( path );
-            final PackageDataModelOracleBaselinePayload dataModel = new PackageDataModelOracleBaselinePayload();
+            final Pair<GuidedDecisionTable52, String> versionedModel = load( path,
+                                                                             GuidedDTPersistence.makeVersionDigest() );
 
-            //Get FQCN's used by model
-            final GuidedDecisionTableModelVisitor visitor = new GuidedDecisionTableModelVisitor( model );
-            final Set<String> consumedFQCNs = visitor.getConsumedModelClasses();
+            return makeContent( path,
+                                versionedModel.getK1(),
+                                versionedModel.getK2() );
 
-            //Get FQCN's used by Globals
-            consumedFQCNs.addAll( oracle.getPackageGlobals().values() );
+        } catch ( Exception e ) {
+            throw ExceptionUtilities.handleException( e );
+        }
+    }
+
+    @Override
+    public GuidedDecisionTableEditorPagedContent loadPagedContent( final Path path,
+                                                                   final GuidedDecisionTablePageRequest request ) {
+        try {
+            final Pair<GuidedDecisionTable52, String> versionedModel = load( path,
+                                                                             GuidedDTPersistence.makeVersionDigest() );
+            final GuidedDecisionTable52 model = versionedModel.getK1();
+            final GuidedDecisionTablePage page = GuidedDecisionTablePager.makePage( model,
+                                                                                    versionedModel.getK2(),
+                                                                                    request );
+
+            //Only the page's rows are sent to the client
+            model.setData( new ArrayList<List<DTCellValue52>>() );
 
-            DataModelOracleUtilities.populateDataModel( oracle,
-                                                        dataModel,
-                                                        consumedFQCNs );
+            return new GuidedDecisionTableEditorPagedContent( makeContent( path,
+                                                                           model,
+                                                                           versionedModel.getK2() ),
+                                                              page );
 
-            final Set<PortableWorkDefinition> workItemDefinitions = workItemsService.loadWorkItemDefinitions( path );
+        } catch ( Exception e ) {
+            throw ExceptionUtilities.handleException( e );
+        }
+    }
 
-            //Signal opening to interested parties
-            resourceOpenedEvent.fire( new ResourceOpenedEvent( path,
-                                                               sessionInfo ) );
+    @Override
+    public GuidedDecisionTablePage loadPage( final Path path,
+                                             final GuidedDecisionTablePageRequest request ) {
+        try {
+            //Paging through a table re-uses the loaded table and its sorted and filtered rows until the file changes
+            final String fileKey = getFileKey( path );
+            GuidedDecisionTablePageCache.Entry entry = pageCache.get( path,
+                                                                      fileKey );
+            if ( entry == null ) {
+                final long generation = pageCache.getGeneration();
+                final Pair<GuidedDecisionTable52, String> versionedModel = load( path,
+                                                                                 GuidedDTPersistence.makeVersionDigest() );
+                entry = pageCache.put( path,
+                                       fileKey,
+                                       generation,
+                                       versionedModel.getK1(),
+                                       versionedModel.getK2() );
+            }
 
-            return new GuidedDecisionTableEditorContent( model,
-                                                         workItemDefinitions,
-                                                         dataModel );
+            return GuidedDecisionTablePager.makePage( entry.getModel(),
+                                                      entry.getVersion(),
+                                                      entry.getRowIndexes( request ),
+                                                      request );
 
         } catch ( Exception e ) {
             throw ExceptionUtilities.handleException( e );
         }
     }
 
+    private String getFileKey( final Path path ) {
+        final BasicFileAttributes attrs = ioService.readAttributes( Paths.convert( path ),
+                                                                   BasicFileAttributes.class );
+        return attrs.lastModifiedTime().toMillis() + "|" + attrs.size();
+    }
+
+    private GuidedDecisionTableEditorContent makeContent( final Path path,
+                                                          final GuidedDecisionTable52 model,
+                                                          final String version ) {
+        final PackageDataModelOracle oracle = dataModelService.getDataModel( path );
+
+        //Get FQCN's used by model
+        final GuidedDecisionTableModelVisitor visitor = new GuidedDecisionTableModelVisitor( model );
+        final Set<String> consumedFQCNs = visitor.getConsumedModelClasses();
+
+        //Get FQCN's used by Globals
+        consumedFQCNs.addAll( oracle.getPackageGlobals().values() );
+
+        final PackageDataModelOracleBaselinePayload dataModel = dataModelPayloadCache.getDataModel( oracle,
+                                                                                                    consumedFQCNs );
+
+        final Set<PortableWorkDefinition> workItemDefinitions = workItemsService.loadWorkItemDefinitions( path );
+
+        //Signal opening to interested parties
+        resourceOpenedEvent.fire( new ResourceOpenedEvent( path,
+                                                           sessionInfo ) );
+
+        return new GuidedDecisionTableEditorContent( model,
+                                                     workItemDefinitions,
+                                                     dataModel,
+                                                     version );
+    }
+
     @Override
     public PackageDataModelOracleBaselinePayload loadDataModel( final Path path ) {
         try {
             final PackageDataModelOracle oracle = dataModelService.getDataModel( path );
-            final PackageDataModelOracleBaselinePayload dataModel = new PackageDataModelOracleBaselinePayload();
             //There are no classes to pre-load into the DMO when requesting a new Data Model only
-            DataModelOracleUtilities.populateDataModel( oracle,
-                                                        dataModel,
-                                                        new HashSet<String>() );
-
-            return dataModel;
+            return dataModelPayloadCache.getDataModel( oracle,
+                                                       new HashSet<String>() );
 
         } catch ( Exception e ) {
             throw ExceptionUtilities.handleException( e );
@@ -213,18 +340,116 @@ public class GuidedDecisionTableEditorServiceImpl implements GuidedDecisionTable
                       final GuidedDecisionTable52 model,
                       final Metadata metadata,
                       final String comment ) {
+        save( resource,
+              model,
+              null,
+              metadata,
+              comment );
+        return resource;
+    }
+
+    @Override
+    public String save( final Path resource,
+                        final GuidedDecisionTable52 model,
+                        final String baseVersion,
+                        final Metadata metadata,
+                        final String comment ) {
         try {
             final Package pkg = projectService.resolvePackage( resource );
             final String packageName = ( pkg == null ? null : pkg.getPackageName() );
             model.setPackageName( packageName );
 
-            ioService.write( Paths.convert( resource ),
-                             GuidedDTXMLPersistence.getInstance().marshal( model ),
-                             metadataService.setUpAttributes( resource,
-                                                              metadata ),
-                             makeCommentedOption( comment ) );
+            final byte[] content = GuidedDTPersistence.getInstance().marshal( model );
+
+            //The version check and write must be atomic with respect to other changes to the same table
+            synchronized ( getVersionLock( resource ) ) {
+                if ( baseVersion != null ) {
+                    final String currentVersion = getVersion( resource );
+                    if ( !baseVersion.equals( currentVersion ) ) {
+                        throw new GuidedDecisionTableVersionConflictException( baseVersion,
+                                                                               currentVersion );
+                    }
+                }
+                ioService.write( Paths.convert( resource ),
+                                 content,
+                                 metadataService.setUpAttributes( resource,
+                                                                  metadata ),
+                                 makeCommentedOption( comment ) );
+                pageCache.invalidate( resource );
+            }
+
+            return GuidedDTPersistence.getVersion( content );
 
-            return resource;
+        } catch ( GuidedDecisionTableVersionConflictException e ) {
+            throw e;
+
+        } catch ( Exception e ) {
+            throw ExceptionUtilities.handleException( e );
+        }
+    }
+
+    //Version of the persisted content, read without unmarshalling the table
+    private String getVersion( final Path path ) throws IOException {
+        final MessageDigest digest = GuidedDTPersistence.makeVersionDigest();
+        InputStream inputStream = null;
+        try {
+            inputStream = new DigestInputStream( ioService.newInputStream( Paths.convert( path ),
+                                                                           StandardOpenOption.READ ),
+                                                 digest );
+            final byte[] buffer = new byte[ 8192 ];
+            while ( inputStream.read( buffer ) != -1 ) {
+            }
+            return GuidedDTPersistence.toVersion( digest.digest() );
+
+        } finally {
+            if ( inputStream != null ) {
+                try {
+                    inputStream.close();
+                } catch ( IOException e ) {
+                }
+            }
+        }
+    }
+
+    @Override
+    public String saveChanges( final Path resource,
+                               final GuidedDecisionTableChangeSet changeSet,
+                               final Metadata metadata,
+                               final String comment ) {
+        //Changes can only be applied to the version they were made against
+        PortablePreconditions.checkNotNull( "baseVersion",
+                                            changeSet.getBaseVersion() );
+        try {
+            //The version check and write must be atomic with respect to other changes to the same table
+            synchronized ( getVersionLock( resource ) ) {
+                final MessageDigest digest = GuidedDTPersistence.makeVersionDigest();
+                final Pair<GuidedDecisionTable52, String> versionedModel = load( resource,
+                                                                                 digest );
+                final String currentVersion = versionedModel.getK2();
+                if ( !changeSet.getBaseVersion().equals( currentVersion ) ) {
+                    throw new GuidedDecisionTableVersionConflictException( changeSet.getBaseVersion(),
+                                                                           currentVersion );
+                }
+
+                final GuidedDecisionTable52 model = GuidedDecisionTablePager.applyChangeSet( versionedModel.getK1(),
+                                                                                             changeSet );
+                final Package pkg = projectService.resolvePackage( resource );
+                final String packageName = ( pkg == null ? null : pkg.getPackageName() );
+                model.setPackageName( packageName );
+
+                final byte[] content = GuidedDTPersistence.getInstance().marshal( model );
+                ioService.write( Paths.convert( resource ),
+                                 content,
+                                 metadataService.setUpAttributes( resource,
+                                                                  metadata ),
+                                 makeCommentedOption( comment ) );
+                pageCache.invalidate( resource );
+
+                return GuidedDTPersistence.toVersion( digest.digest( content ) );
+            }
+
+        } catch ( GuidedDecisionTableVersionConflictException e ) {
+            throw e;
 
         } catch ( Exception e ) {
             throw ExceptionUtilities.handleException( e );
@@ -287,23 +512,41 @@ public class GuidedDecisionTableEditorServiceImpl implements GuidedDecisionTable
     public List<ValidationMessage> validate( final Path path,
                                              final GuidedDecisionTable52 content ) {
         try {
-            return genericValidator.validate( path,
-                                              new ByteArrayInputStream(
-                                                      GuidedDTXMLPersistence.getInstance().marshal( content ).getBytes( Charsets.UTF_8 )
-                                              ),
-                                              FILTER_JAVA,
-                                              FILTER_DRL,
-                                              FILTER_DSLR,
-                                              FILTER_DSL,
-                                              FILTER_RDRL,
-                                              FILTER_RDSLR,
-                                              FILTER_GLOBAL );
+            //Only rows not already known to be valid are validated
+            final GuidedDecisionTableValidationCache.Delta delta = validationCache.getDelta( path,
+                                                                                             content );
+            if ( delta.isValid() ) {
+                return new ArrayList<ValidationMessage>();
+            }
+
+            //Validate the table's DRL, shared with the source view, as a DRL resource alongside the table. Guided
+            //Decision Tables are not included in validation, so the table itself is not built as well.
+            final String drl = sourceService.getSource( Paths.convert( path ),
+                                                        delta.getModel() );
+            final List<ValidationMessage> messages = genericValidator.validate( getDRLPath( path ),
+                                                                                new ByteArrayInputStream( drl.getBytes( Charsets.UTF_8 ) ),
+                                                                                FILTER_JAVA,
+                                                                                FILTER_DRL,
+                                                                                FILTER_DSLR,
+                                                                                FILTER_DSL,
+                                                                                FILTER_RDRL,
+                                                                                FILTER_RDSLR,
+                                                                                FILTER_GLOBAL );
+            if ( messages.isEmpty() ) {
+                validationCache.putValid( delta );
+            }
+            return messages;
 
         } catch ( Exception e ) {
             throw ExceptionUtilities.handleException( e );
         }
     }
 
+    private Path getDRLPath( final Path path ) {
+        final org.uberfire.java.nio.file.Path nioPath = Paths.convert( path );
+        return Paths.convert( nioPath.resolveSibling( nioPath.getFileName().toString() + ".drl" ) );
+    }
+
     private CommentedOption makeCommentedOption( final String commitMessage ) {
         final String name = identity.getName();
         final Date when = new Date();
@@ -315,4 +558,16 @@ public class GuidedDecisionTableEditorServiceImpl implements GuidedDecisionTable
         return co;
     }
 
+    private Object getVersionLock( final Path path ) {
+        return versionLocks[ ( path.toURI().hashCode() & Integer.MAX_VALUE ) % versionLocks.length ];
+    }
+
+    private static Object[] makeVersionLocks() {
+        final Object[] locks = new Object[ VERSION_LOCKS ];
+        for ( int i = 0; i < locks.length; i++ ) {
+            locks[ i ] = new Object();
+        }
+        return locks;
+    }
+
 }
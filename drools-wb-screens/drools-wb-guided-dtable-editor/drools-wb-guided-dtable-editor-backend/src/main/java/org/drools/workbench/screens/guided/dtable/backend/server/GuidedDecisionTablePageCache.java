@@ -0,0 +1,194 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.guided.dtable.backend.server;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+
+import org.drools.workbench.models.guided.dtable.shared.model.GuidedDecisionTable52;
+import org.drools.workbench.screens.guided.dtable.model.GuidedDecisionTablePageRequest;
+import org.uberfire.backend.vfs.Path;
+import org.uberfire.workbench.events.ResourceBatchChangesEvent;
+import org.uberfire.workbench.events.ResourceDeletedEvent;
+import org.uberfire.workbench.events.ResourceRenamedEvent;
+import org.uberfire.workbench.events.ResourceUpdatedEvent;
+
+/**
+ * Cache of Guided Decision Tables being paged, with the sorted and filtered row indexes of recent page requests. Tables
+ * are keyed by path and only used whilst the file's last modified time and size are those they were loaded with.
+ * Entries are also removed when the table is changed, renamed or deleted. Cached models are shared by all requests for
+ * the table and must not be modified.
+ */
+@ApplicationScoped
+public class GuidedDecisionTablePageCache {
+
+    public static final String MAX_ENTRIES_PROPERTY = "org.drools.workbench.guided.dtable.pageCache.maxEntries";
+
+    private static final int DEFAULT_MAX_ENTRIES = 20;
+
+    //Row indexes retained per table, one for each combination of sort and filters
+    private static final int MAX_ROW_INDEXES = 8;
+
+    private final Map<String, Entry> entries = Collections.synchronizedMap( new LinkedHashMap<String, Entry>( 16,
+                                                                                                           0.75f,
+                                                                                                           true ) {
+        @Override
+        protected boolean removeEldestEntry( final Map.Entry<String, Entry> eldest ) {
+            return size() > Integer.getInteger( MAX_ENTRIES_PROPERTY,
+                                                DEFAULT_MAX_ENTRIES );
+        }
+    } );
+
+    //Incremented on invalidation so that tables loaded beforehand are not cached afterwards
+    private volatile long generation = 0;
+
+    /**
+     * Get a cached table
+     * @param path
+     * @param fileKey Last modified time and size of the table's file
+     * @return The entry or null if the table is not cached for the file's attributes
+     */
+    public Entry get( final Path path,
+                      final String fileKey ) {
+        final Entry entry = entries.get( path.toURI() );
+        if ( entry == null || !entry.fileKey.equals( fileKey ) ) {
+            return null;
+        }
+        return entry;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Cache a table
+     * @param path
+     * @param fileKey Last modified time and size of the table's file
+     * @param generation Generation when loading the table started; see getGeneration()
+     * @param model
+     * @param version
+     * @return The entry, which is not cached if the cache was invalidated whilst the table was loaded
+     */
+    public Entry put( final Path path,
+                      final String fileKey,
+                      final long generation,
+                      final GuidedDecisionTable52 model,
+                      final String version ) {
+        final Entry entry = new Entry( fileKey,
+                                       model,
+                                       version );
+        synchronized ( entries ) {
+            if ( generation == this.generation ) {
+                entries.put( path.toURI(),
+                             entry );
+            }
+        }
+        return entry;
+    }
+
+    public void invalidate() {
+        synchronized ( entries ) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    public void invalidate( final Path path ) {
+        if ( path == null ) {
+            return;
+        }
+        synchronized ( entries ) {
+            generation++;
+            entries.remove( path.toURI() );
+        }
+    }
+
+    public void onResourceUpdated( @Observes final ResourceUpdatedEvent event ) {
+        invalidate( event.getPath() );
+    }
+
+    public void onResourceDeleted( @Observes final ResourceDeletedEvent event ) {
+        invalidate( event.getPath() );
+    }
+
+    public void onResourceRenamed( @Observes final ResourceRenamedEvent event ) {
+        invalidate( event.getPath() );
+        invalidate( event.getDestinationPath() );
+    }
+
+    public void onBatchChanges( @Observes final ResourceBatchChangesEvent event ) {
+        invalidate();
+    }
+
+    /**
+     * A cached table and the row indexes of recent page requests
+     */
+    public static class Entry {
+
+        private final String fileKey;
+        private final GuidedDecisionTable52 model;
+        private final String version;
+
+        private final Map<String, List<Integer>> rowIndexes = new LinkedHashMap<String, List<Integer>>( 16,
+                                                                                                       0.75f,
+                                                                                                       true ) {
+            @Override
+            protected boolean removeEldestEntry( final Map.Entry<String, List<Integer>> eldest ) {
+                return size() > MAX_ROW_INDEXES;
+            }
+        };
+
+        private Entry( final String fileKey,
+                       final GuidedDecisionTable52 model,
+                       final String version ) {
+            this.fileKey = fileKey;
+            this.model = model;
+            this.version = version;
+        }
+
+        public GuidedDecisionTable52 getModel() {
+            return model;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        /**
+         * Indexes of the table's rows sorted and filtered for a request, computed on first use
+         * @param request
+         * @return
+         */
+        public synchronized List<Integer> getRowIndexes( final GuidedDecisionTablePageRequest request ) {
+            final String key = GuidedDecisionTablePager.makeRowIndexesKey( request );
+            List<Integer> indexes = rowIndexes.get( key );
+            if ( indexes == null ) {
+                indexes = Collections.unmodifiableList( GuidedDecisionTablePager.getRowIndexes( model,
+                                                                                               request ) );
+                rowIndexes.put( key,
+                                indexes );
+            }
+            return indexes;
+        }
+
+    }
+
+}
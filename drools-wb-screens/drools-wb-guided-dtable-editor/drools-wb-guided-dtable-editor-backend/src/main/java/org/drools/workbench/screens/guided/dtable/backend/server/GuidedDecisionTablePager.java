@@ -0,0 +1,444 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.guided.dtable.backend.server;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.drools.workbench.models.datamodel.oracle.DataType;
+import org.drools.workbench.models.guided.dtable.shared.model.BaseColumn;
+import org.drools.workbench.models.guided.dtable.shared.model.DTCellValue52;
+import org.drools.workbench.models.guided.dtable.shared.model.DTColumnConfig52;
+import org.drools.workbench.models.guided.dtable.shared.model.DescriptionCol52;
+import org.drools.workbench.models.guided.dtable.shared.model.GuidedDecisionTable52;
+import org.drools.workbench.models.guided.dtable.shared.model.RowNumberCol52;
+import org.drools.workbench.screens.guided.dtable.model.GuidedDecisionTableChangeSet;
+import org.drools.workbench.screens.guided.dtable.model.GuidedDecisionTablePage;
+import org.drools.workbench.screens.guided.dtable.model.GuidedDecisionTablePageRequest;
+import org.drools.workbench.screens.guided.dtable.model.GuidedDecisionTableRowPatch;
+
+/**
+ * Sorting, filtering and windowing of Guided Decision Table rows, and application of row patches and change sets
+ */
+public class GuidedDecisionTablePager {
+
+    private GuidedDecisionTablePager() {
+    }
+
+    /**
+     * Make a window of rows. Rows are sorted and filtered before the window is taken; the model is not changed.
+     * @param model
+     * @param version
+     * @param request
+     * @return
+     */
+    public static GuidedDecisionTablePage makePage( final GuidedDecisionTable52 model,
+                                                    final String version,
+                                                    final GuidedDecisionTablePageRequest request ) {
+        return makePage( model,
+                         version,
+                         getRowIndexes( model,
+                                        request ),
+                         request );
+    }
+
+    /**
+     * Make a window of rows from row indexes already sorted and filtered for the request; see getRowIndexes()
+     * @param model
+     * @param version
+     * @param rowIndexes
+     * @param request
+     * @return
+     */
+    public static GuidedDecisionTablePage makePage( final GuidedDecisionTable52 model,
+                                                    final String version,
+                                                    final List<Integer> rowIndexes,
+                                                    final GuidedDecisionTablePageRequest request ) {
+        final List<List<DTCellValue52>> data = model.getData();
+        final int offset = Math.max( 0,
+                                     Math.min( request.getOffset(),
+                                               rowIndexes.size() ) );
+        final int end = ( request.getLimit() <= 0 ? rowIndexes.size() : Math.min( rowIndexes.size(),
+                                                                                  offset + request.getLimit() ) );
+        final GuidedDecisionTablePage page = new GuidedDecisionTablePage( version,
+                                                                          offset,
+                                                                          data.size(),
+                                                                          rowIndexes.size() );
+        for ( Integer rowIndex : rowIndexes.subList( offset,
+                                                     end ) ) {
+            page.addRow( rowIndex,
+                         data.get( rowIndex ) );
+        }
+        return page;
+    }
+
+    /**
+     * Indexes of the model's rows that match the request's filters, in the request's sort order
+     * @param model
+     * @param request
+     * @return
+     */
+    public static List<Integer> getRowIndexes( final GuidedDecisionTable52 model,
+                                               final GuidedDecisionTablePageRequest request ) {
+        final List<List<DTCellValue52>> data = model.getData();
+
+        final List<Integer> rowIndexes = new ArrayList<Integer>();
+        for ( int iRow = 0; iRow < data.size(); iRow++ ) {
+            if ( matches( data.get( iRow ),
+                          request.getFilters() ) ) {
+                rowIndexes.add( iRow );
+            }
+        }
+
+        final int sortColumnIndex = request.getSortColumnIndex();
+        if ( sortColumnIndex != GuidedDecisionTablePageRequest.NO_SORT ) {
+            final Comparator<Integer> comparator = new Comparator<Integer>() {
+                @Override
+                public int compare( final Integer o1,
+                                    final Integer o2 ) {
+                    final int result = compareCells( getCell( data.get( o1 ),
+                                                              sortColumnIndex ),
+                                                     getCell( data.get( o2 ),
+                                                              sortColumnIndex ) );
+                    return ( request.isSortAscending() ? result : -result );
+                }
+            };
+            //Collections.sort is stable, so equal rows remain in table order
+            Collections.sort( rowIndexes,
+                              comparator );
+        }
+        return rowIndexes;
+    }
+
+    /**
+     * Key of the sort and filters of a request; requests with the same key have the same row indexes
+     * @param request
+     * @return
+     */
+    public static String makeRowIndexesKey( final GuidedDecisionTablePageRequest request ) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append( request.getSortColumnIndex() ).append( request.isSortAscending() ? '+' : '-' );
+        for ( Map.Entry<Integer, String> e : new TreeMap<Integer, String>( request.getFilters() ).entrySet() ) {
+            if ( e.getValue() == null || e.getValue().isEmpty() ) {
+                continue;
+            }
+            //Filters match case-insensitively; prefix values with their length so that no two requests share a key
+            final String text = e.getValue().toLowerCase();
+            sb.append( '|' ).append( e.getKey() ).append( ':' ).append( text.length() ).append( ':' ).append( text );
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Apply changes to the model's rows. Row numbers are re-sequenced if rows were deleted or appended.
+     * @param model
+     * @param patch
+     */
+    public static void applyPatch( final GuidedDecisionTable52 model,
+                                   final GuidedDecisionTableRowPatch patch ) {
+        final List<List<DTCellValue52>> data = model.getData();
+        final int columnCount = model.getExpandedColumns().size();
+
+        for ( Map.Entry<Integer, List<DTCellValue52>> e : patch.getUpdatedRows().entrySet() ) {
+            final int rowIndex = e.getKey();
+            checkRowIndex( rowIndex,
+                           data.size() );
+            data.set( rowIndex,
+                      checkRow( e.getValue(),
+                                columnCount ) );
+        }
+
+        if ( !patch.getDeletedRows().isEmpty() ) {
+            final List<Integer> deletedRows = new ArrayList<Integer>( patch.getDeletedRows() );
+            Collections.sort( deletedRows,
+                              Collections.reverseOrder() );
+            for ( Integer rowIndex : deletedRows ) {
+                checkRowIndex( rowIndex,
+                               data.size() );
+                data.remove( rowIndex.intValue() );
+            }
+        }
+
+        for ( List<DTCellValue52> row : patch.getAppendedRows() ) {
+            data.add( checkRow( row,
+                                columnCount ) );
+        }
+
+        if ( !( patch.getDeletedRows().isEmpty() && patch.getAppendedRows().isEmpty() ) ) {
+            renumberRows( data );
+        }
+    }
+
+    /**
+     * Apply a change set to the model; column changes first, then changes to rows
+     * @param model
+     * @param changeSet
+     * @return The model with the changes applied. This is a different instance if columns were changed.
+     */
+    public static GuidedDecisionTable52 applyChangeSet( final GuidedDecisionTable52 model,
+                                                        final GuidedDecisionTableChangeSet changeSet ) {
+        GuidedDecisionTable52 result = model;
+        if ( changeSet.hasColumnChanges() ) {
+            result = applyColumnChanges( model,
+                                         changeSet.getColumnModel(),
+                                         changeSet.getColumnSources() );
+        }
+        if ( changeSet.getRowPatch() != null ) {
+            applyPatch( result,
+                        changeSet.getRowPatch() );
+        }
+        return result;
+    }
+
+    //Move the model's cells to the new column definitions, populating new columns with their default value. Cells
+    //of a column that is the source of more than one new column are copied so that no two columns share a cell.
+    private static GuidedDecisionTable52 applyColumnChanges( final GuidedDecisionTable52 model,
+                                                             final GuidedDecisionTable52 columnModel,
+                                                             final List<Integer> columnSources ) {
+        final List<BaseColumn> columns = columnModel.getExpandedColumns();
+        if ( columnSources.size() != columns.size() ) {
+            throw new IllegalArgumentException( "Column sources have " + columnSources.size() + " entries whereas the table has " + columns.size() + " columns." );
+        }
+        final int oldColumnCount = model.getExpandedColumns().size();
+        for ( Integer source : columnSources ) {
+            if ( source != GuidedDecisionTableChangeSet.NEW_COLUMN && ( source < 0 || source >= oldColumnCount ) ) {
+                throw new IllegalArgumentException( "Column source " + source + " is outside of the table's " + oldColumnCount + " columns." );
+            }
+        }
+        //Row number and description columns cannot be moved, added or removed
+        if ( columns.size() < 2 || !( columns.get( 0 ) instanceof RowNumberCol52 ) || !( columns.get( 1 ) instanceof DescriptionCol52 ) ) {
+            throw new IllegalArgumentException( "The row number and description columns must be the first two columns." );
+        }
+        if ( columnSources.get( 0 ) != 0 || columnSources.get( 1 ) != 1 ) {
+            throw new IllegalArgumentException( "The row number and description columns must keep their cells." );
+        }
+        final boolean[] isCopy = new boolean[ columns.size() ];
+        final Set<Integer> usedSources = new HashSet<Integer>();
+        for ( int iCol = 0; iCol < columns.size(); iCol++ ) {
+            final int source = columnSources.get( iCol );
+            isCopy[ iCol ] = source != GuidedDecisionTableChangeSet.NEW_COLUMN && !usedSources.add( source );
+        }
+
+        final List<List<DTCellValue52>> data = new ArrayList<List<DTCellValue52>>( model.getData().size() );
+        for ( List<DTCellValue52> oldRow : model.getData() ) {
+            final List<DTCellValue52> row = new ArrayList<DTCellValue52>( columns.size() );
+            for ( int iCol = 0; iCol < columns.size(); iCol++ ) {
+                final int source = columnSources.get( iCol );
+                if ( source == GuidedDecisionTableChangeSet.NEW_COLUMN ) {
+                    row.add( makeDefaultCell( columns.get( iCol ) ) );
+                } else if ( isCopy[ iCol ] ) {
+                    row.add( copyCell( oldRow.get( source ) ) );
+                } else {
+                    row.add( oldRow.get( source ) );
+                }
+            }
+            data.add( row );
+        }
+        columnModel.setData( data );
+        return columnModel;
+    }
+
+    private static DTCellValue52 copyCell( final DTCellValue52 cell ) {
+        if ( cell == null ) {
+            return null;
+        }
+        final DTCellValue52 copy = new DTCellValue52( cell );
+        copy.setOtherwise( cell.isOtherwise() );
+        return copy;
+    }
+
+    private static DTCellValue52 makeDefaultCell( final BaseColumn column ) {
+        final DTCellValue52 defaultValue = ( column instanceof DTColumnConfig52 ? ( (DTColumnConfig52) column ).getDefaultValue() : null );
+        final DTCellValue52 cell = new DTCellValue52();
+        if ( defaultValue == null ) {
+            cell.setStringValue( "" );
+            return cell;
+        }
+        switch ( defaultValue.getDataType() ) {
+            case BOOLEAN:
+                cell.setBooleanValue( defaultValue.getBooleanValue() );
+                break;
+            case DATE:
+                cell.setDateValue( defaultValue.getDateValue() );
+                break;
+            case NUMERIC:
+                cell.setNumericValue( defaultValue.getNumericValue() );
+                break;
+            case NUMERIC_BIGDECIMAL:
+                cell.setNumericValue( (BigDecimal) defaultValue.getNumericValue() );
+                break;
+            case NUMERIC_BIGINTEGER:
+                cell.setNumericValue( (BigInteger) defaultValue.getNumericValue() );
+                break;
+            case NUMERIC_BYTE:
+                cell.setNumericValue( (Byte) defaultValue.getNumericValue() );
+                break;
+            case NUMERIC_DOUBLE:
+                cell.setNumericValue( (Double) defaultValue.getNumericValue() );
+                break;
+            case NUMERIC_FLOAT:
+                cell.setNumericValue( (Float) defaultValue.getNumericValue() );
+                break;
+            case NUMERIC_INTEGER:
+                cell.setNumericValue( (Integer) defaultValue.getNumericValue() );
+                break;
+            case NUMERIC_LONG:
+                cell.setNumericValue( (Long) defaultValue.getNumericValue() );
+                break;
+            case NUMERIC_SHORT:
+                cell.setNumericValue( (Short) defaultValue.getNumericValue() );
+                break;
+            default:
+                cell.setStringValue( defaultValue.getStringValue() );
+        }
+        return cell;
+    }
+
+    private static boolean matches( final List<DTCellValue52> row,
+                                    final Map<Integer, String> filters ) {
+        for ( Map.Entry<Integer, String> e : filters.entrySet() ) {
+            if ( e.getValue() == null || e.getValue().isEmpty() ) {
+                continue;
+            }
+            final String text = getText( getCell( row,
+                                                  e.getKey() ) );
+            if ( text == null || !text.toLowerCase().contains( e.getValue().toLowerCase() ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static DTCellValue52 getCell( final List<DTCellValue52> row,
+                                          final int columnIndex ) {
+        if ( columnIndex < 0 || columnIndex >= row.size() ) {
+            return null;
+        }
+        return row.get( columnIndex );
+    }
+
+    private static Object getValue( final DTCellValue52 dcv ) {
+        if ( dcv == null || dcv.isOtherwise() ) {
+            return null;
+        }
+        switch ( dcv.getDataType() ) {
+            case BOOLEAN:
+                return dcv.getBooleanValue();
+            case DATE:
+                return dcv.getDateValue();
+            case STRING:
+                return dcv.getStringValue();
+            default:
+                return dcv.getNumericValue();
+        }
+    }
+
+    private static String getText( final DTCellValue52 dcv ) {
+        final Object value = getValue( dcv );
+        return ( value == null ? null : value.toString() );
+    }
+
+    //Empty cells sort first, "otherwise" cells last; numbers are compared by value regardless of their type
+    @SuppressWarnings("unchecked")
+    private static int compareCells( final DTCellValue52 dcv1,
+                                     final DTCellValue52 dcv2 ) {
+        final int rank1 = rank( dcv1 );
+        final int rank2 = rank( dcv2 );
+        if ( rank1 != rank2 || rank1 != 1 ) {
+            return rank1 - rank2;
+        }
+        final Object value1 = getValue( dcv1 );
+        final Object value2 = getValue( dcv2 );
+        if ( value1 instanceof Number && value2 instanceof Number ) {
+            return compareNumbers( (Number) value1,
+                                   (Number) value2 );
+        }
+        if ( value1.getClass().equals( value2.getClass() ) && value1 instanceof Comparable ) {
+            return ( (Comparable<Object>) value1 ).compareTo( value2 );
+        }
+        return value1.toString().compareTo( value2.toString() );
+    }
+
+    //BigDecimal holds any finite value exactly; NaN and infinite Doubles and Floats are compared as doubles
+    private static int compareNumbers( final Number value1,
+                                       final Number value2 ) {
+        if ( isNonFinite( value1 ) || isNonFinite( value2 ) ) {
+            return Double.compare( value1.doubleValue(),
+                                   value2.doubleValue() );
+        }
+        return new BigDecimal( value1.toString() ).compareTo( new BigDecimal( value2.toString() ) );
+    }
+
+    private static boolean isNonFinite( final Number value ) {
+        if ( value instanceof Double ) {
+            return ( (Double) value ).isNaN() || ( (Double) value ).isInfinite();
+        }
+        if ( value instanceof Float ) {
+            return ( (Float) value ).isNaN() || ( (Float) value ).isInfinite();
+        }
+        return false;
+    }
+
+    private static int rank( final DTCellValue52 dcv ) {
+        if ( dcv != null && dcv.isOtherwise() ) {
+            return 2;
+        }
+        final Object value = getValue( dcv );
+        return ( value == null || "".equals( value ) ? 0 : 1 );
+    }
+
+    private static void checkRowIndex( final int rowIndex,
+                                       final int rowCount ) {
+        if ( rowIndex < 0 || rowIndex >= rowCount ) {
+            throw new IllegalArgumentException( "Row index " + rowIndex + " is outside of the table's " + rowCount + " rows." );
+        }
+    }
+
+    private static List<DTCellValue52> checkRow( final List<DTCellValue52> row,
+                                                 final int columnCount ) {
+        if ( row == null || row.size() != columnCount ) {
+            throw new IllegalArgumentException( "Row has " + ( row == null ? 0 : row.size() ) + " cells whereas the table has " + columnCount + " columns." );
+        }
+        return row;
+    }
+
+    private static void renumberRows( final List<List<DTCellValue52>> data ) {
+        for ( int iRow = 0; iRow < data.size(); iRow++ ) {
+            final List<DTCellValue52> row = data.get( iRow );
+            if ( row.isEmpty() ) {
+                continue;
+            }
+            final DTCellValue52 rowNumber = row.get( 0 );
+            if ( rowNumber == null ) {
+                row.set( 0,
+                         new DTCellValue52( Integer.valueOf( iRow + 1 ) ) );
+            } else if ( rowNumber.getDataType() == DataType.DataTypes.NUMERIC_INTEGER ) {
+                rowNumber.setNumericValue( Integer.valueOf( iRow + 1 ) );
+            } else {
+                rowNumber.setNumericValue( new BigDecimal( iRow + 1 ) );
+            }
+        }
+    }
+
+}
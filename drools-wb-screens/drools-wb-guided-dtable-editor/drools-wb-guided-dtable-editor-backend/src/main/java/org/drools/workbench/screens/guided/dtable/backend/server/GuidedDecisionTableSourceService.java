@@ -16,26 +16,74 @@
 
 package org.drools.workbench.screens.guided.dtable.backend.server;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import javax.inject.Named;
 
-import org.drools.workbench.models.guided.dtable.backend.GuidedDTDRLPersistence;
 import org.drools.workbench.models.guided.dtable.shared.model.GuidedDecisionTable52;
-import org.drools.workbench.screens.guided.dtable.service.GuidedDecisionTableEditorService;
+import org.drools.workbench.screens.guided.dtable.backend.server.util.GuidedDTParallelDRLPersistence;
+import org.drools.workbench.screens.guided.dtable.backend.server.util.GuidedDTPersistence;
 import org.drools.workbench.screens.guided.dtable.type.GuidedDTableResourceTypeDefinition;
-import org.uberfire.backend.server.util.Paths;
-import org.uberfire.java.nio.file.Path;
 import org.kie.workbench.common.services.backend.source.BaseSourceService;
+import org.uberfire.io.IOService;
+import org.uberfire.java.nio.file.Path;
 
 @ApplicationScoped
 public class GuidedDecisionTableSourceService
         extends BaseSourceService<GuidedDecisionTable52> {
 
+    public static final String PARALLEL_MIN_ROWS_PROPERTY = "org.drools.workbench.guided.dtable.drl.parallelMinRows";
+    public static final String PARALLEL_WORKERS_PROPERTY = "org.drools.workbench.guided.dtable.drl.parallelWorkers";
+
+    private static final int DEFAULT_PARALLEL_MIN_ROWS = 2000;
+
     @Inject
     private GuidedDTableResourceTypeDefinition resourceType;
 
     @Inject
-    private GuidedDecisionTableEditorService guidedDecisionTableEditorService;
+    @Named("ioStrategy")
+    private IOService ioService;
+
+    @Inject
+    private GuidedDecisionTableDRLCache cache;
+
+    private ExecutorService executor;
+    private GuidedDTParallelDRLPersistence drlPersistence;
+
+    @PostConstruct
+    public void setup() {
+        final int workers = Integer.getInteger( PARALLEL_WORKERS_PROPERTY,
+                                                Runtime.getRuntime().availableProcessors() );
+        final int minRows = Integer.getInteger( PARALLEL_MIN_ROWS_PROPERTY,
+                                                DEFAULT_PARALLEL_MIN_ROWS );
+        executor = Executors.newFixedThreadPool( Math.max( 1,
+                                                           workers ),
+                                                 new ThreadFactory() {
+                                                     private final AtomicInteger count = new AtomicInteger();
+
+                                                     @Override
+                                                     public Thread newThread( final Runnable r ) {
+                                                         final Thread t = new Thread( r,
+                                                                                      "dtable-drl-" + count.incrementAndGet() );
+                                                         t.setDaemon( true );
+                                                         return t;
+                                                     }
+                                                 } );
+        drlPersistence = new GuidedDTParallelDRLPersistence( executor,
+                                                             workers,
+                                                             minRows );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
 
     @Override
     public String getPattern() {
@@ -45,13 +93,28 @@ public class GuidedDecisionTableSourceService
     @Override
     public String getSource( final Path path,
                              final GuidedDecisionTable52 model ) {
-        return new StringBuilder().append( GuidedDTDRLPersistence.getInstance().marshal( model ) ).toString();
+        //A model from an editor that is the same as a persisted table has the same content version
+        return getSource( GuidedDTPersistence.getInstance().marshal( model ),
+                          model );
     }
 
     @Override
     public String getSource( final Path path ) {
-        return getSource( path,
-                          guidedDecisionTableEditorService.load( Paths.convert( path ) ) );
+        return getSource( ioService.readAllBytes( path ),
+                          null );
+    }
+
+    //The DRL of persisted content, generated from the model if given or otherwise from the content
+    private String getSource( final byte[] content,
+                              final GuidedDecisionTable52 model ) {
+        final String version = GuidedDTPersistence.getVersion( content );
+        String drl = cache.get( version );
+        if ( drl == null ) {
+            drl = drlPersistence.marshal( model != null ? model : GuidedDTPersistence.getInstance().unmarshal( content ) );
+            cache.put( version,
+                       drl );
+        }
+        return drl;
     }
 
 }
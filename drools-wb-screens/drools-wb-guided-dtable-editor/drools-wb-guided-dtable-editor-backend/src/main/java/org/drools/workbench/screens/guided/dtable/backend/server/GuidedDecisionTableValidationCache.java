@@ -0,0 +1,344 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.guided.dtable.backend.server;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+
+import com.google.common.base.Charsets;
+import org.drools.workbench.models.guided.dtable.backend.GuidedDTXMLPersistence;
+import org.drools.workbench.models.guided.dtable.shared.model.DTCellValue52;
+import org.drools.workbench.models.guided.dtable.shared.model.GuidedDecisionTable52;
+import org.drools.workbench.screens.guided.dtable.backend.server.util.GuidedDTPersistence;
+import org.guvnor.common.services.project.builder.events.InvalidateDMOPackageCacheEvent;
+import org.guvnor.common.services.project.builder.events.InvalidateDMOProjectCacheEvent;
+import org.guvnor.common.services.project.model.Project;
+import org.kie.workbench.common.services.shared.project.KieProjectService;
+import org.uberfire.backend.vfs.Path;
+import org.uberfire.workbench.events.ResourceAddedEvent;
+import org.uberfire.workbench.events.ResourceBatchChangesEvent;
+import org.uberfire.workbench.events.ResourceDeletedEvent;
+import org.uberfire.workbench.events.ResourceRenamedEvent;
+import org.uberfire.workbench.events.ResourceUpdatedEvent;
+
+/**
+ * Cache of the rows of Guided Decision Tables that have been validated successfully. Each row is an independent rule
+ * and can therefore be validated without the others, so only rows not already known to be valid need validating. Rows
+ * are identified by a hash of their cell values and are only known to be valid for the same column definitions.
+ * The entries of a Project's tables are discarded when a resource that could change the outcome of validation changes
+ * within the Project, i.e. the Fact model, rules, DSLs, globals or enumerations, or when the Project's DMO is
+ * invalidated. Guided Decision Tables are not included when validating one another, so changing one does not affect
+ * the others.
+ */
+@ApplicationScoped
+public class GuidedDecisionTableValidationCache {
+
+    public static final String MAX_ENTRIES_PROPERTY = "org.drools.workbench.guided.dtable.validationCache.maxEntries";
+
+    private static final int DEFAULT_MAX_ENTRIES = 50;
+
+    //Types of resource that could change the outcome of validation
+    private static final String[] EXTENSIONS = new String[]{ ".java", ".drl", ".dslr", ".dsl", ".rdrl", ".rdslr", ".gdrl", ".enumeration" };
+
+    @Inject
+    private KieProjectService projectService;
+
+    private final Map<String, Entry> entries = Collections.synchronizedMap( new LinkedHashMap<String, Entry>( 16,
+                                                                                                           0.75f,
+                                                                                                           true ) {
+        @Override
+        protected boolean removeEldestEntry( final Map.Entry<String, Entry> eldest ) {
+            return size() > Integer.getInteger( MAX_ENTRIES_PROPERTY,
+                                                DEFAULT_MAX_ENTRIES );
+        }
+    } );
+
+    //Incremented on invalidation so that validations started beforehand are not cached afterwards
+    private volatile long generation = 0;
+
+    /**
+     * Get the part of a table that needs validating
+     * @param path
+     * @param model
+     * @return The table's rows that are not known to be valid
+     */
+    public Delta getDelta( final Path path,
+                           final GuidedDecisionTable52 model ) {
+        final long generation = this.generation;
+        final List<List<DTCellValue52>> data = model.getData();
+
+        final String columns = GuidedDTXMLPersistence.getInstance().marshal( GuidedDTPersistence.copyColumns( model ) );
+        final String columnsVersion = GuidedDTPersistence.getVersion( columns.getBytes( Charsets.UTF_8 ) );
+
+        final List<String> rowVersions = new ArrayList<String>( data.size() );
+        final MessageDigest digest = GuidedDTPersistence.makeVersionDigest();
+        for ( List<DTCellValue52> row : data ) {
+            rowVersions.add( GuidedDTPersistence.toVersion( digest.digest( makeRowKey( row ).getBytes( Charsets.UTF_8 ) ) ) );
+        }
+
+        //"Otherwise" cells are generated from the other rows' values and rules are named after the row number
+        final Entry entry = entries.get( path.toURI() );
+        if ( entry == null || !entry.columnsVersion.equals( columnsVersion ) || hasDependentRows( data ) ) {
+            return new Delta( path,
+                              generation,
+                              columnsVersion,
+                              rowVersions,
+                              model );
+        }
+
+        final List<List<DTCellValue52>> changedRows = new ArrayList<List<DTCellValue52>>();
+        for ( int iRow = 0; iRow < data.size(); iRow++ ) {
+            if ( !entry.validRows.contains( rowVersions.get( iRow ) ) ) {
+                changedRows.add( data.get( iRow ) );
+            }
+        }
+        if ( changedRows.isEmpty() ) {
+            return new Delta( path,
+                              generation,
+                              columnsVersion,
+                              rowVersions,
+                              null );
+        }
+        if ( changedRows.size() == data.size() ) {
+            return new Delta( path,
+                              generation,
+                              columnsVersion,
+                              rowVersions,
+                              model );
+        }
+
+        final GuidedDecisionTable52 changes = GuidedDTXMLPersistence.getInstance().unmarshal( columns );
+        changes.setData( changedRows );
+        return new Delta( path,
+                          generation,
+                          columnsVersion,
+                          rowVersions,
+                          changes );
+    }
+
+    /**
+     * Record that validation of a table's changed rows succeeded, hence all of the table's rows are valid
+     * @param delta
+     */
+    public void putValid( final Delta delta ) {
+        synchronized ( entries ) {
+            if ( delta.generation != generation ) {
+                return;
+            }
+            entries.put( delta.path.toURI(),
+                         new Entry( delta.columnsVersion,
+                                    new HashSet<String>( delta.rowVersions ) ) );
+        }
+    }
+
+    public void invalidate() {
+        synchronized ( entries ) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    public void onResourceAdded( @Observes final ResourceAddedEvent event ) {
+        invalidate( event.getPath() );
+    }
+
+    public void onResourceUpdated( @Observes final ResourceUpdatedEvent event ) {
+        invalidate( event.getPath() );
+    }
+
+    public void onResourceDeleted( @Observes final ResourceDeletedEvent event ) {
+        invalidate( event.getPath() );
+    }
+
+    public void onResourceRenamed( @Observes final ResourceRenamedEvent event ) {
+        invalidate( event.getPath() );
+        invalidate( event.getDestinationPath() );
+    }
+
+    public void onBatchChanges( @Observes final ResourceBatchChangesEvent event ) {
+        //Batches are raised for external changes (e.g. a git push) and could contain any number of resources
+        invalidate();
+    }
+
+    public void onInvalidateDMOPackageCache( @Observes final InvalidateDMOPackageCacheEvent event ) {
+        invalidateProject( getProjectRootPath( event.getResourcePath() ) );
+    }
+
+    public void onInvalidateDMOProjectCache( @Observes final InvalidateDMOProjectCacheEvent event ) {
+        final Project project = event.getProject();
+        invalidateProject( project == null ? null : project.getRootPath() );
+    }
+
+    private void invalidate( final Path path ) {
+        if ( path == null || !accept( path ) ) {
+            return;
+        }
+        invalidateProject( getProjectRootPath( path ) );
+    }
+
+    private boolean accept( final Path path ) {
+        final String fileName = path.getFileName();
+        for ( String extension : EXTENSIONS ) {
+            if ( fileName.endsWith( extension ) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Root folder of the Project containing the resource
+     * @param path
+     * @return null if the resource is not within a Project
+     */
+    protected Path getProjectRootPath( final Path path ) {
+        if ( path == null ) {
+            return null;
+        }
+        final Project project = projectService.resolveProject( path );
+        return ( project == null ? null : project.getRootPath() );
+    }
+
+    //Discard the entries of the tables within the Project
+    private void invalidateProject( final Path projectRootPath ) {
+        if ( projectRootPath == null ) {
+            return;
+        }
+        final String uri = projectRootPath.toURI();
+        final String prefix = ( uri.endsWith( "/" ) ? uri : uri + "/" );
+        synchronized ( entries ) {
+            generation++;
+            final Iterator<String> keys = entries.keySet().iterator();
+            while ( keys.hasNext() ) {
+                if ( keys.next().startsWith( prefix ) ) {
+                    keys.remove();
+                }
+            }
+        }
+    }
+
+    private boolean hasDependentRows( final List<List<DTCellValue52>> data ) {
+        final Set<String> rowNumbers = new HashSet<String>();
+        for ( List<DTCellValue52> row : data ) {
+            for ( DTCellValue52 dcv : row ) {
+                if ( dcv != null && dcv.isOtherwise() ) {
+                    return true;
+                }
+            }
+            final DTCellValue52 rowNumber = ( row.isEmpty() ? null : row.get( 0 ) );
+            final Number value = ( rowNumber == null ? null : rowNumber.getNumericValue() );
+            if ( !rowNumbers.add( value == null ? null : value.toString() ) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //The row number is excluded so that inserting or deleting rows does not change the key of the rows that follow
+    private String makeRowKey( final List<DTCellValue52> row ) {
+        final StringBuilder sb = new StringBuilder();
+        for ( DTCellValue52 dcv : row.subList( Math.min( 1,
+                                                         row.size() ),
+                                               row.size() ) ) {
+            final String value = getText( dcv );
+            sb.append( dcv == null ? "" : dcv.getDataType().name() ).append( ':' );
+            sb.append( dcv != null && dcv.isOtherwise() ).append( ':' );
+            //Prefix values with their length so that no two rows have the same key
+            sb.append( value == null ? -1 : value.length() ).append( ':' );
+            sb.append( value == null ? "" : value ).append( '|' );
+        }
+        return sb.toString();
+    }
+
+    private String getText( final DTCellValue52 dcv ) {
+        if ( dcv == null ) {
+            return null;
+        }
+        switch ( dcv.getDataType() ) {
+            case BOOLEAN:
+                return ( dcv.getBooleanValue() == null ? null : dcv.getBooleanValue().toString() );
+            case DATE:
+                return ( dcv.getDateValue() == null ? null : String.valueOf( dcv.getDateValue().getTime() ) );
+            case STRING:
+                return dcv.getStringValue();
+            default:
+                return ( dcv.getNumericValue() == null ? null : dcv.getNumericValue().getClass().getName() + dcv.getNumericValue() );
+        }
+    }
+
+    /**
+     * The part of a table that needs validating
+     */
+    public static class Delta {
+
+        private final Path path;
+        private final long generation;
+        private final String columnsVersion;
+        private final List<String> rowVersions;
+        private final GuidedDecisionTable52 model;
+
+        private Delta( final Path path,
+                       final long generation,
+                       final String columnsVersion,
+                       final List<String> rowVersions,
+                       final GuidedDecisionTable52 model ) {
+            this.path = path;
+            this.generation = generation;
+            this.columnsVersion = columnsVersion;
+            this.rowVersions = rowVersions;
+            this.model = model;
+        }
+
+        /**
+         * @return True if all rows of the table are known to be valid
+         */
+        public boolean isValid() {
+            return model == null;
+        }
+
+        /**
+         * @return A table with the same columns and the rows needing validation; the table itself if all rows do
+         */
+        public GuidedDecisionTable52 getModel() {
+            return model;
+        }
+
+    }
+
+    private static class Entry {
+
+        private final String columnsVersion;
+        private final Set<String> validRows;
+
+        private Entry( final String columnsVersion,
+                       final Set<String> validRows ) {
+            this.columnsVersion = columnsVersion;
+            this.validRows = validRows;
+        }
+
+    }
+
+}
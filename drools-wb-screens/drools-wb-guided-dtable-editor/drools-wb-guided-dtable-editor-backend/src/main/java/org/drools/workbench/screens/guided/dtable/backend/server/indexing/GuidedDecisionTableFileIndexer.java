@@ -15,12 +15,14 @@
  */
 package org.drools.workbench.screens.guided.dtable.backend.server.indexing;
 
+import java.io.IOException;
+import java.io.InputStream;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
 
-import org.drools.workbench.models.guided.dtable.backend.GuidedDTXMLPersistence;
 import org.drools.workbench.models.guided.dtable.shared.model.GuidedDecisionTable52;
+import org.drools.workbench.screens.guided.dtable.backend.server.util.GuidedDTPersistence;
 import org.drools.workbench.screens.guided.dtable.type.GuidedDTableResourceTypeDefinition;
 import org.guvnor.common.services.project.model.Package;
 import org.guvnor.common.services.project.model.Project;
@@ -35,6 +37,7 @@ import org.slf4j.LoggerFactory;
 import org.uberfire.backend.server.util.Paths;
 import org.uberfire.io.IOService;
 import org.uberfire.java.nio.file.Path;
+import org.uberfire.java.nio.file.StandardOpenOption;
 
 @ApplicationScoped
 public class GuidedDecisionTableFileIndexer implements Indexer {
@@ -59,10 +62,12 @@ public class GuidedDecisionTableFileIndexer implements Indexer {
     @Override
     public KObject toKObject( final Path path ) {
         KObject index = null;
+        InputStream inputStream = null;
 
         try {
-            final String content = ioService.readAllString( path );
-            final GuidedDecisionTable52 model = GuidedDTXMLPersistence.getInstance().unmarshal( content );
+            inputStream = ioService.newInputStream( path,
+                                                    StandardOpenOption.READ );
+            final GuidedDecisionTable52 model = GuidedDTPersistence.getInstance().unmarshal( inputStream );
 
             final Project project = projectService.resolveProject( Paths.convert( path ) );
             final Package pkg = projectService.resolvePackage( Paths.convert( path ) );
@@ -78,7 +83,14 @@ public class GuidedDecisionTableFileIndexer implements Indexer {
 
         } catch ( Exception e ) {
             logger.error( "Unable to index '" + path.toUri().toString() + "'.",
-                          e.getMessage() );
+                          e );
+        } finally {
+            if ( inputStream != null ) {
+                try {
+                    inputStream.close();
+                } catch ( IOException e ) {
+                }
+            }
         }
 
         return index;
@@ -15,8 +15,11 @@
  */
 package org.drools.workbench.screens.guided.dtable.backend.server.indexing;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.drools.workbench.models.datamodel.imports.Import;
@@ -74,8 +77,6 @@ public class GuidedDecisionTableModelIndexVisitor {
     private void visit( final Object o ) {
         if ( o instanceof GuidedDecisionTable52 ) {
             visit( (GuidedDecisionTable52) o );
-        } else if ( o instanceof AttributeCol52 ) {
-            visit( (AttributeCol52) o );
         } else if ( o instanceof Pattern52 ) {
             visit( (Pattern52) o );
         } else if ( o instanceof BRLConditionColumn ) {
@@ -92,10 +93,6 @@ public class GuidedDecisionTableModelIndexVisitor {
     }
 
     private void visit( final GuidedDecisionTable52 o ) {
-        //Add attributes
-        for ( AttributeCol52 c : o.getAttributeCols() ) {
-            visit( c );
-        }
         //Add Types and Fields used by Conditions
         for ( CompositeColumn<? extends BaseColumn> c : o.getConditions() ) {
             visit( c );
@@ -104,24 +101,53 @@ public class GuidedDecisionTableModelIndexVisitor {
         for ( ActionCol52 c : o.getActionCols() ) {
             visit( c );
         }
-        //Add rule names
-        final String parentRuleName = model.getParentName();
-        for ( List<DTCellValue52> row : model.getData() ) {
-            final String ruleName = "Row " + row.get( 0 ).getNumericValue().longValue() + " " + model.getTableName();
+        //Add rule names and attributes in a single pass over the data
+        visitRows( o );
+    }
+
+    private void visitRows( final GuidedDecisionTable52 o ) {
+        final List<AttributeCol52> attributeCols = o.getAttributeCols();
+        final int[] attributeColIndexes = getColumnIndexes( o,
+                                                            attributeCols );
+        final List<Set<String>> attributeValues = new ArrayList<Set<String>>( attributeCols.size() );
+        for ( int iAttribute = 0; iAttribute < attributeCols.size(); iAttribute++ ) {
+            attributeValues.add( new HashSet<String>() );
+        }
+
+        final String parentRuleName = o.getParentName();
+        final String ruleNameSuffix = " " + o.getTableName();
+        for ( List<DTCellValue52> row : o.getData() ) {
+            final String ruleName = "Row " + row.get( 0 ).getNumericValue().longValue() + ruleNameSuffix;
             builder.addGenerator( new Rule( new ValueRuleIndexTerm( ruleName ),
                                             ( parentRuleName == null ? null : new ValueRuleIndexTerm( parentRuleName ) ) ) );
+
+            for ( int iAttribute = 0; iAttribute < attributeColIndexes.length; iAttribute++ ) {
+                final String attributeValue = row.get( attributeColIndexes[ iAttribute ] ).getStringValue();
+                if ( !( attributeValue == null || attributeValue.isEmpty() ) ) {
+                    //Only add a generator for the first occurrence of each value
+                    if ( attributeValues.get( iAttribute ).add( attributeValue ) ) {
+                        builder.addGenerator( new RuleAttribute( new ValueRuleAttributeIndexTerm( attributeCols.get( iAttribute ).getAttribute() ),
+                                                                 new ValueRuleAttributeValueIndexTerm( attributeValue ) ) );
+                    }
+                }
+            }
         }
     }
 
-    private void visit( final AttributeCol52 o ) {
-        final int iCol = model.getExpandedColumns().indexOf( o );
-        for ( List<DTCellValue52> row : model.getData() ) {
-            final String attributeValue = row.get( iCol ).getStringValue();
-            if ( !( attributeValue == null || attributeValue.isEmpty() ) ) {
-                builder.addGenerator( new RuleAttribute( new ValueRuleAttributeIndexTerm( o.getAttribute() ),
-                                                         new ValueRuleAttributeValueIndexTerm( attributeValue ) ) );
-            }
+    //Resolve the indexes of columns within the expanded column layout, building the layout only once
+    private int[] getColumnIndexes( final GuidedDecisionTable52 o,
+                                    final List<? extends BaseColumn> columns ) {
+        final Map<BaseColumn, Integer> expandedColumnIndexes = new IdentityHashMap<BaseColumn, Integer>();
+        final List<BaseColumn> expandedColumns = o.getExpandedColumns();
+        for ( int iCol = 0; iCol < expandedColumns.size(); iCol++ ) {
+            expandedColumnIndexes.put( expandedColumns.get( iCol ),
+                                       iCol );
+        }
+        final int[] indexes = new int[ columns.size() ];
+        for ( int i = 0; i < columns.size(); i++ ) {
+            indexes[ i ] = expandedColumnIndexes.get( columns.get( i ) );
         }
+        return indexes;
     }
 
     private void visit( final Pattern52 o ) {
@@ -0,0 +1,499 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.guided.dtable.backend.server.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import com.google.common.base.Charsets;
+import org.drools.workbench.models.datamodel.oracle.DataType;
+import org.drools.workbench.models.guided.dtable.backend.GuidedDTXMLPersistence;
+import org.drools.workbench.models.guided.dtable.shared.model.DTCellValue52;
+import org.drools.workbench.models.guided.dtable.shared.model.GuidedDecisionTable52;
+
+/**
+ * This class persists a Guided Decision Table to a compact binary format and back. The column model, which is small,
+ * is held as XML of the table without data. Cell data is held column by column: each column has a dictionary of its
+ * distinct cell values followed by one dictionary index per row. The whole is deflated.
+ * <p>
+ * Guided Decision Table files are not written in this format, as they must remain readable by the Builder, KieBuilder
+ * and kie-maven-plugin; GuidedDTPersistence only reads it, for tables written by earlier versions.
+ */
+public class GuidedDTBinaryPersistence {
+
+    private static final byte[] MAGIC = new byte[]{ 'G', 'D', 'T', 'B' };
+    private static final byte VERSION = 1;
+
+    /**
+     * Number of bytes needed to detect the format; see isBinary()
+     */
+    public static final int HEADER_LENGTH = MAGIC.length + 1;
+
+    private static final byte NUMBER_NULL = 0;
+    private static final byte NUMBER_BIGDECIMAL = 1;
+    private static final byte NUMBER_BIGINTEGER = 2;
+    private static final byte NUMBER_BYTE = 3;
+    private static final byte NUMBER_DOUBLE = 4;
+    private static final byte NUMBER_FLOAT = 5;
+    private static final byte NUMBER_INTEGER = 6;
+    private static final byte NUMBER_LONG = 7;
+    private static final byte NUMBER_SHORT = 8;
+
+    private static final GuidedDTBinaryPersistence INSTANCE = new GuidedDTBinaryPersistence();
+
+    protected GuidedDTBinaryPersistence() {
+    }
+
+    public static GuidedDTBinaryPersistence getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Check whether content starts with the binary format's header
+     * @param content
+     * @return
+     */
+    public static boolean isBinary( final byte[] content ) {
+        if ( content == null || content.length < HEADER_LENGTH ) {
+            return false;
+        }
+        for ( int i = 0; i < MAGIC.length; i++ ) {
+            if ( content[ i ] != MAGIC[ i ] ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public byte[] marshal( final GuidedDecisionTable52 model ) {
+        //The column model is written as XML of the table without data
+        final List<List<DTCellValue52>> data = model.getData();
+        final String columns = GuidedDTXMLPersistence.getInstance().marshal( GuidedDTPersistence.copyColumns( model ) );
+
+        try {
+            final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            bos.write( MAGIC );
+            bos.write( VERSION );
+            final DataOutputStream dos = new DataOutputStream( new DeflaterOutputStream( bos ) );
+            writeString( dos,
+                         columns );
+            writeData( dos,
+                       data );
+            dos.close();
+            return bos.toByteArray();
+
+        } catch ( IOException e ) {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    public GuidedDecisionTable52 unmarshal( final byte[] content ) {
+        if ( !isBinary( content ) ) {
+            throw new IllegalArgumentException( "Content is not a binary Guided Decision Table." );
+        }
+        try {
+            return unmarshal( new ByteArrayInputStream( content ) );
+
+        } catch ( IOException e ) {
+            throw new IllegalArgumentException( "Unable to read binary Guided Decision Table.",
+                                                e );
+        }
+    }
+
+    /**
+     * Unmarshal content as it is read. Cells are created row by row from each column's dictionary hence, other than
+     * the column model, no more than the model is held in memory. The stream is not closed.
+     * @param inputStream
+     * @return
+     * @throws IOException
+     */
+    public GuidedDecisionTable52 unmarshal( final InputStream inputStream ) throws IOException {
+        final byte[] header = new byte[ HEADER_LENGTH ];
+        new DataInputStream( inputStream ).readFully( header );
+        if ( !isBinary( header ) ) {
+            throw new IllegalArgumentException( "Content is not a binary Guided Decision Table." );
+        }
+        if ( header[ MAGIC.length ] != VERSION ) {
+            throw new IllegalArgumentException( "Unsupported binary Guided Decision Table version " + header[ MAGIC.length ] + "." );
+        }
+        final DataInputStream dis = new DataInputStream( new InflaterInputStream( inputStream ) );
+        final GuidedDecisionTable52 model = GuidedDTXMLPersistence.getInstance().unmarshal( readString( dis ) );
+        model.setData( readData( dis ) );
+        return model;
+    }
+
+    private void writeData( final DataOutputStream dos,
+                            final List<List<DTCellValue52>> data ) throws IOException {
+        int columnCount = 0;
+        for ( List<DTCellValue52> row : data ) {
+            columnCount = Math.max( columnCount,
+                                    row.size() );
+        }
+        dos.writeInt( data.size() );
+        dos.writeInt( columnCount );
+
+        //Index 0 denotes a cell absent from a short row; dictionary entries start at 1
+        final int[] indexes = new int[ data.size() ];
+        for ( int iCol = 0; iCol < columnCount; iCol++ ) {
+            final Map<CellKey, Integer> dictionary = new HashMap<CellKey, Integer>();
+            final List<DTCellValue52> entries = new ArrayList<DTCellValue52>();
+            for ( int iRow = 0; iRow < data.size(); iRow++ ) {
+                final List<DTCellValue52> row = data.get( iRow );
+                if ( iCol >= row.size() ) {
+                    indexes[ iRow ] = 0;
+                    continue;
+                }
+                final DTCellValue52 dcv = row.get( iCol );
+                final CellKey key = CellKey.of( dcv );
+                Integer index = dictionary.get( key );
+                if ( index == null ) {
+                    entries.add( dcv );
+                    index = entries.size();
+                    dictionary.put( key,
+                                    index );
+                }
+                indexes[ iRow ] = index;
+            }
+
+            dos.writeInt( entries.size() );
+            for ( DTCellValue52 dcv : entries ) {
+                writeCell( dos,
+                           dcv );
+            }
+            for ( int index : indexes ) {
+                writeVarInt( dos,
+                             index );
+            }
+        }
+    }
+
+    private List<List<DTCellValue52>> readData( final DataInputStream dis ) throws IOException {
+        final int rowCount = dis.readInt();
+        final int columnCount = dis.readInt();
+        final List<List<DTCellValue52>> data = new ArrayList<List<DTCellValue52>>( rowCount );
+        for ( int iRow = 0; iRow < rowCount; iRow++ ) {
+            data.add( new ArrayList<DTCellValue52>( columnCount ) );
+        }
+
+        for ( int iCol = 0; iCol < columnCount; iCol++ ) {
+            final int entryCount = dis.readInt();
+            final List<CellKey> entries = new ArrayList<CellKey>( entryCount );
+            for ( int i = 0; i < entryCount; i++ ) {
+                entries.add( readCell( dis ) );
+            }
+            for ( int iRow = 0; iRow < rowCount; iRow++ ) {
+                final int index = readVarInt( dis );
+                if ( index > 0 ) {
+                    //Cells are mutable so each row receives its own instance
+                    data.get( iRow ).add( makeCell( entries.get( index - 1 ) ) );
+                }
+            }
+        }
+        return data;
+    }
+
+    private void writeCell( final DataOutputStream dos,
+                            final DTCellValue52 dcv ) throws IOException {
+        dos.writeBoolean( dcv != null );
+        if ( dcv == null ) {
+            return;
+        }
+        dos.writeUTF( dcv.getDataType().name() );
+        dos.writeBoolean( dcv.isOtherwise() );
+        switch ( dcv.getDataType() ) {
+            case BOOLEAN:
+                dos.writeBoolean( dcv.getBooleanValue() != null );
+                if ( dcv.getBooleanValue() != null ) {
+                    dos.writeBoolean( dcv.getBooleanValue() );
+                }
+                break;
+            case DATE:
+                dos.writeBoolean( dcv.getDateValue() != null );
+                if ( dcv.getDateValue() != null ) {
+                    dos.writeLong( dcv.getDateValue().getTime() );
+                }
+                break;
+            case STRING:
+                dos.writeBoolean( dcv.getStringValue() != null );
+                if ( dcv.getStringValue() != null ) {
+                    writeString( dos,
+                                 dcv.getStringValue() );
+                }
+                break;
+            default:
+                writeNumber( dos,
+                             dcv.getNumericValue() );
+        }
+    }
+
+    private CellKey readCell( final DataInputStream dis ) throws IOException {
+        if ( !dis.readBoolean() ) {
+            return new CellKey( null,
+                                false,
+                                null );
+        }
+        final DataType.DataTypes dataType = DataType.DataTypes.valueOf( dis.readUTF() );
+        final boolean isOtherwise = dis.readBoolean();
+        final Object value;
+        switch ( dataType ) {
+            case BOOLEAN:
+                value = ( dis.readBoolean() ? dis.readBoolean() : null );
+                break;
+            case DATE:
+                value = ( dis.readBoolean() ? new Date( dis.readLong() ) : null );
+                break;
+            case STRING:
+                value = ( dis.readBoolean() ? readString( dis ) : null );
+                break;
+            default:
+                value = readNumber( dis );
+        }
+        return new CellKey( dataType,
+                            isOtherwise,
+                            value );
+    }
+
+    private DTCellValue52 makeCell( final CellKey key ) {
+        if ( key.dataType == null ) {
+            return null;
+        }
+        final DTCellValue52 dcv = new DTCellValue52();
+        switch ( key.dataType ) {
+            case BOOLEAN:
+                dcv.setBooleanValue( (Boolean) key.value );
+                break;
+            case DATE:
+                dcv.setDateValue( key.value == null ? null : new Date( ( (Date) key.value ).getTime() ) );
+                break;
+            case STRING:
+                dcv.setStringValue( (String) key.value );
+                break;
+            default:
+                setNumericValue( dcv,
+                                 key.dataType,
+                                 (Number) key.value );
+        }
+        dcv.setOtherwise( key.isOtherwise );
+        return dcv;
+    }
+
+    //The overload of setNumericValue determines the cell's DataType, so select it from the persisted DataType
+    private void setNumericValue( final DTCellValue52 dcv,
+                                  final DataType.DataTypes dataType,
+                                  final Number value ) {
+        if ( dataType == DataType.DataTypes.NUMERIC_BIGDECIMAL && ( value == null || value instanceof BigDecimal ) ) {
+            dcv.setNumericValue( (BigDecimal) value );
+        } else if ( dataType == DataType.DataTypes.NUMERIC_BIGINTEGER && ( value == null || value instanceof BigInteger ) ) {
+            dcv.setNumericValue( (BigInteger) value );
+        } else if ( dataType == DataType.DataTypes.NUMERIC_BYTE && ( value == null || value instanceof Byte ) ) {
+            dcv.setNumericValue( (Byte) value );
+        } else if ( dataType == DataType.DataTypes.NUMERIC_DOUBLE && ( value == null || value instanceof Double ) ) {
+            dcv.setNumericValue( (Double) value );
+        } else if ( dataType == DataType.DataTypes.NUMERIC_FLOAT && ( value == null || value instanceof Float ) ) {
+            dcv.setNumericValue( (Float) value );
+        } else if ( dataType == DataType.DataTypes.NUMERIC_INTEGER && ( value == null || value instanceof Integer ) ) {
+            dcv.setNumericValue( (Integer) value );
+        } else if ( dataType == DataType.DataTypes.NUMERIC_LONG && ( value == null || value instanceof Long ) ) {
+            dcv.setNumericValue( (Long) value );
+        } else if ( dataType == DataType.DataTypes.NUMERIC_SHORT && ( value == null || value instanceof Short ) ) {
+            dcv.setNumericValue( (Short) value );
+        } else {
+            dcv.setNumericValue( value );
+        }
+    }
+
+    private void writeNumber( final DataOutputStream dos,
+                              final Number value ) throws IOException {
+        if ( value == null ) {
+            dos.writeByte( NUMBER_NULL );
+        } else if ( value instanceof BigDecimal ) {
+            dos.writeByte( NUMBER_BIGDECIMAL );
+            dos.writeUTF( value.toString() );
+        } else if ( value instanceof BigInteger ) {
+            dos.writeByte( NUMBER_BIGINTEGER );
+            dos.writeUTF( value.toString() );
+        } else if ( value instanceof Byte ) {
+            dos.writeByte( NUMBER_BYTE );
+            dos.writeByte( value.byteValue() );
+        } else if ( value instanceof Double ) {
+            dos.writeByte( NUMBER_DOUBLE );
+            dos.writeDouble( value.doubleValue() );
+        } else if ( value instanceof Float ) {
+            dos.writeByte( NUMBER_FLOAT );
+            dos.writeFloat( value.floatValue() );
+        } else if ( value instanceof Integer ) {
+            dos.writeByte( NUMBER_INTEGER );
+            dos.writeInt( value.intValue() );
+        } else if ( value instanceof Long ) {
+            dos.writeByte( NUMBER_LONG );
+            dos.writeLong( value.longValue() );
+        } else if ( value instanceof Short ) {
+            dos.writeByte( NUMBER_SHORT );
+            dos.writeShort( value.shortValue() );
+        } else {
+            //Other Number implementations are not produced by the editor; BigDecimal holds any of them exactly
+            dos.writeByte( NUMBER_BIGDECIMAL );
+            dos.writeUTF( new BigDecimal( value.toString() ).toString() );
+        }
+    }
+
+    private Number readNumber( final DataInputStream dis ) throws IOException {
+        final byte type = dis.readByte();
+        switch ( type ) {
+            case NUMBER_NULL:
+                return null;
+            case NUMBER_BIGDECIMAL:
+                return new BigDecimal( dis.readUTF() );
+            case NUMBER_BIGINTEGER:
+                return new BigInteger( dis.readUTF() );
+            case NUMBER_BYTE:
+                return dis.readByte();
+            case NUMBER_DOUBLE:
+                return dis.readDouble();
+            case NUMBER_FLOAT:
+                return dis.readFloat();
+            case NUMBER_INTEGER:
+                return dis.readInt();
+            case NUMBER_LONG:
+                return dis.readLong();
+            case NUMBER_SHORT:
+                return dis.readShort();
+            default:
+                throw new IOException( "Unknown numeric type " + type + "." );
+        }
+    }
+
+    //DataOutputStream.writeUTF is limited to 64KB, which the column model XML can exceed
+    private void writeString( final DataOutputStream dos,
+                              final String value ) throws IOException {
+        final byte[] bytes = value.getBytes( Charsets.UTF_8 );
+        writeVarInt( dos,
+                     bytes.length );
+        dos.write( bytes );
+    }
+
+    private String readString( final DataInputStream dis ) throws IOException {
+        final byte[] bytes = new byte[ readVarInt( dis ) ];
+        dis.readFully( bytes );
+        return new String( bytes,
+                           Charsets.UTF_8 );
+    }
+
+    private void writeVarInt( final DataOutputStream dos,
+                              final int value ) throws IOException {
+        int v = value;
+        while ( ( v & ~0x7F ) != 0 ) {
+            dos.writeByte( ( v & 0x7F ) | 0x80 );
+            v = v >>> 7;
+        }
+        dos.writeByte( v );
+    }
+
+    private int readVarInt( final DataInputStream dis ) throws IOException {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = dis.readByte();
+            value = value | ( ( b & 0x7F ) << shift );
+            shift = shift + 7;
+        } while ( ( b & 0x80 ) != 0 );
+        return value;
+    }
+
+    /**
+     * Dictionary entry for a cell, comparing the values that are persisted
+     */
+    private static class CellKey {
+
+        private final DataType.DataTypes dataType;
+        private final boolean isOtherwise;
+        private final Object value;
+
+        private CellKey( final DataType.DataTypes dataType,
+                         final boolean isOtherwise,
+                         final Object value ) {
+            this.dataType = dataType;
+            this.isOtherwise = isOtherwise;
+            this.value = value;
+        }
+
+        private static CellKey of( final DTCellValue52 dcv ) {
+            if ( dcv == null ) {
+                return new CellKey( null,
+                                    false,
+                                    null );
+            }
+            switch ( dcv.getDataType() ) {
+                case BOOLEAN:
+                    return new CellKey( dcv.getDataType(),
+                                        dcv.isOtherwise(),
+                                        dcv.getBooleanValue() );
+                case DATE:
+                    return new CellKey( dcv.getDataType(),
+                                        dcv.isOtherwise(),
+                                        dcv.getDateValue() );
+                case STRING:
+                    return new CellKey( dcv.getDataType(),
+                                        dcv.isOtherwise(),
+                                        dcv.getStringValue() );
+                default:
+                    return new CellKey( dcv.getDataType(),
+                                        dcv.isOtherwise(),
+                                        dcv.getNumericValue() );
+            }
+        }
+
+        @Override
+        public boolean equals( final Object o ) {
+            if ( this == o ) {
+                return true;
+            }
+            if ( !( o instanceof CellKey ) ) {
+                return false;
+            }
+            final CellKey that = (CellKey) o;
+            if ( dataType != that.dataType || isOtherwise != that.isOtherwise ) {
+                return false;
+            }
+            //BigDecimal.equals considers scale, which is persisted, so "1.0" and "1.00" remain distinct
+            return ( value == null ? that.value == null : value.equals( that.value ) );
+        }
+
+        @Override
+        public int hashCode() {
+            int result = ( dataType == null ? 0 : dataType.hashCode() );
+            result = 31 * result + ( isOtherwise ? 1 : 0 );
+            result = 31 * result + ( value == null ? 0 : value.hashCode() );
+            return result;
+        }
+
+    }
+
+}
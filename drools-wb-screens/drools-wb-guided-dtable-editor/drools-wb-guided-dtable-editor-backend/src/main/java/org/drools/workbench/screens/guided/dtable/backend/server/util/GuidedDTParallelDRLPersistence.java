@@ -0,0 +1,188 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.guided.dtable.backend.server.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.drools.workbench.models.guided.dtable.backend.GuidedDTDRLPersistence;
+import org.drools.workbench.models.guided.dtable.backend.GuidedDTXMLPersistence;
+import org.drools.workbench.models.guided.dtable.shared.model.DTCellValue52;
+import org.drools.workbench.models.guided.dtable.shared.model.GuidedDecisionTable52;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class persists the rule model to DRL, generating the rules of chunks of rows concurrently. Each row is an
+ * independent rule, so chunks are marshalled by GuidedDTDRLPersistence as tables of their own and concatenated in
+ * row order. GuidedDTDRLPersistence numbers rows from one in the comment preceding each rule, hence the comments of
+ * each chunk are re-numbered. Should a chunk not have the expected shape the whole table is marshalled sequentially,
+ * so the output is always identical to that of GuidedDTDRLPersistence. An "otherwise" cell negates the values of its
+ * column in all other rows, so rows are not independent and tables containing one are marshalled sequentially.
+ */
+public class GuidedDTParallelDRLPersistence {
+
+    private static final Logger logger = LoggerFactory.getLogger( GuidedDTParallelDRLPersistence.class );
+
+    private static final Pattern ROW_COMMENT = Pattern.compile( "^//from row number: (\\d+)$",
+                                                                Pattern.MULTILINE );
+
+    //More chunks than workers balances rows that are slower to marshal than others
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private final ExecutorService executor;
+    private final int workers;
+    private final int minRows;
+
+    /**
+     * @param executor Executor running the chunks
+     * @param workers Number of threads of the executor
+     * @param minRows Tables with fewer rows are marshalled sequentially
+     */
+    public GuidedDTParallelDRLPersistence( final ExecutorService executor,
+                                           final int workers,
+                                           final int minRows ) {
+        this.executor = executor;
+        this.workers = workers;
+        this.minRows = minRows;
+    }
+
+    public String marshal( final GuidedDecisionTable52 model ) {
+        final List<List<DTCellValue52>> data = model.getData();
+        if ( workers < 2 || minRows <= 0 || data.size() < minRows || hasOtherwise( data ) ) {
+            return GuidedDTDRLPersistence.getInstance().marshal( model );
+        }
+
+        //Each chunk is marshalled from its own copy of the column definitions
+        final GuidedDecisionTable52 columnModel = GuidedDTPersistence.copyColumns( model );
+        final String columns = GuidedDTXMLPersistence.getInstance().marshal( columnModel );
+        final String header = GuidedDTDRLPersistence.getInstance().marshal( columnModel );
+
+        final int chunkSize = ( data.size() + workers * CHUNKS_PER_WORKER - 1 ) / ( workers * CHUNKS_PER_WORKER );
+        final List<Future<String>> chunks = new ArrayList<Future<String>>();
+        for ( int start = 0; start < data.size(); start = start + chunkSize ) {
+            chunks.add( executor.submit( new ChunkMarshaller( columns,
+                                                              header,
+                                                              data.subList( start,
+                                                                            Math.min( data.size(),
+                                                                                      start + chunkSize ) ),
+                                                              start ) ) );
+        }
+
+        final StringBuilder sb = new StringBuilder( header );
+        try {
+            for ( Future<String> chunk : chunks ) {
+                final String drl = chunk.get();
+                if ( drl == null ) {
+                    cancel( chunks );
+                    return GuidedDTDRLPersistence.getInstance().marshal( model );
+                }
+                sb.append( drl );
+            }
+
+        } catch ( InterruptedException e ) {
+            cancel( chunks );
+            Thread.currentThread().interrupt();
+            return GuidedDTDRLPersistence.getInstance().marshal( model );
+
+        } catch ( Exception e ) {
+            logger.debug( "Unable to generate DRL in parallel. Falling back to sequential generation.",
+                          e );
+            cancel( chunks );
+            return GuidedDTDRLPersistence.getInstance().marshal( model );
+        }
+        return sb.toString();
+    }
+
+    private boolean hasOtherwise( final List<List<DTCellValue52>> data ) {
+        for ( List<DTCellValue52> row : data ) {
+            for ( DTCellValue52 cell : row ) {
+                if ( cell != null && cell.isOtherwise() ) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void cancel( final List<Future<String>> chunks ) {
+        for ( Future<String> chunk : chunks ) {
+            chunk.cancel( true );
+        }
+    }
+
+    private static class ChunkMarshaller implements Callable<String> {
+
+        private final String columns;
+        private final String header;
+        private final List<List<DTCellValue52>> rows;
+        private final int offset;
+
+        private ChunkMarshaller( final String columns,
+                                 final String header,
+                                 final List<List<DTCellValue52>> rows,
+                                 final int offset ) {
+            this.columns = columns;
+            this.header = header;
+            this.rows = rows;
+            this.offset = offset;
+        }
+
+        /**
+         * @return DRL of the chunk's rules, or null if the chunk's DRL does not have the expected shape
+         */
+        @Override
+        public String call() {
+            final GuidedDecisionTable52 chunk = GuidedDTXMLPersistence.getInstance().unmarshal( columns );
+            chunk.setData( new ArrayList<List<DTCellValue52>>( rows ) );
+
+            final String drl = GuidedDTDRLPersistence.getInstance().marshal( chunk );
+            if ( !drl.startsWith( header ) ) {
+                logger.debug( "DRL of rows " + ( offset + 1 ) + " onwards does not start with the table's header." );
+                return null;
+            }
+
+            final StringBuffer sb = new StringBuffer();
+            final Matcher matcher = ROW_COMMENT.matcher( drl );
+            matcher.region( header.length(),
+                            drl.length() );
+            int count = 0;
+            while ( matcher.find() ) {
+                count++;
+                final int rowNumber = Integer.parseInt( matcher.group( 1 ) );
+                if ( rowNumber != count ) {
+                    logger.debug( "DRL of rows " + ( offset + 1 ) + " onwards has unexpected row comments." );
+                    return null;
+                }
+                matcher.appendReplacement( sb,
+                                           "//from row number: " + ( rowNumber + offset ) );
+            }
+            if ( count != rows.size() ) {
+                logger.debug( "DRL of rows " + ( offset + 1 ) + " onwards has " + count + " row comments for " + rows.size() + " rows." );
+                return null;
+            }
+            matcher.appendTail( sb );
+            return sb.substring( header.length() );
+        }
+
+    }
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.guided.dtable.backend.server.util;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.CharStreams;
+import org.drools.workbench.models.guided.dtable.backend.GuidedDTXMLPersistence;
+import org.drools.workbench.models.guided.dtable.shared.model.GuidedDecisionTable52;
+
+/**
+ * This class persists Guided Decision Tables. Tables are always written as XML, the only format understood outside of
+ * the workbench, for example by the Builder, KieBuilder or when a KJAR is built with Maven. Tables in the binary format
+ * of GuidedDTBinaryPersistence are still read, the format being detected when reading, and are written as XML when
+ * next saved; toXML() converts them in bulk.
+ */
+public class GuidedDTPersistence {
+
+    private static final String DATA_FIELD = "data";
+
+    private static final GuidedDTPersistence INSTANCE = new GuidedDTPersistence();
+
+    protected GuidedDTPersistence() {
+    }
+
+    public static GuidedDTPersistence getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Marshal the model as XML
+     * @param model
+     * @return
+     */
+    public byte[] marshal( final GuidedDecisionTable52 model ) {
+        return GuidedDTXMLPersistence.getInstance().marshal( model ).getBytes( Charsets.UTF_8 );
+    }
+
+    /**
+     * Unmarshal content in either format
+     * @param content
+     * @return
+     */
+    public GuidedDecisionTable52 unmarshal( final byte[] content ) {
+        if ( GuidedDTBinaryPersistence.isBinary( content ) ) {
+            return GuidedDTBinaryPersistence.getInstance().unmarshal( content );
+        }
+        return GuidedDTXMLPersistence.getInstance().unmarshal( new String( content,
+                                                                           Charsets.UTF_8 ) );
+    }
+
+    /**
+     * Unmarshal content in either format. The binary format is decoded as it is read. GuidedDTXMLPersistence only
+     * accepts a String, hence XML content is read fully into a String first; for XML this uses as much memory as
+     * IOService.readAllString(). The stream is not closed.
+     * @param inputStream
+     * @return
+     * @throws IOException
+     */
+    public GuidedDecisionTable52 unmarshal( final InputStream inputStream ) throws IOException {
+        final BufferedInputStream bis = new BufferedInputStream( inputStream );
+        final byte[] header = new byte[ GuidedDTBinaryPersistence.HEADER_LENGTH ];
+        bis.mark( header.length );
+        int read = 0;
+        int count;
+        while ( read < header.length && ( count = bis.read( header,
+                                                            read,
+                                                            header.length - read ) ) != -1 ) {
+            read = read + count;
+        }
+        bis.reset();
+
+        if ( GuidedDTBinaryPersistence.isBinary( header ) ) {
+            return GuidedDTBinaryPersistence.getInstance().unmarshal( bis );
+        }
+        return GuidedDTXMLPersistence.getInstance().unmarshal( CharStreams.toString( new InputStreamReader( bis,
+                                                                                                            Charsets.UTF_8 ) ) );
+    }
+
+    /**
+     * Copy of the table without its data, for marshalling the column model. The model is not modified; the copy shares
+     * the model's column definitions, so neither must be changed whilst the copy is in use.
+     * @param model
+     * @return
+     */
+    public static GuidedDecisionTable52 copyColumns( final GuidedDecisionTable52 model ) {
+        //GuidedDecisionTable52 has no copy constructor; copy every field other than the data
+        final GuidedDecisionTable52 copy = new GuidedDecisionTable52();
+        try {
+            for ( Field field : GuidedDecisionTable52.class.getDeclaredFields() ) {
+                if ( Modifier.isStatic( field.getModifiers() ) || DATA_FIELD.equals( field.getName() ) ) {
+                    continue;
+                }
+                field.setAccessible( true );
+                field.set( copy,
+                           field.get( model ) );
+            }
+        } catch ( IllegalAccessException e ) {
+            throw new IllegalStateException( e );
+        }
+        return copy;
+    }
+
+    /**
+     * Convert content in either format to XML
+     * @param content
+     * @return
+     */
+    public String toXML( final byte[] content ) {
+        if ( GuidedDTBinaryPersistence.isBinary( content ) ) {
+            return GuidedDTXMLPersistence.getInstance().marshal( GuidedDTBinaryPersistence.getInstance().unmarshal( content ) );
+        }
+        return new String( content,
+                           Charsets.UTF_8 );
+    }
+
+    /**
+     * Version of persisted content; the hexadecimal SHA-1 of the content
+     * @param content
+     * @return
+     */
+    public static String getVersion( final byte[] content ) {
+        return toVersion( makeVersionDigest().digest( content ) );
+    }
+
+    public static MessageDigest makeVersionDigest() {
+        try {
+            return MessageDigest.getInstance( "SHA-1" );
+        } catch ( NoSuchAlgorithmException e ) {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    public static String toVersion( final byte[] digest ) {
+        final StringBuilder sb = new StringBuilder();
+        for ( byte b : digest ) {
+            sb.append( Character.forDigit( ( b >> 4 ) & 0xF,
+                                           16 ) );
+            sb.append( Character.forDigit( b & 0xF,
+                                           16 ) );
+        }
+        return sb.toString();
+    }
+
+}
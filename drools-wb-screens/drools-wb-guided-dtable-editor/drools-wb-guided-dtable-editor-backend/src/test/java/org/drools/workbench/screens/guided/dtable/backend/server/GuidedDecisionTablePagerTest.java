@@ -0,0 +1,310 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.guided.dtable.backend.server;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.drools.workbench.models.guided.dtable.shared.model.AttributeCol52;
+import org.drools.workbench.models.guided.dtable.shared.model.DTCellValue52;
+import org.drools.workbench.models.guided.dtable.shared.model.GuidedDecisionTable52;
+import org.drools.workbench.screens.guided.dtable.model.GuidedDecisionTableChangeSet;
+import org.drools.workbench.screens.guided.dtable.model.GuidedDecisionTablePage;
+import org.drools.workbench.screens.guided.dtable.model.GuidedDecisionTablePageRequest;
+import org.drools.workbench.screens.guided.dtable.model.GuidedDecisionTableRowPatch;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GuidedDecisionTablePagerTest {
+
+    @Test
+    public void testWindow() {
+        final GuidedDecisionTable52 model = makeTable( "c", "a", "b", "a", "d" );
+
+        final GuidedDecisionTablePage page = GuidedDecisionTablePager.makePage( model,
+                                                                                "v1",
+                                                                                new GuidedDecisionTablePageRequest( 1,
+                                                                                                                    2 ) );
+        assertEquals( "v1",
+                      page.getVersion() );
+        assertEquals( 5,
+                      page.getTotalRowCount() );
+        assertEquals( 5,
+                      page.getMatchedRowCount() );
+        assertEquals( Arrays.asList( 1,
+                                     2 ),
+                      page.getRowIndexes() );
+        assertSame( model.getData().get( 1 ),
+                    page.getRows().get( 0 ) );
+    }
+
+    @Test
+    public void testWindowBeyondEnd() {
+        final GuidedDecisionTable52 model = makeTable( "c", "a" );
+
+        final GuidedDecisionTablePage page = GuidedDecisionTablePager.makePage( model,
+                                                                                "v1",
+                                                                                new GuidedDecisionTablePageRequest( 10,
+                                                                                                                    5 ) );
+        assertEquals( 2,
+                      page.getOffset() );
+        assertTrue( page.getRows().isEmpty() );
+    }
+
+    @Test
+    public void testSortAndFilter() {
+        final GuidedDecisionTable52 model = makeTable( "group-c", "group-a", "other", "group-b" );
+
+        final GuidedDecisionTablePageRequest request = new GuidedDecisionTablePageRequest( 0,
+                                                                                           10 );
+        request.setSort( 2,
+                         false );
+        request.addFilter( 2,
+                           "GROUP" );
+
+        final GuidedDecisionTablePage page = GuidedDecisionTablePager.makePage( model,
+                                                                                "v1",
+                                                                                request );
+        assertEquals( 4,
+                      page.getTotalRowCount() );
+        assertEquals( 3,
+                      page.getMatchedRowCount() );
+        assertEquals( Arrays.asList( 0,
+                                     3,
+                                     1 ),
+                      page.getRowIndexes() );
+    }
+
+    @Test
+    public void testApplyPatch() {
+        final GuidedDecisionTable52 model = makeTable( "a", "b", "c" );
+
+        final GuidedDecisionTableRowPatch patch = new GuidedDecisionTableRowPatch();
+        patch.updateRow( 2,
+                         makeRow( 3,
+                                  "c2" ) );
+        patch.deleteRow( 0 );
+        patch.appendRow( makeRow( 99,
+                                  "d" ) );
+
+        GuidedDecisionTablePager.applyPatch( model,
+                                             patch );
+
+        assertEquals( 3,
+                      model.getData().size() );
+        assertEquals( "b",
+                      model.getData().get( 0 ).get( 2 ).getStringValue() );
+        assertEquals( "c2",
+                      model.getData().get( 1 ).get( 2 ).getStringValue() );
+        assertEquals( "d",
+                      model.getData().get( 2 ).get( 2 ).getStringValue() );
+        for ( int iRow = 0; iRow < model.getData().size(); iRow++ ) {
+            assertEquals( iRow + 1,
+                          model.getData().get( iRow ).get( 0 ).getNumericValue().intValue() );
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testApplyPatchWrongColumnCount() {
+        final GuidedDecisionTable52 model = makeTable( "a" );
+
+        final GuidedDecisionTableRowPatch patch = new GuidedDecisionTableRowPatch();
+        patch.appendRow( new ArrayList<DTCellValue52>() );
+
+        GuidedDecisionTablePager.applyPatch( model,
+                                             patch );
+    }
+
+    @Test
+    public void testApplyChangeSetWithColumnChanges() {
+        final GuidedDecisionTable52 model = makeTable( "a", "b" );
+
+        //Insert a "salience" column, with a default value, before "ruleflow-group"
+        final GuidedDecisionTable52 columnModel = makeTable();
+        final AttributeCol52 salience = new AttributeCol52();
+        salience.setAttribute( "salience" );
+        salience.setDefaultValue( new DTCellValue52( 10 ) );
+        columnModel.getAttributeCols().add( 0,
+                                            salience );
+
+        final GuidedDecisionTableChangeSet changeSet = new GuidedDecisionTableChangeSet( "v1" );
+        changeSet.setColumns( columnModel,
+                              Arrays.asList( 0,
+                                             1,
+                                             GuidedDecisionTableChangeSet.NEW_COLUMN,
+                                             2 ) );
+        changeSet.getRowPatch().appendRow( new ArrayList<DTCellValue52>( Arrays.asList( new DTCellValue52( 3 ),
+                                                                                        new DTCellValue52( "" ),
+                                                                                        new DTCellValue52( 20 ),
+                                                                                        new DTCellValue52( "c" ) ) ) );
+
+        final GuidedDecisionTable52 result = GuidedDecisionTablePager.applyChangeSet( model,
+                                                                                      changeSet );
+
+        assertEquals( 3,
+                      result.getData().size() );
+        assertEquals( 10,
+                      result.getData().get( 0 ).get( 2 ).getNumericValue().intValue() );
+        assertEquals( "a",
+                      result.getData().get( 0 ).get( 3 ).getStringValue() );
+        assertEquals( 20,
+                      result.getData().get( 2 ).get( 2 ).getNumericValue().intValue() );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testApplyChangeSetWrongColumnSources() {
+        final GuidedDecisionTable52 model = makeTable( "a" );
+
+        final GuidedDecisionTableChangeSet changeSet = new GuidedDecisionTableChangeSet( "v1" );
+        changeSet.setColumns( makeTable(),
+                              Arrays.asList( 0,
+                                             1 ) );
+
+        GuidedDecisionTablePager.applyChangeSet( model,
+                                                 changeSet );
+    }
+
+    @Test
+    public void testApplyChangeSetCopiesSharedSource() {
+        final GuidedDecisionTable52 model = makeTable( "a" );
+
+        //Add a second "ruleflow-group" column taking the cells of the existing one
+        final GuidedDecisionTable52 columnModel = makeTable();
+        final AttributeCol52 copy = new AttributeCol52();
+        copy.setAttribute( "ruleflow-group" );
+        columnModel.getAttributeCols().add( copy );
+
+        final GuidedDecisionTableChangeSet changeSet = new GuidedDecisionTableChangeSet( "v1" );
+        changeSet.setColumns( columnModel,
+                              Arrays.asList( 0,
+                                             1,
+                                             2,
+                                             2 ) );
+
+        final GuidedDecisionTable52 result = GuidedDecisionTablePager.applyChangeSet( model,
+                                                                                      changeSet );
+
+        final List<DTCellValue52> row = result.getData().get( 0 );
+        assertNotSame( row.get( 2 ),
+                       row.get( 3 ) );
+        assertEquals( "a",
+                      row.get( 3 ).getStringValue() );
+        row.get( 3 ).setStringValue( "b" );
+        assertEquals( "a",
+                      row.get( 2 ).getStringValue() );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testApplyChangeSetMovedRowNumberColumn() {
+        final GuidedDecisionTable52 model = makeTable( "a" );
+
+        final GuidedDecisionTableChangeSet changeSet = new GuidedDecisionTableChangeSet( "v1" );
+        changeSet.setColumns( makeTable(),
+                              Arrays.asList( 1,
+                                             0,
+                                             2 ) );
+
+        GuidedDecisionTablePager.applyChangeSet( model,
+                                                 changeSet );
+    }
+
+    @Test
+    public void testSortNonFiniteNumbers() {
+        final GuidedDecisionTable52 model = makeTable( "a", "b", "c", "d" );
+        final double[] values = new double[]{ Double.NaN, 1.0, Double.POSITIVE_INFINITY, -2.5 };
+        for ( int iRow = 0; iRow < values.length; iRow++ ) {
+            model.getData().get( iRow ).set( 2,
+                                             new DTCellValue52( Double.valueOf( values[ iRow ] ) ) );
+        }
+
+        final GuidedDecisionTablePageRequest request = new GuidedDecisionTablePageRequest( 0,
+                                                                                           0 );
+        request.setSort( 2,
+                         true );
+        assertEquals( Arrays.asList( 3,
+                                     1,
+                                     2,
+                                     0 ),
+                      GuidedDecisionTablePager.getRowIndexes( model,
+                                                              request ) );
+    }
+
+    @Test
+    public void testApplyPatchRenumbersMissingRowNumber() {
+        final GuidedDecisionTable52 model = makeTable( "a", "b" );
+        final List<DTCellValue52> row = makeRow( 0,
+                                                 "c" );
+        row.set( 0,
+                 null );
+        final GuidedDecisionTableRowPatch patch = new GuidedDecisionTableRowPatch();
+        patch.appendRow( row );
+
+        GuidedDecisionTablePager.applyPatch( model,
+                                             patch );
+
+        assertEquals( 3,
+                      model.getData().get( 2 ).get( 0 ).getNumericValue().intValue() );
+    }
+
+    @Test
+    public void testRowIndexesKey() {
+        final GuidedDecisionTablePageRequest request1 = new GuidedDecisionTablePageRequest( 0,
+                                                                                            10 );
+        request1.setSort( 2,
+                          true );
+        request1.addFilter( 2,
+                            "A" );
+        final GuidedDecisionTablePageRequest request2 = new GuidedDecisionTablePageRequest( 10,
+                                                                                            10 );
+        request2.setSort( 2,
+                          true );
+        request2.addFilter( 2,
+                            "a" );
+        assertEquals( GuidedDecisionTablePager.makeRowIndexesKey( request1 ),
+                      GuidedDecisionTablePager.makeRowIndexesKey( request2 ) );
+
+        request2.setSort( 2,
+                          false );
+        assertFalse( GuidedDecisionTablePager.makeRowIndexesKey( request1 ).equals( GuidedDecisionTablePager.makeRowIndexesKey( request2 ) ) );
+    }
+
+    private GuidedDecisionTable52 makeTable( final String... groups ) {
+        final GuidedDecisionTable52 dt = new GuidedDecisionTable52();
+        dt.setTableName( "dtable" );
+
+        final AttributeCol52 attr = new AttributeCol52();
+        attr.setAttribute( "ruleflow-group" );
+        dt.getAttributeCols().add( attr );
+
+        final List<List<DTCellValue52>> data = new ArrayList<List<DTCellValue52>>();
+        for ( int iRow = 0; iRow < groups.length; iRow++ ) {
+            data.add( makeRow( iRow + 1,
+                               groups[ iRow ] ) );
+        }
+        dt.setData( data );
+        return dt;
+    }
+
+    private List<DTCellValue52> makeRow( final int rowNumber,
+                                         final String group ) {
+        return new ArrayList<DTCellValue52>( Arrays.asList( new DTCellValue52( rowNumber ),
+                                                            new DTCellValue52( "" ),
+                                                            new DTCellValue52( group ) ) );
+    }
+
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.guided.dtable.backend.server;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.drools.workbench.models.guided.dtable.shared.model.AttributeCol52;
+import org.drools.workbench.models.guided.dtable.shared.model.DTCellValue52;
+import org.drools.workbench.models.guided.dtable.shared.model.GuidedDecisionTable52;
+import org.junit.Test;
+import org.uberfire.backend.vfs.Path;
+import org.uberfire.backend.vfs.PathFactory;
+import org.uberfire.workbench.events.ResourceUpdatedEvent;
+
+import static org.junit.Assert.*;
+
+public class GuidedDecisionTableValidationCacheTest {
+
+    private final Path path = PathFactory.newPath( "dtable.gdst",
+                                                   "default://project/src/main/resources/dtable.gdst" );
+
+    @Test
+    public void testUnknownTableIsValidatedInFull() {
+        final GuidedDecisionTableValidationCache cache = new GuidedDecisionTableValidationCache();
+        final GuidedDecisionTable52 model = makeTable( "a", "b" );
+
+        final GuidedDecisionTableValidationCache.Delta delta = cache.getDelta( path,
+                                                                               model );
+        assertFalse( delta.isValid() );
+        assertSame( model,
+                    delta.getModel() );
+    }
+
+    @Test
+    public void testOnlyChangedRowsAreValidated() {
+        final GuidedDecisionTableValidationCache cache = new GuidedDecisionTableValidationCache();
+        final GuidedDecisionTable52 model = makeTable( "a", "b", "c" );
+        cache.putValid( cache.getDelta( path,
+                                        model ) );
+
+        assertTrue( cache.getDelta( path,
+                                    model ).isValid() );
+
+        model.getData().get( 1 ).get( 2 ).setStringValue( "b2" );
+        final GuidedDecisionTableValidationCache.Delta delta = cache.getDelta( path,
+                                                                               model );
+        assertFalse( delta.isValid() );
+        assertEquals( 1,
+                      delta.getModel().getData().size() );
+        assertEquals( "b2",
+                      delta.getModel().getData().get( 0 ).get( 2 ).getStringValue() );
+        assertEquals( 1,
+                      delta.getModel().getAttributeCols().size() );
+    }
+
+    @Test
+    public void testColumnChangesValidateInFull() {
+        final GuidedDecisionTableValidationCache cache = new GuidedDecisionTableValidationCache();
+        final GuidedDecisionTable52 model = makeTable( "a", "b" );
+        cache.putValid( cache.getDelta( path,
+                                        model ) );
+
+        model.getAttributeCols().get( 0 ).setAttribute( "agenda-group" );
+        assertSame( model,
+                    cache.getDelta( path,
+                                    model ).getModel() );
+    }
+
+    @Test
+    public void testOtherwiseCellsValidateInFull() {
+        final GuidedDecisionTableValidationCache cache = new GuidedDecisionTableValidationCache();
+        final GuidedDecisionTable52 model = makeTable( "a", "b" );
+        model.getData().get( 1 ).get( 2 ).setOtherwise( true );
+        cache.putValid( cache.getDelta( path,
+                                        model ) );
+
+        assertSame( model,
+                    cache.getDelta( path,
+                                    model ).getModel() );
+    }
+
+    @Test
+    public void testRenumberedRowsAreNotValidated() {
+        final GuidedDecisionTableValidationCache cache = new GuidedDecisionTableValidationCache();
+        final GuidedDecisionTable52 model = makeTable( "a", "b", "c" );
+        cache.putValid( cache.getDelta( path,
+                                        model ) );
+
+        //Insert a row before the others, re-numbering them
+        final GuidedDecisionTable52 inserted = makeTable( "z", "a", "b", "c" );
+        final GuidedDecisionTableValidationCache.Delta delta = cache.getDelta( path,
+                                                                               inserted );
+        assertFalse( delta.isValid() );
+        assertEquals( 1,
+                      delta.getModel().getData().size() );
+        assertEquals( "z",
+                      delta.getModel().getData().get( 0 ).get( 2 ).getStringValue() );
+    }
+
+    @Test
+    public void testInvalidationDiscardsValidRows() {
+        final GuidedDecisionTableValidationCache cache = new GuidedDecisionTableValidationCache();
+        final GuidedDecisionTable52 model = makeTable( "a", "b" );
+        final GuidedDecisionTableValidationCache.Delta delta = cache.getDelta( path,
+                                                                               model );
+
+        //Validation started before invalidation is not cached
+        cache.invalidate();
+        cache.putValid( delta );
+        assertFalse( cache.getDelta( path,
+                                     model ).isValid() );
+    }
+
+    @Test
+    public void testModelChangeInvalidatesTablesOfItsProjectOnly() {
+        final GuidedDecisionTableValidationCache cache = new TestGuidedDecisionTableValidationCache();
+        final Path otherPath = PathFactory.newPath( "dtable.gdst",
+                                                    "default://project2/src/main/resources/dtable.gdst" );
+        final GuidedDecisionTable52 model = makeTable( "a", "b" );
+        cache.putValid( cache.getDelta( path,
+                                        model ) );
+        cache.putValid( cache.getDelta( otherPath,
+                                        model ) );
+
+        cache.onResourceUpdated( new ResourceUpdatedEvent( PathFactory.newPath( "Applicant.java",
+                                                                                "default://project/src/main/java/Applicant.java" ),
+                                                           "",
+                                                           null ) );
+
+        assertFalse( cache.getDelta( path,
+                                     model ).isValid() );
+        assertTrue( cache.getDelta( otherPath,
+                                    model ).isValid() );
+    }
+
+    @Test
+    public void testUnrelatedChangesDoNotInvalidate() {
+        final GuidedDecisionTableValidationCache cache = new TestGuidedDecisionTableValidationCache();
+        final GuidedDecisionTable52 model = makeTable( "a", "b" );
+        cache.putValid( cache.getDelta( path,
+                                        model ) );
+
+        cache.onResourceUpdated( new ResourceUpdatedEvent( PathFactory.newPath( "other.gdst",
+                                                                                "default://project/src/main/resources/other.gdst" ),
+                                                           "",
+                                                           null ) );
+        cache.onResourceUpdated( new ResourceUpdatedEvent( PathFactory.newPath( "test.scenario",
+                                                                                "default://project/src/test/resources/test.scenario" ),
+                                                           "",
+                                                           null ) );
+
+        assertTrue( cache.getDelta( path,
+                                    model ).isValid() );
+    }
+
+    private GuidedDecisionTable52 makeTable( final String... groups ) {
+        final GuidedDecisionTable52 dt = new GuidedDecisionTable52();
+        dt.setTableName( "dtable" );
+
+        final AttributeCol52 attr = new AttributeCol52();
+        attr.setAttribute( "ruleflow-group" );
+        dt.getAttributeCols().add( attr );
+
+        final List<List<DTCellValue52>> data = new ArrayList<List<DTCellValue52>>();
+        for ( int iRow = 0; iRow < groups.length; iRow++ ) {
+            data.add( new ArrayList<DTCellValue52>( Arrays.asList( new DTCellValue52( iRow + 1 ),
+                                                                   new DTCellValue52( "" ),
+                                                                   new DTCellValue52( groups[ iRow ] ) ) ) );
+        }
+        dt.setData( data );
+        return dt;
+    }
+
+    //Projects are the first folder of the URI's path
+    private static class TestGuidedDecisionTableValidationCache extends GuidedDecisionTableValidationCache {
+
+        private static final String SCHEME = "default://";
+
+        @Override
+        protected Path getProjectRootPath( final Path path ) {
+            final String uri = path.toURI();
+            final String projectName = uri.substring( SCHEME.length(),
+                                                      uri.indexOf( '/',
+                                                                   SCHEME.length() ) );
+            return PathFactory.newPath( projectName,
+                                        SCHEME + projectName );
+        }
+
+    }
+
+}
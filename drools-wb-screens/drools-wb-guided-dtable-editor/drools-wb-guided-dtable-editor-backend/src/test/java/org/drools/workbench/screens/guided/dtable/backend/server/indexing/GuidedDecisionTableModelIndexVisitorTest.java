@@ -0,0 +1,186 @@
+/*
+ * Copyright 2014 JBoss, by Red Hat, Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.workbench.screens.guided.dtable.backend.server.indexing;
+
+import java.util.Set;
+
+import org.drools.workbench.models.datamodel.imports.Import;
+import org.drools.workbench.models.datamodel.oracle.DataType;
+import org.drools.workbench.models.datamodel.rule.ActionFieldValue;
+import org.drools.workbench.models.datamodel.rule.ActionInsertFact;
+import org.drools.workbench.models.datamodel.rule.BaseSingleFieldConstraint;
+import org.drools.workbench.models.datamodel.rule.FactPattern;
+import org.drools.workbench.models.datamodel.rule.FieldNatureType;
+import org.drools.workbench.models.datamodel.rule.SingleFieldConstraint;
+import org.drools.workbench.models.guided.dtable.backend.util.DataUtilities;
+import org.drools.workbench.models.guided.dtable.shared.model.ActionInsertFactCol52;
+import org.drools.workbench.models.guided.dtable.shared.model.ActionSetFieldCol52;
+import org.drools.workbench.models.guided.dtable.shared.model.AttributeCol52;
+import org.drools.workbench.models.guided.dtable.shared.model.BRLActionColumn;
+import org.drools.workbench.models.guided.dtable.shared.model.BRLActionVariableColumn;
+import org.drools.workbench.models.guided.dtable.shared.model.BRLConditionColumn;
+import org.drools.workbench.models.guided.dtable.shared.model.BRLConditionVariableColumn;
+import org.drools.workbench.models.guided.dtable.shared.model.ConditionCol52;
+import org.drools.workbench.models.guided.dtable.shared.model.GuidedDecisionTable52;
+import org.drools.workbench.models.guided.dtable.shared.model.MetadataCol52;
+import org.drools.workbench.models.guided.dtable.shared.model.Pattern52;
+import org.guvnor.common.services.project.model.Package;
+import org.guvnor.common.services.project.model.Project;
+import org.junit.Test;
+import org.kie.workbench.common.services.refactoring.backend.server.indexing.DefaultIndexBuilder;
+import org.uberfire.backend.vfs.Path;
+import org.uberfire.backend.vfs.PathFactory;
+import org.uberfire.commons.data.Pair;
+
+import static org.junit.Assert.*;
+
+public class GuidedDecisionTableModelIndexVisitorTest {
+
+    private static final String PACKAGE_NAME = "org.drools.workbench.screens.guided.dtable.backend.server.indexing";
+
+    @Test
+    public void testSameTermsAsPreviousVisitor() {
+        final GuidedDecisionTable52 model = makeTable();
+
+        final Set<Pair<String, String>> expected = new PreviousGuidedDecisionTableModelIndexVisitor( makeBuilder(),
+                                                                                                     model ).visit();
+        final Set<Pair<String, String>> actual = new GuidedDecisionTableModelIndexVisitor( makeBuilder(),
+                                                                                           model ).visit();
+
+        assertFalse( expected.isEmpty() );
+        assertEquals( expected,
+                      actual );
+    }
+
+    private DefaultIndexBuilder makeBuilder() {
+        final Path projectRoot = PathFactory.newPath( "project",
+                                                      "default://project" );
+        final Project project = new Project() {
+            @Override
+            public Path getRootPath() {
+                return projectRoot;
+            }
+        };
+        final Package pkg = new Package() {
+            @Override
+            public String getPackageName() {
+                return PACKAGE_NAME;
+            }
+        };
+        return new DefaultIndexBuilder( project,
+                                        pkg );
+    }
+
+    //Table with metadata, attribute, condition, BRL condition, BRL action and action columns, in that expanded order
+    private GuidedDecisionTable52 makeTable() {
+        final GuidedDecisionTable52 dt = new GuidedDecisionTable52();
+        dt.setPackageName( PACKAGE_NAME );
+        dt.getImports().getImports().add( new Import( PACKAGE_NAME + ".classes.Applicant" ) );
+        dt.getImports().getImports().add( new Import( PACKAGE_NAME + ".classes.Mortgage" ) );
+        dt.setTableName( "dtable1" );
+        dt.setParentName( "parent" );
+
+        final MetadataCol52 meta = new MetadataCol52();
+        meta.setMetadata( "author" );
+        dt.getMetadataCols().add( meta );
+
+        final AttributeCol52 salience = new AttributeCol52();
+        salience.setAttribute( "salience" );
+        dt.getAttributeCols().add( salience );
+
+        final AttributeCol52 ruleFlowGroup = new AttributeCol52();
+        ruleFlowGroup.setAttribute( "ruleflow-group" );
+        dt.getAttributeCols().add( ruleFlowGroup );
+
+        final Pattern52 p1 = new Pattern52();
+        p1.setBoundName( "$a" );
+        p1.setFactType( "Applicant" );
+        final ConditionCol52 con1 = new ConditionCol52();
+        con1.setConstraintValueType( BaseSingleFieldConstraint.TYPE_LITERAL );
+        con1.setFieldType( DataType.TYPE_NUMERIC_INTEGER );
+        con1.setFactField( "age" );
+        con1.setHeader( "Applicant age" );
+        con1.setOperator( "==" );
+        p1.getChildColumns().add( con1 );
+        dt.getConditions().add( p1 );
+
+        final Pattern52 p2 = new Pattern52();
+        p2.setBoundName( "$m" );
+        p2.setFactType( "Mortgage" );
+        final ConditionCol52 con2 = new ConditionCol52();
+        con2.setConstraintValueType( BaseSingleFieldConstraint.TYPE_LITERAL );
+        con2.setFieldType( DataType.TYPE_NUMERIC_INTEGER );
+        con2.setFactField( "amount" );
+        con2.setHeader( "Mortgage amount" );
+        con2.setOperator( "==" );
+        p2.getChildColumns().add( con2 );
+        dt.getConditions().add( p2 );
+
+        final BRLConditionColumn brlCondition = new BRLConditionColumn();
+        final FactPattern fp = new FactPattern();
+        fp.setFactType( "Applicant" );
+        final SingleFieldConstraint sfc = new SingleFieldConstraint();
+        sfc.setConstraintValueType( BaseSingleFieldConstraint.TYPE_TEMPLATE );
+        sfc.setFactType( "Applicant" );
+        sfc.setOperator( "==" );
+        sfc.setFieldName( "age" );
+        sfc.setValue( "f1" );
+        fp.addConstraint( sfc );
+        brlCondition.getDefinition().add( fp );
+        brlCondition.getChildColumns().add( new BRLConditionVariableColumn( "f1",
+                                                                            DataType.TYPE_NUMERIC_INTEGER ) );
+        dt.getConditions().add( brlCondition );
+
+        final BRLActionColumn brlAction = new BRLActionColumn();
+        final ActionInsertFact aif = new ActionInsertFact();
+        aif.setFactType( "Mortgage" );
+        aif.setBoundName( "$m2" );
+        final ActionFieldValue afv = new ActionFieldValue();
+        afv.setNature( FieldNatureType.TYPE_TEMPLATE );
+        afv.setField( "amount" );
+        afv.setValue( "f2" );
+        aif.addFieldValue( afv );
+        brlAction.getDefinition().add( aif );
+        brlAction.getChildColumns().add( new BRLActionVariableColumn( "f2",
+                                                                      DataType.TYPE_NUMERIC_INTEGER ) );
+        dt.getActionCols().add( brlAction );
+
+        final ActionInsertFactCol52 ins = new ActionInsertFactCol52();
+        ins.setBoundName( "$i" );
+        ins.setFactType( "Applicant" );
+        ins.setFactField( "age" );
+        ins.setType( DataType.TYPE_NUMERIC_INTEGER );
+        dt.getActionCols().add( ins );
+
+        final ActionSetFieldCol52 set = new ActionSetFieldCol52();
+        set.setBoundName( "$m" );
+        set.setFactField( "amount" );
+        set.setType( DataType.TYPE_NUMERIC_INTEGER );
+        dt.getActionCols().add( set );
+
+        //Attribute values repeat across rows and some are empty
+        dt.setData( DataUtilities.makeDataLists( new String[][]{
+                new String[]{ "1", "desc1", "me", "10", "group1", "33", "1000", "30", "2000", "40", "3000" },
+                new String[]{ "2", "desc2", "", "10", "group2", "34", "", "", "", "", "" },
+                new String[]{ "3", "desc3", "you", "", "group1", "", "1001", "31", "2001", "41", "3001" },
+                new String[]{ "4", "desc4", "", "20", "", "35", "1002", "", "", "", "" }
+        } ) );
+
+        return dt;
+    }
+
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.guided.dtable.backend.server.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import com.google.common.base.Charsets;
+import org.drools.workbench.models.datamodel.oracle.DataType;
+import org.drools.workbench.models.datamodel.rule.BaseSingleFieldConstraint;
+import org.drools.workbench.models.guided.dtable.backend.GuidedDTXMLPersistence;
+import org.drools.workbench.models.guided.dtable.shared.model.AttributeCol52;
+import org.drools.workbench.models.guided.dtable.shared.model.ConditionCol52;
+import org.drools.workbench.models.guided.dtable.shared.model.DTCellValue52;
+import org.drools.workbench.models.guided.dtable.shared.model.GuidedDecisionTable52;
+import org.drools.workbench.models.guided.dtable.shared.model.Pattern52;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GuidedDTBinaryPersistenceTest {
+
+    @Test
+    public void testRoundTrip() {
+        final GuidedDecisionTable52 model = makeTable();
+        final String xml = GuidedDTXMLPersistence.getInstance().marshal( model );
+
+        final byte[] binary = GuidedDTBinaryPersistence.getInstance().marshal( model );
+        assertTrue( GuidedDTBinaryPersistence.isBinary( binary ) );
+        assertEquals( xml,
+                      GuidedDTPersistence.getInstance().toXML( binary ) );
+    }
+
+    @Test
+    public void testMarshalWritesXML() {
+        final GuidedDecisionTable52 model = makeTable();
+        final byte[] content = GuidedDTPersistence.getInstance().marshal( model );
+
+        assertFalse( GuidedDTBinaryPersistence.isBinary( content ) );
+        assertEquals( GuidedDTXMLPersistence.getInstance().marshal( model ),
+                      new String( content,
+                                  Charsets.UTF_8 ) );
+    }
+
+    @Test
+    public void testMarshalDoesNotModifyModel() {
+        final GuidedDecisionTable52 model = makeTable();
+        final List<List<DTCellValue52>> data = model.getData();
+        final String xml = GuidedDTXMLPersistence.getInstance().marshal( model );
+
+        GuidedDTBinaryPersistence.getInstance().marshal( model );
+
+        assertSame( data,
+                    model.getData() );
+        assertEquals( xml,
+                      GuidedDTXMLPersistence.getInstance().marshal( model ) );
+    }
+
+    @Test
+    public void testCopyColumns() {
+        final GuidedDecisionTable52 model = makeTable();
+        final GuidedDecisionTable52 columns = GuidedDTPersistence.copyColumns( model );
+
+        assertTrue( columns.getData().isEmpty() );
+        assertFalse( model.getData().isEmpty() );
+        assertEquals( model.getTableName(),
+                      columns.getTableName() );
+        assertEquals( model.getExpandedColumns(),
+                      columns.getExpandedColumns() );
+    }
+
+    @Test
+    public void testUnmarshalDetectsFormat() {
+        final GuidedDecisionTable52 model = makeTable();
+        final String xml = GuidedDTXMLPersistence.getInstance().marshal( model );
+
+        final GuidedDecisionTable52 fromXml = GuidedDTPersistence.getInstance().unmarshal( xml.getBytes( Charsets.UTF_8 ) );
+        final GuidedDecisionTable52 fromBinary = GuidedDTPersistence.getInstance().unmarshal( GuidedDTBinaryPersistence.getInstance().marshal( model ) );
+
+        assertFalse( GuidedDTBinaryPersistence.isBinary( xml.getBytes( Charsets.UTF_8 ) ) );
+        assertEquals( xml,
+                      GuidedDTXMLPersistence.getInstance().marshal( fromXml ) );
+        assertEquals( xml,
+                      GuidedDTXMLPersistence.getInstance().marshal( fromBinary ) );
+    }
+
+    @Test
+    public void testUnmarshalStreamDetectsFormat() throws IOException {
+        final GuidedDecisionTable52 model = makeTable();
+        final String xml = GuidedDTXMLPersistence.getInstance().marshal( model );
+
+        final GuidedDecisionTable52 fromXml = GuidedDTPersistence.getInstance().unmarshal( new ByteArrayInputStream( xml.getBytes( Charsets.UTF_8 ) ) );
+        final GuidedDecisionTable52 fromBinary = GuidedDTPersistence.getInstance().unmarshal( new ByteArrayInputStream( GuidedDTBinaryPersistence.getInstance().marshal( model ) ) );
+
+        assertEquals( xml,
+                      GuidedDTXMLPersistence.getInstance().marshal( fromXml ) );
+        assertEquals( xml,
+                      GuidedDTXMLPersistence.getInstance().marshal( fromBinary ) );
+    }
+
+    @Test
+    public void testCellsAreNotShared() {
+        final GuidedDecisionTable52 model = GuidedDTBinaryPersistence.getInstance().unmarshal( GuidedDTBinaryPersistence.getInstance().marshal( makeTable() ) );
+
+        //Rows 2 and 3 hold equal values in the attribute column
+        assertNotSame( model.getData().get( 1 ).get( 2 ),
+                       model.getData().get( 2 ).get( 2 ) );
+        model.getData().get( 1 ).get( 2 ).setStringValue( "changed" );
+        assertEquals( "group2",
+                      model.getData().get( 2 ).get( 2 ).getStringValue() );
+    }
+
+    @Test
+    public void testMarshalLeavesModelUnchanged() {
+        final GuidedDecisionTable52 model = makeTable();
+        final List<List<DTCellValue52>> data = model.getData();
+
+        GuidedDTBinaryPersistence.getInstance().marshal( model );
+        assertSame( data,
+                    model.getData() );
+    }
+
+    private GuidedDecisionTable52 makeTable() {
+        final GuidedDecisionTable52 dt = new GuidedDecisionTable52();
+        dt.setPackageName( "org.test" );
+        dt.setTableName( "dtable" );
+
+        final AttributeCol52 attr = new AttributeCol52();
+        attr.setAttribute( "ruleflow-group" );
+        dt.getAttributeCols().add( attr );
+
+        final Pattern52 p1 = new Pattern52();
+        p1.setBoundName( "$a" );
+        p1.setFactType( "Applicant" );
+
+        final ConditionCol52 con1 = new ConditionCol52();
+        con1.setConstraintValueType( BaseSingleFieldConstraint.TYPE_LITERAL );
+        con1.setFieldType( DataType.TYPE_NUMERIC_INTEGER );
+        con1.setFactField( "age" );
+        con1.setHeader( "Applicant age" );
+        con1.setOperator( "==" );
+        p1.getChildColumns().add( con1 );
+
+        final ConditionCol52 con2 = new ConditionCol52();
+        con2.setConstraintValueType( BaseSingleFieldConstraint.TYPE_LITERAL );
+        con2.setFieldType( DataType.TYPE_DATE );
+        con2.setFactField( "applicationDate" );
+        con2.setHeader( "Application date" );
+        con2.setOperator( "==" );
+        p1.getChildColumns().add( con2 );
+
+        dt.getConditions().add( p1 );
+
+        final Date date = new Date( 0 );
+        final List<List<DTCellValue52>> data = new ArrayList<List<DTCellValue52>>();
+        data.add( makeRow( 1,
+                           "group1",
+                           new DTCellValue52( 18 ),
+                           new DTCellValue52( date ) ) );
+        data.add( makeRow( 2,
+                           "group2",
+                           new DTCellValue52( 18 ),
+                           new DTCellValue52( (Date) null ) ) );
+
+        final DTCellValue52 otherwise = new DTCellValue52( (Integer) null );
+        otherwise.setOtherwise( true );
+        data.add( makeRow( 3,
+                           "group2",
+                           otherwise,
+                           new DTCellValue52( date ) ) );
+        dt.setData( data );
+
+        return dt;
+    }
+
+    private List<DTCellValue52> makeRow( final int rowNumber,
+                                         final String ruleflowGroup,
+                                         final DTCellValue52 age,
+                                         final DTCellValue52 applicationDate ) {
+        return new ArrayList<DTCellValue52>( Arrays.asList( new DTCellValue52( new BigDecimal( rowNumber ) ),
+                                                            new DTCellValue52( "" ),
+                                                            new DTCellValue52( ruleflowGroup ),
+                                                            age,
+                                                            applicationDate ) );
+    }
+
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.guided.dtable.backend.server.util;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.workbench.models.datamodel.oracle.DataType;
+import org.drools.workbench.models.datamodel.rule.ActionFieldValue;
+import org.drools.workbench.models.datamodel.rule.ActionInsertFact;
+import org.drools.workbench.models.datamodel.rule.BaseSingleFieldConstraint;
+import org.drools.workbench.models.datamodel.rule.FieldNatureType;
+import org.drools.workbench.models.guided.dtable.backend.GuidedDTDRLPersistence;
+import org.drools.workbench.models.guided.dtable.shared.model.AttributeCol52;
+import org.drools.workbench.models.guided.dtable.shared.model.BRLActionColumn;
+import org.drools.workbench.models.guided.dtable.shared.model.BRLActionVariableColumn;
+import org.drools.workbench.models.guided.dtable.shared.model.ConditionCol52;
+import org.drools.workbench.models.guided.dtable.shared.model.DTCellValue52;
+import org.drools.workbench.models.guided.dtable.shared.model.GuidedDecisionTable52;
+import org.drools.workbench.models.guided.dtable.shared.model.Pattern52;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GuidedDTParallelDRLPersistenceTest {
+
+    private RecordingExecutor executor;
+
+    @Before
+    public void setup() {
+        executor = new RecordingExecutor( 4 );
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testParallelMatchesSequential() throws Exception {
+        final GuidedDecisionTable52 model = makeTable( 53 );
+        final GuidedDTParallelDRLPersistence persistence = new GuidedDTParallelDRLPersistence( executor,
+                                                                                               4,
+                                                                                               1 );
+
+        final String expected = GuidedDTDRLPersistence.getInstance().marshal( model );
+        final String actual = persistence.marshal( model );
+
+        //Every chunk was marshalled in parallel, rather than the table falling back to sequential generation
+        assertTrue( executor.getChunks().size() > 1 );
+        for ( Future<?> chunk : executor.getChunks() ) {
+            assertNotNull( chunk.get() );
+        }
+        assertRowComments( actual,
+                           53 );
+        assertEquals( expected,
+                      actual );
+    }
+
+    @Test
+    public void testOtherwiseAndBRLColumn() {
+        final GuidedDecisionTable52 model = makeTable( 53 );
+
+        final BRLActionColumn brl = new BRLActionColumn();
+        final ActionInsertFact aif = new ActionInsertFact( "Applicant" );
+        final ActionFieldValue afv = new ActionFieldValue( "name",
+                                                           "name",
+                                                           DataType.TYPE_STRING );
+        afv.setNature( FieldNatureType.TYPE_TEMPLATE );
+        aif.addFieldValue( afv );
+        brl.getDefinition().add( aif );
+        brl.getChildColumns().add( new BRLActionVariableColumn( "name",
+                                                                DataType.TYPE_STRING,
+                                                                "Applicant",
+                                                                "name" ) );
+        model.getActionCols().add( brl );
+
+        for ( int iRow = 0; iRow < model.getData().size(); iRow++ ) {
+            model.getData().get( iRow ).add( new DTCellValue52( "name" + iRow ) );
+        }
+
+        //The "otherwise" row's rule excludes the ages of every other row
+        final DTCellValue52 otherwise = model.getData().get( 40 ).get( 3 );
+        otherwise.setOtherwise( true );
+
+        final GuidedDTParallelDRLPersistence persistence = new GuidedDTParallelDRLPersistence( executor,
+                                                                                               4,
+                                                                                               1 );
+
+        final String expected = GuidedDTDRLPersistence.getInstance().marshal( model );
+        final String actual = persistence.marshal( model );
+
+        //Rows are not independent, so the table falls back to sequential generation
+        assertTrue( executor.getChunks().isEmpty() );
+        assertTrue( expected.contains( "not in" ) );
+        assertRowComments( actual,
+                           53 );
+        assertEquals( expected,
+                      actual );
+    }
+
+    @Test
+    public void testSmallTableIsSequential() {
+        final GuidedDecisionTable52 model = makeTable( 3 );
+        final GuidedDTParallelDRLPersistence persistence = new GuidedDTParallelDRLPersistence( executor,
+                                                                                               4,
+                                                                                               10 );
+
+        assertEquals( GuidedDTDRLPersistence.getInstance().marshal( model ),
+                      persistence.marshal( model ) );
+    }
+
+    @Test
+    public void testMarshalLeavesModelUnchanged() {
+        final GuidedDecisionTable52 model = makeTable( 20 );
+        final List<List<DTCellValue52>> data = model.getData();
+        final GuidedDTParallelDRLPersistence persistence = new GuidedDTParallelDRLPersistence( executor,
+                                                                                               4,
+                                                                                               1 );
+
+        persistence.marshal( model );
+        assertSame( data,
+                    model.getData() );
+        assertEquals( 20,
+                      data.size() );
+    }
+
+    //Rules are preceded by a comment with their row number, numbered from one in row order
+    private void assertRowComments( final String drl,
+                                    final int rows ) {
+        int index = 0;
+        for ( int rowNumber = 1; rowNumber <= rows; rowNumber++ ) {
+            final int next = drl.indexOf( "//from row number: " + rowNumber + "\n",
+                                          index );
+            assertTrue( "Row comment " + rowNumber,
+                        next >= index );
+            index = next + 1;
+        }
+        assertEquals( -1,
+                      drl.indexOf( "//from row number: " + ( rows + 1 ) + "\n" ) );
+    }
+
+    private GuidedDecisionTable52 makeTable( final int rows ) {
+        final GuidedDecisionTable52 dt = new GuidedDecisionTable52();
+        dt.setPackageName( "org.test" );
+        dt.setTableName( "dtable" );
+
+        final AttributeCol52 attr = new AttributeCol52();
+        attr.setAttribute( "salience" );
+        dt.getAttributeCols().add( attr );
+
+        final Pattern52 p1 = new Pattern52();
+        p1.setBoundName( "$a" );
+        p1.setFactType( "Applicant" );
+
+        final ConditionCol52 con1 = new ConditionCol52();
+        con1.setConstraintValueType( BaseSingleFieldConstraint.TYPE_LITERAL );
+        con1.setFieldType( DataType.TYPE_NUMERIC_INTEGER );
+        con1.setFactField( "age" );
+        con1.setHeader( "Applicant age" );
+        con1.setOperator( "==" );
+        p1.getChildColumns().add( con1 );
+
+        dt.getConditions().add( p1 );
+
+        final List<List<DTCellValue52>> data = new ArrayList<List<DTCellValue52>>();
+        for ( int iRow = 0; iRow < rows; iRow++ ) {
+            data.add( new ArrayList<DTCellValue52>( Arrays.asList( new DTCellValue52( new BigDecimal( iRow + 1 ) ),
+                                                                   new DTCellValue52( "" ),
+                                                                   new DTCellValue52( iRow ),
+                                                                   new DTCellValue52( 18 + iRow ) ) ) );
+        }
+        dt.setData( data );
+
+        return dt;
+    }
+
+    //Records the chunks submitted, so tests can tell whether a table was marshalled in parallel
+    private static class RecordingExecutor extends ThreadPoolExecutor {
+
+        private final List<Future<?>> chunks = Collections.synchronizedList( new ArrayList<Future<?>>() );
+
+        private RecordingExecutor( final int threads ) {
+            super( threads,
+                   threads,
+                   0L,
+                   TimeUnit.MILLISECONDS,
+                   new LinkedBlockingQueue<Runnable>() );
+        }
+
+        @Override
+        public <T> Future<T> submit( final Callable<T> task ) {
+            final Future<T> chunk = super.submit( task );
+            chunks.add( chunk );
+            return chunk;
+        }
+
+        private List<Future<?>> getChunks() {
+            return chunks;
+        }
+
+    }
+
+}
@@ -28,11 +28,14 @@ import org.drools.workbench.models.guided.dtable.shared.model.GuidedDecisionTabl
 import org.drools.workbench.screens.guided.dtable.client.resources.i18n.GuidedDecisionTableConstants;
 import org.drools.workbench.screens.guided.dtable.client.type.GuidedDTableResourceType;
 import org.drools.workbench.screens.guided.dtable.model.GuidedDecisionTableEditorContent;
+import org.drools.workbench.screens.guided.dtable.model.GuidedDecisionTableVersionConflictException;
 import org.drools.workbench.screens.guided.dtable.service.GuidedDecisionTableEditorService;
 import org.guvnor.common.services.shared.metadata.MetadataService;
 import org.guvnor.common.services.shared.validation.model.ValidationMessage;
 import org.guvnor.common.services.shared.version.events.RestoreEvent;
+import org.jboss.errai.bus.client.api.messaging.Message;
 import org.jboss.errai.common.client.api.Caller;
+import org.jboss.errai.common.client.api.ErrorCallback;
 import org.jboss.errai.common.client.api.RemoteCallback;
 import org.kie.uberfire.client.callbacks.DefaultErrorCallback;
 import org.kie.uberfire.client.callbacks.HasBusyIndicatorDefaultErrorCallback;
@@ -56,7 +59,6 @@ import org.kie.workbench.common.widgets.metadata.client.widget.MetadataWidget;
 import org.kie.workbench.common.widgets.viewsource.client.callbacks.ViewSourceSuccessCallback;
 import org.kie.workbench.common.widgets.viewsource.client.screen.ViewSourceView;
 import org.uberfire.backend.vfs.ObservablePath;
-import org.uberfire.backend.vfs.Path;
 import org.uberfire.client.annotations.WorkbenchEditor;
 import org.uberfire.client.annotations.WorkbenchMenu;
 import org.uberfire.client.annotations.WorkbenchPartTitle;
@@ -136,6 +138,7 @@ public class GuidedDecisionTableEditorPresenter {
     private ObservablePath.OnConcurrentUpdateEvent concurrentUpdateSessionInfo = null;
 
     private GuidedDecisionTable52 model;
+    private String contentVersion;
     private AsyncPackageDataModelOracle oracle;
 
     @Inject
@@ -295,6 +298,7 @@ public class GuidedDecisionTableEditorPresenter {
                 } );
 
                 model = content.getModel();
+                contentVersion = content.getVersion();
                 final PackageDataModelOracleBaselinePayload dataModel = content.getDataModel();
                 oracle = oracleFactory.makeAsyncPackageDataModelOracle( path,
                                                                         model,
@@ -363,55 +367,84 @@ public class GuidedDecisionTableEditorPresenter {
             return;
         }
 
-        if ( concurrentUpdateSessionInfo != null ) {
-            newConcurrentUpdate( concurrentUpdateSessionInfo.getPath(),
-                                 concurrentUpdateSessionInfo.getIdentity(),
-                                 new Command() {
-                                     @Override
-                                     public void execute() {
-                                         save();
-                                     }
-                                 },
-                                 new Command() {
-                                     @Override
-                                     public void execute() {
-                                         //cancel?
-                                     }
-                                 },
-                                 new Command() {
-                                     @Override
-                                     public void execute() {
-                                         reload();
-                                     }
-                                 }
-                               ).show();
-        } else {
-            save();
-        }
+        //The service rejects the save if the table has changed since it was loaded; see onVersionConflict()
+        save( contentVersion );
     }
 
-    private void save() {
+    private void save( final String baseVersion ) {
         new SaveOperationService().save( path,
                                          new CommandWithCommitMessage() {
                                              @Override
                                              public void execute( final String commitMessage ) {
                                                  view.showBusyIndicator( CommonConstants.INSTANCE.Saving() );
                                                  service.call( getSaveSuccessCallback(),
-                                                               new HasBusyIndicatorDefaultErrorCallback( view ) ).save( path,
-                                                                                                                        view.getContent(),
-                                                                                                                        metadataWidget.getContent(),
-                                                                                                                        commitMessage );
+                                                               getSaveErrorCallback() ).save( path,
+                                                                                              view.getContent(),
+                                                                                              baseVersion,
+                                                                                              metadataWidget.getContent(),
+                                                                                              commitMessage );
                                              }
                                          }
                                        );
-        concurrentUpdateSessionInfo = null;
     }
 
-    private RemoteCallback<Path> getSaveSuccessCallback() {
-        return new RemoteCallback<Path>() {
+    private ErrorCallback<Message> getSaveErrorCallback() {
+        return new HasBusyIndicatorDefaultErrorCallback( view ) {
+
+            @Override
+            public boolean error( final Message message,
+                                  final Throwable throwable ) {
+                if ( throwable instanceof GuidedDecisionTableVersionConflictException ) {
+                    view.hideBusyIndicator();
+                    onVersionConflict( (GuidedDecisionTableVersionConflictException) throwable );
+                    return false;
+                }
+                return super.error( message,
+                                    throwable );
+            }
+        };
+    }
+
+    //Overwriting saves against the version the user was told about, so later changes by others are not lost silently
+    private void onVersionConflict( final GuidedDecisionTableVersionConflictException e ) {
+        final Command onOverwrite = new Command() {
+            @Override
+            public void execute() {
+                save( e.getCurrentVersion() );
+            }
+        };
+        final Command onReload = new Command() {
+            @Override
+            public void execute() {
+                reload();
+            }
+        };
+        if ( concurrentUpdateSessionInfo != null ) {
+            //Name who made the change
+            newConcurrentUpdate( concurrentUpdateSessionInfo.getPath(),
+                                 concurrentUpdateSessionInfo.getIdentity(),
+                                 onOverwrite,
+                                 new Command() {
+                                     @Override
+                                     public void execute() {
+                                         //Continue editing without saving
+                                     }
+                                 },
+                                 onReload
+                               ).show();
+        } else {
+            view.showVersionConflict( onOverwrite,
+                                      onReload );
+        }
+    }
+
+    private RemoteCallback<String> getSaveSuccessCallback() {
+        return new RemoteCallback<String>() {
 
             @Override
-            public void callback( final Path path ) {
+            public void callback( final String version ) {
+                contentVersion = version;
+                concurrentUpdateSessionInfo = null;
                 view.setNotDirty();
                 view.hideBusyIndicator();
                 metadataWidget.resetDirty();
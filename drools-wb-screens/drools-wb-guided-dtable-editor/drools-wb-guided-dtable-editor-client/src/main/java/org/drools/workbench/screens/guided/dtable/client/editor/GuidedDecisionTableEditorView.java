@@ -10,6 +10,7 @@ import org.kie.uberfire.client.common.HasBusyIndicator;
 import org.kie.workbench.common.services.shared.rulename.RuleNamesService;
 import org.kie.workbench.common.widgets.client.datamodel.AsyncPackageDataModelOracle;
 import org.uberfire.backend.vfs.Path;
+import org.uberfire.mvp.Command;
 
 /**
  * Guided Decision Table Editor View definition
@@ -34,4 +35,12 @@ public interface GuidedDecisionTableEditorView extends HasBusyIndicator,
 
     void alertReadOnly();
 
+    /**
+     * Tell the user the table was changed by someone else since it was loaded, offering to overwrite or reload it
+     * @param onOverwrite
+     * @param onReload
+     */
+    void showVersionConflict( final Command onOverwrite,
+                              final Command onReload );
+
 }
@@ -24,6 +24,7 @@ import com.google.gwt.user.client.ui.Composite;
 import com.google.gwt.user.client.ui.SimplePanel;
 import org.drools.workbench.models.datamodel.workitems.PortableWorkDefinition;
 import org.drools.workbench.models.guided.dtable.shared.model.GuidedDecisionTable52;
+import org.drools.workbench.screens.guided.dtable.client.resources.i18n.GuidedDecisionTableConstants;
 import org.drools.workbench.screens.guided.dtable.client.widget.GuidedDecisionTableWidget;
 import org.jboss.errai.common.client.api.Caller;
 import org.kie.workbench.common.services.shared.rulename.RuleNamesService;
@@ -31,6 +32,7 @@ import org.kie.workbench.common.widgets.client.datamodel.AsyncPackageDataModelOr
 import org.kie.workbench.common.widgets.client.resources.i18n.CommonConstants;
 import org.uberfire.backend.vfs.Path;
 import org.kie.uberfire.client.common.BusyPopup;
+import org.uberfire.mvp.Command;
 import org.uberfire.security.Identity;
 
 /**
@@ -92,6 +94,16 @@ public class GuidedDecisionTableEditorViewImpl extends Composite implements Guid
         Window.alert( CommonConstants.INSTANCE.CantSaveReadOnly() );
     }
 
+    @Override
+    public void showVersionConflict( final Command onOverwrite,
+                                     final Command onReload ) {
+        if ( Window.confirm( GuidedDecisionTableConstants.INSTANCE.VersionConflictOverwrite() ) ) {
+            onOverwrite.execute();
+        } else if ( Window.confirm( GuidedDecisionTableConstants.INSTANCE.VersionConflictReload() ) ) {
+            onReload.execute();
+        }
+    }
+
     @Override
     public void showBusyIndicator( final String message ) {
         BusyPopup.showMessage( message );
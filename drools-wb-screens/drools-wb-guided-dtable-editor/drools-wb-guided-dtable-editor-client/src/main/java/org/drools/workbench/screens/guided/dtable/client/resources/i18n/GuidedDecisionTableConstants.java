@@ -468,5 +468,9 @@ public interface GuidedDecisionTableConstants
 
     String GuidedDecisionTableEditorTitle();
 
+    String VersionConflictOverwrite();
+
+    String VersionConflictReload();
+
     String guidedDecisionTableResourceTypeDescription();
 }
@@ -29,6 +29,7 @@ import org.drools.workbench.models.commons.backend.rule.RuleModelDRLPersistenceI
 import org.drools.workbench.models.datamodel.imports.Import;
 import org.drools.workbench.models.datamodel.oracle.PackageDataModelOracle;
 import org.drools.workbench.models.datamodel.rule.RuleModel;
+import org.drools.workbench.screens.common.backend.server.PackageDataModelPayloadCache;
 import org.drools.workbench.screens.guided.rule.model.GuidedEditorContent;
 import org.drools.workbench.screens.guided.rule.service.GuidedRuleEditorService;
 import org.drools.workbench.screens.guided.rule.type.GuidedRuleDRLResourceTypeDefinition;
@@ -52,7 +53,6 @@ import org.kie.workbench.common.services.backend.file.GlobalsFileFilter;
 import org.kie.workbench.common.services.backend.file.RDRLFileFilter;
 import org.kie.workbench.common.services.backend.file.RDSLRFileFilter;
 import org.kie.workbench.common.services.backend.source.SourceServices;
-import org.kie.workbench.common.services.datamodel.backend.server.DataModelOracleUtilities;
 import org.kie.workbench.common.services.datamodel.backend.server.service.DataModelService;
 import org.kie.workbench.common.services.datamodel.model.PackageDataModelOracleBaselinePayload;
 import org.kie.workbench.common.services.shared.project.KieProjectService;
@@ -103,6 +103,9 @@ public class GuidedRuleEditorServiceImpl
     @Inject
     private DataModelService dataModelService;
 
+    @Inject
+    private PackageDataModelPayloadCache dataModelPayloadCache;
+
     @Inject
     private GuidedRuleEditorServiceUtilities utilities;
 
@@ -186,7 +189,6 @@ public class GuidedRuleEditorServiceImpl
             final RuleModel model = load( path );
 
             final PackageDataModelOracle oracle = dataModelService.getDataModel( path );
-            final PackageDataModelOracleBaselinePayload dataModel = new PackageDataModelOracleBaselinePayload();
 
             //Get FQCN's used by model
             final GuidedRuleModelVisitor visitor = new GuidedRuleModelVisitor( model );
@@ -195,9 +197,8 @@ public class GuidedRuleEditorServiceImpl
             //Get FQCN's used by Globals
             consumedFQCNs.addAll( oracle.getPackageGlobals().values() );
 
-            DataModelOracleUtilities.populateDataModel( oracle,
-                                                        dataModel,
-                                                        consumedFQCNs );
+            final PackageDataModelOracleBaselinePayload dataModel = dataModelPayloadCache.getDataModel( oracle,
+                                                                                                        consumedFQCNs );
 
             //Signal opening to interested parties
             resourceOpenedEvent.fire( new ResourceOpenedEvent( path,
@@ -15,21 +15,12 @@
 */
 package org.drools.workbench.screens.guided.rule.backend.server;
 
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
-import javax.inject.Named;
 
-import org.guvnor.common.services.backend.file.FileDiscoveryService;
-import org.kie.workbench.common.services.backend.file.DSLFileFilter;
-import org.kie.workbench.common.services.backend.file.GlobalsFileFilter;
-import org.kie.workbench.common.services.shared.project.KieProjectService;
-import org.uberfire.backend.server.util.Paths;
 import org.uberfire.backend.vfs.Path;
-import org.uberfire.io.IOService;
 import org.uberfire.java.nio.base.options.CommentedOption;
 import org.uberfire.rpc.SessionInfo;
 import org.uberfire.security.Identity;
@@ -40,10 +31,6 @@ import org.uberfire.security.Identity;
 @ApplicationScoped
 public class GuidedRuleEditorServiceUtilities {
 
-    private static final GlobalsFileFilter FILTER_GLOBALS = new GlobalsFileFilter();
-
-    private static final DSLFileFilter FILTER_DSLS = new DSLFileFilter();
-
     @Inject
     private Identity identity;
 
@@ -51,14 +38,10 @@ public class GuidedRuleEditorServiceUtilities {
     private SessionInfo sessionInfo;
 
     @Inject
-    @Named("ioStrategy")
-    private IOService ioService;
-
-    @Inject
-    private FileDiscoveryService fileDiscoveryService;
+    private PackageDSLCache dslCache;
 
     @Inject
-    private KieProjectService projectService;
+    private PackageGlobalsCache globalsCache;
 
     /**
      * Load DSL definitions held in the Package relating to the provide Path
@@ -66,17 +49,7 @@ public class GuidedRuleEditorServiceUtilities {
      * @return
      */
     public String[] loadDslsForPackage( final Path path ) {
-        final List<String> dsls = new ArrayList<String>();
-        final Path packagePath = projectService.resolvePackage( path ).getPackageMainResourcesPath();
-        final org.uberfire.java.nio.file.Path nioPackagePath = Paths.convert( packagePath );
-        final Collection<org.uberfire.java.nio.file.Path> dslPaths = fileDiscoveryService.discoverFiles( nioPackagePath,
-                                                                                                         FILTER_DSLS );
-        for ( final org.uberfire.java.nio.file.Path dslPath : dslPaths ) {
-            final String dslDefinition = ioService.readAllString( dslPath );
-            dsls.add( dslDefinition );
-        }
-        final String[] result = new String[ dsls.size() ];
-        return dsls.toArray( result );
+        return dslCache.getDSLDefinitions( path );
     }
 
     /**
@@ -85,16 +58,7 @@ public class GuidedRuleEditorServiceUtilities {
      * @return
      */
     public List<String> loadGlobalsForPackage( final Path path ) {
-        final List<String> globals = new ArrayList<String>();
-        final Path packagePath = projectService.resolvePackage( path ).getPackageMainResourcesPath();
-        final org.uberfire.java.nio.file.Path nioPackagePath = Paths.convert( packagePath );
-        final Collection<org.uberfire.java.nio.file.Path> globalPaths = fileDiscoveryService.discoverFiles( nioPackagePath,
-                                                                                                            FILTER_GLOBALS );
-        for ( final org.uberfire.java.nio.file.Path globalPath : globalPaths ) {
-            final String globalDefinition = ioService.readAllString( globalPath );
-            globals.add( globalDefinition );
-        }
-        return globals;
+        return globalsCache.getGlobalDefinitions( path );
     }
 
     /**
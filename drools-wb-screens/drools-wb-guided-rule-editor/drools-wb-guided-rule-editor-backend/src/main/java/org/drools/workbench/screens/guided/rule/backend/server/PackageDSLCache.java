@@ -0,0 +1,126 @@
+/*
+* Copyright 2014 JBoss Inc
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*       http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.drools.workbench.screens.guided.rule.backend.server;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.drools.compiler.lang.Expander;
+import org.drools.compiler.lang.dsl.DSLMappingFile;
+import org.drools.compiler.lang.dsl.DSLTokenizedMappingFile;
+import org.drools.compiler.lang.dsl.DefaultExpander;
+import org.kie.workbench.common.services.backend.file.DSLFileFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.uberfire.backend.vfs.Path;
+import org.uberfire.java.nio.file.DirectoryStream;
+
+/**
+ * Cache of the DSL definitions held in a Package. DSL files are discovered and parsed once per Package and shared
+ * between indexing, source generation and the Guided Rule Editor. Entries are invalidated when a DSL file changes.
+ */
+@ApplicationScoped
+public class PackageDSLCache extends PackageResourceCache<PackageDSLCache.PackageDSLs> {
+
+    public static final String MAX_ENTRIES_PROPERTY = "org.drools.workbench.guided.rule.dslCache.maxEntries";
+
+    private static final Logger logger = LoggerFactory.getLogger( PackageDSLCache.class );
+
+    private static final DSLFileFilter FILTER_DSLS = new DSLFileFilter();
+
+    public PackageDSLCache() {
+        super( MAX_ENTRIES_PROPERTY );
+    }
+
+    /**
+     * DSL definitions held in the Package relating to the provided Path
+     * @param path
+     * @return
+     */
+    public String[] getDSLDefinitions( final Path path ) {
+        final List<String> definitions = getEntry( path ).getDefinitions();
+        final String[] result = new String[ definitions.size() ];
+        return definitions.toArray( result );
+    }
+
+    /**
+     * Returns a new Expander for the DSLs held in the Package relating to the provided Path. Expanders are not
+     * thread-safe; the parsed DSL mappings are cached and shared, the Expander is not.
+     * @param path
+     * @return
+     */
+    public Expander newExpander( final Path path ) {
+        final Expander expander = new DefaultExpander();
+        for ( DSLMappingFile dsl : getEntry( path ).getMappingFiles() ) {
+            expander.addDSLMapping( dsl.getMapping() );
+        }
+        return expander;
+    }
+
+    @Override
+    protected DirectoryStream.Filter<org.uberfire.java.nio.file.Path> getFilter() {
+        return FILTER_DSLS;
+    }
+
+    @Override
+    protected PackageDSLs load( final Collection<org.uberfire.java.nio.file.Path> dslPaths ) {
+        final List<String> definitions = new ArrayList<String>();
+        final List<DSLMappingFile> mappingFiles = new ArrayList<DSLMappingFile>();
+        for ( final org.uberfire.java.nio.file.Path dslPath : dslPaths ) {
+            final String dslDefinition = ioService.readAllString( dslPath );
+            definitions.add( dslDefinition );
+            final DSLTokenizedMappingFile dslFile = new DSLTokenizedMappingFile();
+            try {
+                if ( dslFile.parseAndLoad( new StringReader( dslDefinition ) ) ) {
+                    mappingFiles.add( dslFile );
+                } else {
+                    logger.error( "Unable to parse DSL definition: " + dslDefinition );
+                }
+            } catch ( IOException ioe ) {
+                logger.error( ioe.getMessage() );
+            }
+        }
+        return new PackageDSLs( definitions,
+                                mappingFiles );
+    }
+
+    static class PackageDSLs {
+
+        private final List<String> definitions;
+        private final List<DSLMappingFile> mappingFiles;
+
+        private PackageDSLs( final List<String> definitions,
+                             final List<DSLMappingFile> mappingFiles ) {
+            this.definitions = Collections.unmodifiableList( definitions );
+            this.mappingFiles = Collections.unmodifiableList( mappingFiles );
+        }
+
+        private List<String> getDefinitions() {
+            return definitions;
+        }
+
+        private List<DSLMappingFile> getMappingFiles() {
+            return mappingFiles;
+        }
+
+    }
+
+}
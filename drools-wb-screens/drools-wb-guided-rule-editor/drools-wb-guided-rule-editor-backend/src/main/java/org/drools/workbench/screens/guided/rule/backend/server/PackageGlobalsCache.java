@@ -0,0 +1,66 @@
+/*
+* Copyright 2014 JBoss Inc
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*       http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.drools.workbench.screens.guided.rule.backend.server;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.kie.workbench.common.services.backend.file.GlobalsFileFilter;
+import org.uberfire.backend.vfs.Path;
+import org.uberfire.java.nio.file.DirectoryStream;
+
+/**
+ * Cache of the Global definitions held in a Package. Global files are discovered and read once per Package and
+ * shared between loading, renaming and copying Guided Rules. Entries are invalidated when a Global file changes.
+ */
+@ApplicationScoped
+public class PackageGlobalsCache extends PackageResourceCache<List<String>> {
+
+    public static final String MAX_ENTRIES_PROPERTY = "org.drools.workbench.guided.rule.globalsCache.maxEntries";
+
+    private static final GlobalsFileFilter FILTER_GLOBALS = new GlobalsFileFilter();
+
+    public PackageGlobalsCache() {
+        super( MAX_ENTRIES_PROPERTY );
+    }
+
+    /**
+     * Global definitions held in the Package relating to the provided Path
+     * @param path
+     * @return
+     */
+    public List<String> getGlobalDefinitions( final Path path ) {
+        return new ArrayList<String>( getEntry( path ) );
+    }
+
+    @Override
+    protected DirectoryStream.Filter<org.uberfire.java.nio.file.Path> getFilter() {
+        return FILTER_GLOBALS;
+    }
+
+    @Override
+    protected List<String> load( final Collection<org.uberfire.java.nio.file.Path> globalPaths ) {
+        final List<String> definitions = new ArrayList<String>();
+        for ( final org.uberfire.java.nio.file.Path globalPath : globalPaths ) {
+            definitions.add( ioService.readAllString( globalPath ) );
+        }
+        return Collections.unmodifiableList( definitions );
+    }
+
+}
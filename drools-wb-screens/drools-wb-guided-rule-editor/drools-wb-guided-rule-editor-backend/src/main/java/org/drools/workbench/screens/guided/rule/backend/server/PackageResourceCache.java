@@ -0,0 +1,113 @@
+/*
+* Copyright 2014 JBoss Inc
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*       http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.drools.workbench.screens.guided.rule.backend.server;
+
+import java.util.Collection;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.drools.workbench.screens.common.backend.server.ResourceCache;
+import org.guvnor.common.services.backend.file.FileDiscoveryService;
+import org.guvnor.common.services.project.builder.events.InvalidateDMOPackageCacheEvent;
+import org.guvnor.common.services.project.model.Package;
+import org.kie.workbench.common.services.shared.project.KieProjectService;
+import org.uberfire.backend.server.util.Paths;
+import org.uberfire.backend.vfs.Path;
+import org.uberfire.io.IOService;
+import org.uberfire.java.nio.file.DirectoryStream;
+
+/**
+ * Base for caches of resources held in a Package's folder. Resources are discovered and parsed once per Package
+ * and the entry for a Package is invalidated when a matching resource in its folder changes.
+ * @param <T> Parsed representation of the Package's resources
+ */
+public abstract class PackageResourceCache<T> extends ResourceCache<T> {
+
+    private static final int DEFAULT_MAX_ENTRIES = 100;
+
+    @Inject
+    @Named("ioStrategy")
+    protected IOService ioService;
+
+    @Inject
+    protected FileDiscoveryService fileDiscoveryService;
+
+    @Inject
+    protected KieProjectService projectService;
+
+    protected PackageResourceCache( final String maxEntriesProperty ) {
+        super( maxEntriesProperty,
+               DEFAULT_MAX_ENTRIES );
+    }
+
+    /**
+     * Filter matching the resources held in the cache
+     * @return
+     */
+    protected abstract DirectoryStream.Filter<org.uberfire.java.nio.file.Path> getFilter();
+
+    /**
+     * Parse the resources discovered in a Package's folder
+     * @param resourcePaths
+     * @return
+     */
+    protected abstract T load( final Collection<org.uberfire.java.nio.file.Path> resourcePaths );
+
+    public void onInvalidatePackage( @Observes final InvalidateDMOPackageCacheEvent event ) {
+        invalidate( event.getResourcePath() );
+    }
+
+    protected T getEntry( final Path path ) {
+        final Path packagePath = getPackagePath( path );
+        final String key = packagePath.toURI();
+        T entry = get( key );
+        if ( entry == null ) {
+            final long generation = getGeneration();
+            entry = load( fileDiscoveryService.discoverFiles( Paths.convert( packagePath ),
+                                                              getFilter() ) );
+            put( key,
+                 entry,
+                 generation );
+        }
+        return entry;
+    }
+
+    /**
+     * Folder of the Package relating to the provided Path, in which resources are discovered
+     * @param path
+     * @return
+     */
+    protected Path getPackagePath( final Path path ) {
+        final Package pkg = projectService.resolvePackage( path );
+        return pkg.getPackageMainResourcesPath();
+    }
+
+    @Override
+    protected boolean accept( final Path path ) {
+        return getFilter().accept( Paths.convert( path ) );
+    }
+
+    @Override
+    protected boolean isAffected( final String folderUri,
+                                  final String uri ) {
+        //Resources are discovered in the Package's folder only, not in the folders of nested Packages
+        final String prefix = getFolderPrefix( folderUri );
+        return uri.startsWith( prefix ) && uri.indexOf( '/',
+                                                        prefix.length() ) < 0;
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.guided.rule.backend.server;
+
+import java.util.Collection;
+
+import org.guvnor.common.services.backend.file.FileDiscoveryServiceImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.uberfire.backend.vfs.Path;
+import org.uberfire.io.impl.IOServiceDotFileImpl;
+import org.uberfire.workbench.events.ResourceDeletedEvent;
+import org.uberfire.workbench.events.ResourceUpdatedEvent;
+
+import static org.junit.Assert.*;
+
+public class PackageDSLCacheTest {
+
+    private static final String DSL1 = "[when]There is an Applicant=Applicant()";
+    private static final String DSL2 = "[when]There is a Mortgage=Mortgage()";
+
+    private TestPackageFolder folder;
+    private TestPackageDSLCache cache;
+
+    @Before
+    public void setup() throws Exception {
+        folder = new TestPackageFolder();
+        cache = new TestPackageDSLCache( folder );
+    }
+
+    @After
+    public void tearDown() {
+        cache.ioService.dispose();
+        folder.dispose();
+    }
+
+    @Test
+    public void testCacheHitReturnsEqualDefinitions() throws Exception {
+        folder.write( "definitions.dsl",
+                      DSL1 );
+        final Path rulePath = folder.getPath( "rule.rdrl" );
+
+        final String[] definitions1 = cache.getDSLDefinitions( rulePath );
+        final String[] definitions2 = cache.getDSLDefinitions( rulePath );
+
+        assertArrayEquals( new String[]{ DSL1 },
+                           definitions1 );
+        assertArrayEquals( definitions1,
+                           definitions2 );
+        assertEquals( 1,
+                      cache.loads );
+        final String drl = cache.newExpander( rulePath ).expand( "rule \"r\"\nwhen\nThere is an Applicant\nthen\nend" );
+        assertTrue( drl.contains( "Applicant()" ) );
+        assertFalse( drl.contains( "There is an Applicant" ) );
+        assertEquals( 1,
+                      cache.loads );
+    }
+
+    @Test
+    public void testUpdateEvictsEntry() throws Exception {
+        final Path dslPath = folder.write( "definitions.dsl",
+                                           DSL1 );
+        final Path rulePath = folder.getPath( "rule.rdrl" );
+        cache.getDSLDefinitions( rulePath );
+
+        folder.write( "definitions.dsl",
+                      DSL2 );
+        cache.onResourceUpdated( new ResourceUpdatedEvent( dslPath,
+                                                           "",
+                                                           null ) );
+
+        assertArrayEquals( new String[]{ DSL2 },
+                           cache.getDSLDefinitions( rulePath ) );
+        assertEquals( 2,
+                      cache.loads );
+    }
+
+    @Test
+    public void testDeleteEvictsEntry() throws Exception {
+        folder.write( "definitions.dsl",
+                      DSL1 );
+        final Path rulePath = folder.getPath( "rule.rdrl" );
+        cache.getDSLDefinitions( rulePath );
+
+        cache.onResourceDeleted( new ResourceDeletedEvent( folder.delete( "definitions.dsl" ),
+                                                           "",
+                                                           null ) );
+
+        assertEquals( 0,
+                      cache.getDSLDefinitions( rulePath ).length );
+        assertEquals( 2,
+                      cache.loads );
+    }
+
+    private static class TestPackageDSLCache extends PackageDSLCache {
+
+        private final TestPackageFolder folder;
+        private int loads;
+
+        private TestPackageDSLCache( final TestPackageFolder folder ) {
+            this.folder = folder;
+            this.ioService = new IOServiceDotFileImpl();
+            this.fileDiscoveryService = new FileDiscoveryServiceImpl();
+        }
+
+        @Override
+        protected Path getPackagePath( final Path path ) {
+            return folder.getPath();
+        }
+
+        @Override
+        protected PackageDSLs load( final Collection<org.uberfire.java.nio.file.Path> dslPaths ) {
+            loads++;
+            return super.load( dslPaths );
+        }
+
+    }
+
+}
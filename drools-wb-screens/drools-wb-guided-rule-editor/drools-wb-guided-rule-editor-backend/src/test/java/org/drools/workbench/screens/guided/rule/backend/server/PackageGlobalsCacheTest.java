@@ -0,0 +1,154 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.guided.rule.backend.server;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.guvnor.common.services.backend.file.FileDiscoveryServiceImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.uberfire.backend.vfs.Path;
+import org.uberfire.io.impl.IOServiceDotFileImpl;
+import org.uberfire.workbench.events.ResourceDeletedEvent;
+import org.uberfire.workbench.events.ResourceRenamedEvent;
+import org.uberfire.workbench.events.ResourceUpdatedEvent;
+
+import static org.junit.Assert.*;
+
+public class PackageGlobalsCacheTest {
+
+    private static final String GLOBALS1 = "global java.util.List list;";
+    private static final String GLOBALS2 = "global java.util.Map map;";
+
+    private TestPackageFolder folder;
+    private TestPackageGlobalsCache cache;
+
+    @Before
+    public void setup() throws Exception {
+        folder = new TestPackageFolder();
+        cache = new TestPackageGlobalsCache( folder );
+    }
+
+    @After
+    public void tearDown() {
+        cache.ioService.dispose();
+        folder.dispose();
+    }
+
+    @Test
+    public void testCacheHitReturnsEqualDefinitions() throws Exception {
+        folder.write( "globals.gdrl",
+                      GLOBALS1 );
+        final Path rulePath = folder.getPath( "rule.rdrl" );
+
+        final List<String> definitions1 = cache.getGlobalDefinitions( rulePath );
+        final List<String> definitions2 = cache.getGlobalDefinitions( rulePath );
+
+        assertEquals( Arrays.asList( GLOBALS1 ),
+                      definitions1 );
+        assertEquals( definitions1,
+                      definitions2 );
+        assertEquals( 1,
+                      cache.loads );
+
+        //Callers receive a copy they may modify
+        definitions1.clear();
+        assertEquals( Arrays.asList( GLOBALS1 ),
+                      cache.getGlobalDefinitions( rulePath ) );
+    }
+
+    @Test
+    public void testUpdateEvictsEntry() throws Exception {
+        final Path globalsPath = folder.write( "globals.gdrl",
+                                               GLOBALS1 );
+        final Path rulePath = folder.getPath( "rule.rdrl" );
+        cache.getGlobalDefinitions( rulePath );
+
+        folder.write( "globals.gdrl",
+                      GLOBALS2 );
+        cache.onResourceUpdated( new ResourceUpdatedEvent( globalsPath,
+                                                           "",
+                                                           null ) );
+
+        assertEquals( Arrays.asList( GLOBALS2 ),
+                      cache.getGlobalDefinitions( rulePath ) );
+        assertEquals( 2,
+                      cache.loads );
+    }
+
+    @Test
+    public void testRenameEvictsEntry() throws Exception {
+        final Path globalsPath = folder.write( "globals.gdrl",
+                                               GLOBALS1 );
+        final Path rulePath = folder.getPath( "rule.rdrl" );
+        cache.getGlobalDefinitions( rulePath );
+
+        //Renamed to a file that is no longer a Global definition
+        cache.onResourceRenamed( new ResourceRenamedEvent( globalsPath,
+                                                           folder.rename( "globals.gdrl",
+                                                                          "globals.txt" ),
+                                                           "",
+                                                           null ) );
+
+        assertTrue( cache.getGlobalDefinitions( rulePath ).isEmpty() );
+        assertEquals( 2,
+                      cache.loads );
+    }
+
+    @Test
+    public void testDeleteEvictsEntry() throws Exception {
+        folder.write( "globals.gdrl",
+                      GLOBALS1 );
+        final Path rulePath = folder.getPath( "rule.rdrl" );
+        cache.getGlobalDefinitions( rulePath );
+
+        cache.onResourceDeleted( new ResourceDeletedEvent( folder.delete( "globals.gdrl" ),
+                                                           "",
+                                                           null ) );
+
+        assertTrue( cache.getGlobalDefinitions( rulePath ).isEmpty() );
+        assertEquals( 2,
+                      cache.loads );
+    }
+
+    private static class TestPackageGlobalsCache extends PackageGlobalsCache {
+
+        private final TestPackageFolder folder;
+        private int loads;
+
+        private TestPackageGlobalsCache( final TestPackageFolder folder ) {
+            this.folder = folder;
+            this.ioService = new IOServiceDotFileImpl();
+            this.fileDiscoveryService = new FileDiscoveryServiceImpl();
+        }
+
+        @Override
+        protected Path getPackagePath( final Path path ) {
+            return folder.getPath();
+        }
+
+        @Override
+        protected List<String> load( final Collection<org.uberfire.java.nio.file.Path> globalPaths ) {
+            loads++;
+            return super.load( globalPaths );
+        }
+
+    }
+
+}
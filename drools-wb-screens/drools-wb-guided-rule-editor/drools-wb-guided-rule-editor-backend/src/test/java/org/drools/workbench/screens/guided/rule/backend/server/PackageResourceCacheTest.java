@@ -0,0 +1,169 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.guided.rule.backend.server;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.guvnor.common.services.backend.file.FileDiscoveryServiceImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.kie.workbench.common.services.backend.file.DSLFileFilter;
+import org.uberfire.backend.vfs.Path;
+import org.uberfire.io.impl.IOServiceDotFileImpl;
+import org.uberfire.java.nio.file.DirectoryStream;
+import org.uberfire.workbench.events.ResourceAddedEvent;
+import org.uberfire.workbench.events.ResourceRenamedEvent;
+import org.uberfire.workbench.events.ResourceUpdatedEvent;
+
+import static org.junit.Assert.*;
+
+public class PackageResourceCacheTest {
+
+    private TestPackageFolder folder;
+    private TestPackageResourceCache cache;
+
+    @Before
+    public void setup() throws Exception {
+        folder = new TestPackageFolder();
+        cache = new TestPackageResourceCache( folder );
+    }
+
+    @After
+    public void tearDown() {
+        cache.ioService.dispose();
+        folder.dispose();
+    }
+
+    @Test
+    public void testResourcesAreLoadedOncePerPackage() throws Exception {
+        folder.write( "a.dsl",
+                      "a" );
+        folder.write( "b.txt",
+                      "b" );
+
+        assertEquals( 1,
+                      cache.getEntry( folder.getPath( "rule1.rdrl" ) ).size() );
+        assertEquals( 1,
+                      cache.getEntry( folder.getPath( "rule2.rdrl" ) ).size() );
+        assertEquals( 1,
+                      cache.loads );
+    }
+
+    @Test
+    public void testAddedResourceEvictsEntry() throws Exception {
+        final Path rulePath = folder.getPath( "rule.rdrl" );
+        assertTrue( cache.getEntry( rulePath ).isEmpty() );
+
+        cache.onResourceAdded( new ResourceAddedEvent( folder.write( "a.dsl",
+                                                                     "a" ),
+                                                       "",
+                                                       null ) );
+
+        assertEquals( 1,
+                      cache.getEntry( rulePath ).size() );
+        assertEquals( 2,
+                      cache.loads );
+    }
+
+    @Test
+    public void testRenameIntoPackageEvictsEntry() throws Exception {
+        final Path rulePath = folder.getPath( "rule.rdrl" );
+        final Path textPath = folder.write( "a.txt",
+                                            "a" );
+        assertTrue( cache.getEntry( rulePath ).isEmpty() );
+
+        cache.onResourceRenamed( new ResourceRenamedEvent( textPath,
+                                                           folder.rename( "a.txt",
+                                                                          "a.dsl" ),
+                                                           "",
+                                                           null ) );
+
+        assertEquals( 1,
+                      cache.getEntry( rulePath ).size() );
+        assertEquals( 2,
+                      cache.loads );
+    }
+
+    @Test
+    public void testUnmatchedResourceDoesNotEvictEntry() throws Exception {
+        final Path rulePath = folder.getPath( "rule.rdrl" );
+        cache.getEntry( rulePath );
+
+        cache.onResourceUpdated( new ResourceUpdatedEvent( folder.write( "a.txt",
+                                                                         "a" ),
+                                                           "",
+                                                           null ) );
+        cache.getEntry( rulePath );
+
+        assertEquals( 1,
+                      cache.loads );
+    }
+
+    @Test
+    public void testNestedPackageResourceDoesNotEvictEntry() throws Exception {
+        final Path rulePath = folder.getPath( "rule.rdrl" );
+        cache.getEntry( rulePath );
+
+        cache.onResourceUpdated( new ResourceUpdatedEvent( folder.write( "nested/a.dsl",
+                                                                         "a" ),
+                                                           "",
+                                                           null ) );
+        cache.getEntry( rulePath );
+
+        assertEquals( 1,
+                      cache.loads );
+    }
+
+    private static class TestPackageResourceCache extends PackageResourceCache<List<String>> {
+
+        private static final DSLFileFilter FILTER_DSLS = new DSLFileFilter();
+
+        private final TestPackageFolder folder;
+        private int loads;
+
+        private TestPackageResourceCache( final TestPackageFolder folder ) {
+            super( "org.drools.workbench.test.packageResourceCache.maxEntries" );
+            this.folder = folder;
+            this.ioService = new IOServiceDotFileImpl();
+            this.fileDiscoveryService = new FileDiscoveryServiceImpl();
+        }
+
+        @Override
+        protected Path getPackagePath( final Path path ) {
+            return folder.getPath();
+        }
+
+        @Override
+        protected DirectoryStream.Filter<org.uberfire.java.nio.file.Path> getFilter() {
+            return FILTER_DSLS;
+        }
+
+        @Override
+        protected List<String> load( final Collection<org.uberfire.java.nio.file.Path> resourcePaths ) {
+            loads++;
+            final List<String> contents = new ArrayList<String>();
+            for ( org.uberfire.java.nio.file.Path resourcePath : resourcePaths ) {
+                contents.add( ioService.readAllString( resourcePath ) );
+            }
+            return contents;
+        }
+
+    }
+
+}
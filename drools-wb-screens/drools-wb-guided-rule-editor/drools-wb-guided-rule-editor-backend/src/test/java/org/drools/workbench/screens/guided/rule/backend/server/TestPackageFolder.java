@@ -0,0 +1,96 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.guided.rule.backend.server;
+
+import java.io.File;
+import java.io.FileWriter;
+
+import org.uberfire.backend.server.util.Paths;
+import org.uberfire.backend.vfs.Path;
+
+/**
+ * Temporary folder standing in for a Package's resources folder in tests of the Package resource caches
+ */
+public class TestPackageFolder {
+
+    private final File root;
+
+    public TestPackageFolder() throws Exception {
+        root = File.createTempFile( "package",
+                                    "" );
+        root.delete();
+        root.mkdirs();
+    }
+
+    public Path getPath() {
+        return getPath( root );
+    }
+
+    public Path getPath( final String fileName ) {
+        return getPath( new File( root,
+                                  fileName ) );
+    }
+
+    public Path write( final String fileName,
+                       final String content ) throws Exception {
+        final File file = new File( root,
+                                    fileName );
+        file.getParentFile().mkdirs();
+        final FileWriter writer = new FileWriter( file );
+        try {
+            writer.write( content );
+        } finally {
+            writer.close();
+        }
+        return getPath( file );
+    }
+
+    public Path delete( final String fileName ) {
+        final File file = new File( root,
+                                    fileName );
+        file.delete();
+        return getPath( file );
+    }
+
+    public Path rename( final String fileName,
+                        final String newFileName ) {
+        final File file = new File( root,
+                                    fileName );
+        final File newFile = new File( root,
+                                       newFileName );
+        file.renameTo( newFile );
+        return getPath( newFile );
+    }
+
+    public void dispose() {
+        delete( root );
+    }
+
+    private Path getPath( final File file ) {
+        return Paths.convert( org.uberfire.java.nio.file.Paths.get( file.toURI() ) );
+    }
+
+    private void delete( final File file ) {
+        final File[] children = file.listFiles();
+        if ( children != null ) {
+            for ( File child : children ) {
+                delete( child );
+            }
+        }
+        file.delete();
+    }
+
+}
@@ -30,6 +30,7 @@ import org.drools.workbench.models.guided.scorecard.backend.GuidedScoreCardXMLPe
 import org.drools.workbench.models.guided.scorecard.shared.Attribute;
 import org.drools.workbench.models.guided.scorecard.shared.Characteristic;
 import org.drools.workbench.models.guided.scorecard.shared.ScoreCardModel;
+import org.drools.workbench.screens.common.backend.server.PackageDataModelPayloadCache;
 import org.drools.workbench.screens.guided.scorecard.model.ScoreCardModelContent;
 import org.drools.workbench.screens.guided.scorecard.service.GuidedScoreCardEditorService;
 import org.guvnor.common.services.backend.exceptions.ExceptionUtilities;
@@ -42,7 +43,6 @@ import org.guvnor.common.services.shared.metadata.model.Metadata;
 import org.guvnor.common.services.shared.validation.model.ValidationMessage;
 import org.jboss.errai.bus.server.annotations.Service;
 import org.kie.workbench.common.services.backend.source.SourceServices;
-import org.kie.workbench.common.services.datamodel.backend.server.DataModelOracleUtilities;
 import org.kie.workbench.common.services.datamodel.backend.server.service.DataModelService;
 import org.kie.workbench.common.services.datamodel.model.PackageDataModelOracleBaselinePayload;
 import org.kie.workbench.common.services.shared.project.KieProjectService;
@@ -87,6 +87,9 @@ public class GuidedScoreCardEditorServiceImpl implements GuidedScoreCardEditorSe
     @Inject
     private DataModelService dataModelService;
 
+    @Inject
+    private PackageDataModelPayloadCache dataModelPayloadCache;
+
     @Inject
     private SourceServices sourceServices;
 
@@ -138,11 +141,9 @@ public class GuidedScoreCardEditorServiceImpl implements GuidedScoreCardEditorSe
         try {
             final ScoreCardModel model = load( path );
             final PackageDataModelOracle oracle = dataModelService.getDataModel( path );
-            final PackageDataModelOracleBaselinePayload dataModel = new PackageDataModelOracleBaselinePayload();
             final GuidedScoreCardModelVisitor visitor = new GuidedScoreCardModelVisitor( model );
-            DataModelOracleUtilities.populateDataModel( oracle,
-                                                        dataModel,
-                                                        visitor.getConsumedModelClasses() );
+            final PackageDataModelOracleBaselinePayload dataModel = dataModelPayloadCache.getDataModel( oracle,
+                                                                                                        visitor.getConsumedModelClasses() );
 
             //Signal opening to interested parties
             resourceOpenedEvent.fire( new ResourceOpenedEvent( path,
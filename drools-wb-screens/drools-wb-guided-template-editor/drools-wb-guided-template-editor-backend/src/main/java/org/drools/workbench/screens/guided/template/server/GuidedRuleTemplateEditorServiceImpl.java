@@ -29,6 +29,7 @@ import com.google.common.base.Charsets;
 import org.drools.workbench.models.datamodel.oracle.PackageDataModelOracle;
 import org.drools.workbench.models.guided.template.backend.RuleTemplateModelXMLPersistenceImpl;
 import org.drools.workbench.models.guided.template.shared.TemplateModel;
+import org.drools.workbench.screens.common.backend.server.PackageDataModelPayloadCache;
 import org.drools.workbench.screens.guided.rule.backend.server.GuidedRuleEditorServiceUtilities;
 import org.drools.workbench.screens.guided.rule.backend.server.GuidedRuleModelVisitor;
 import org.drools.workbench.screens.guided.template.model.GuidedTemplateEditorContent;
@@ -52,7 +53,6 @@ import org.kie.workbench.common.services.backend.file.GlobalsFileFilter;
 import org.kie.workbench.common.services.backend.file.RDRLFileFilter;
 import org.kie.workbench.common.services.backend.file.RDSLRFileFilter;
 import org.kie.workbench.common.services.backend.source.SourceServices;
-import org.kie.workbench.common.services.datamodel.backend.server.DataModelOracleUtilities;
 import org.kie.workbench.common.services.datamodel.backend.server.service.DataModelService;
 import org.kie.workbench.common.services.datamodel.model.PackageDataModelOracleBaselinePayload;
 import org.kie.workbench.common.services.shared.project.KieProjectService;
@@ -101,6 +101,9 @@ public class GuidedRuleTemplateEditorServiceImpl implements GuidedRuleTemplateEd
     @Inject
     private DataModelService dataModelService;
 
+    @Inject
+    private PackageDataModelPayloadCache dataModelPayloadCache;
+
     @Inject
     private SourceServices sourceServices;
 
@@ -160,7 +163,6 @@ public class GuidedRuleTemplateEditorServiceImpl implements GuidedRuleTemplateEd
         try {
             final TemplateModel model = load( path );
             final PackageDataModelOracle oracle = dataModelService.getDataModel( path );
-            final PackageDataModelOracleBaselinePayload dataModel = new PackageDataModelOracleBaselinePayload();
 
             //Get FQCN's used by model
             final GuidedRuleModelVisitor visitor = new GuidedRuleModelVisitor( model );
@@ -169,9 +171,8 @@ public class GuidedRuleTemplateEditorServiceImpl implements GuidedRuleTemplateEd
             //Get FQCN's used by Globals
             consumedFQCNs.addAll( oracle.getPackageGlobals().values() );
 
-            DataModelOracleUtilities.populateDataModel( oracle,
-                                                        dataModel,
-                                                        consumedFQCNs );
+            final PackageDataModelOracleBaselinePayload dataModel = dataModelPayloadCache.getDataModel( oracle,
+                                                                                                        consumedFQCNs );
 
             //Signal opening to interested parties
             resourceOpenedEvent.fire( new ResourceOpenedEvent( path,
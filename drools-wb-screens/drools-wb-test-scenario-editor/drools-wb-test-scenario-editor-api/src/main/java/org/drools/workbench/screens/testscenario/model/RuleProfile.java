@@ -0,0 +1,57 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.testscenario.model;
+
+import org.jboss.errai.common.client.api.annotations.Portable;
+
+/**
+ * Firings of a rule during a scenario
+ */
+@Portable
+public class RuleProfile {
+
+    private String ruleName;
+    private int firings;
+    private long firingTime;
+
+    public RuleProfile() {
+    }
+
+    public RuleProfile( final String ruleName,
+                        final int firings,
+                        final long firingTime ) {
+        this.ruleName = ruleName;
+        this.firings = firings;
+        this.firingTime = firingTime;
+    }
+
+    public String getRuleName() {
+        return ruleName;
+    }
+
+    public int getFirings() {
+        return firings;
+    }
+
+    /**
+     * Cumulative time spent firing the rule, i.e. executing its consequence, in nanoseconds
+     * @return
+     */
+    public long getFiringTime() {
+        return firingTime;
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.testscenario.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jboss.errai.common.client.api.annotations.Portable;
+
+/**
+ * Timing and rule firings of a scenario run
+ */
+@Portable
+public class ScenarioProfile {
+
+    private String scenarioName;
+    private String failureMessage;
+    private long wallTime;
+    private int firedRules;
+    private int insertedFacts;
+    private List<RuleProfile> rules = new ArrayList<RuleProfile>();
+
+    public ScenarioProfile() {
+    }
+
+    public ScenarioProfile( final String scenarioName,
+                            final String failureMessage,
+                            final long wallTime,
+                            final int firedRules,
+                            final int insertedFacts,
+                            final List<RuleProfile> rules ) {
+        this.scenarioName = scenarioName;
+        this.failureMessage = failureMessage;
+        this.wallTime = wallTime;
+        this.firedRules = firedRules;
+        this.insertedFacts = insertedFacts;
+        this.rules = rules;
+    }
+
+    public String getScenarioName() {
+        return scenarioName;
+    }
+
+    public boolean wasSuccessful() {
+        return failureMessage == null;
+    }
+
+    /**
+     * @return The message of the scenario's first failure, or null if the scenario was successful
+     */
+    public String getFailureMessage() {
+        return failureMessage;
+    }
+
+    /**
+     * Time taken to run the scenario, in milliseconds
+     * @return
+     */
+    public long getWallTime() {
+        return wallTime;
+    }
+
+    public int getFiredRules() {
+        return firedRules;
+    }
+
+    public int getInsertedFacts() {
+        return insertedFacts;
+    }
+
+    /**
+     * The rules on which most time was spent, in descending order of cumulative firing time
+     * @return
+     */
+    public List<RuleProfile> getRules() {
+        return rules;
+    }
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.testscenario.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jboss.errai.common.client.api.annotations.Portable;
+
+/**
+ * Profiles of the scenarios of a run, raised alongside the run's TestResultMessage when profiling is enabled
+ */
+@Portable
+public class TestProfileMessage {
+
+    private List<ScenarioProfile> profiles = new ArrayList<ScenarioProfile>();
+
+    public TestProfileMessage() {
+    }
+
+    public TestProfileMessage( final List<ScenarioProfile> profiles ) {
+        this.profiles = profiles;
+    }
+
+    public List<ScenarioProfile> getProfiles() {
+        return profiles;
+    }
+
+}
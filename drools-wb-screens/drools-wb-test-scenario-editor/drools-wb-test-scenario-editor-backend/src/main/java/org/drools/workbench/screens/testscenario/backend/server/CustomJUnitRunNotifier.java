@@ -1,7 +1,10 @@
 package org.drools.workbench.screens.testscenario.backend.server;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
 
 import javax.enterprise.event.Event;
 
@@ -15,67 +18,228 @@ import org.junit.runner.notification.RunNotifier;
 public class CustomJUnitRunNotifier
         extends RunNotifier {
 
-    private final Event<TestResultMessage> testResultMessageEvent;
+    public static final String RESULT_BATCH_SIZE_PROPERTY = "org.drools.workbench.testscenario.resultBatchSize";
+    public static final String RESULT_BATCH_WINDOW_PROPERTY = "org.drools.workbench.testscenario.resultBatchWindow";
+
+    private static final int DEFAULT_RESULT_BATCH_SIZE = 100;
+    private static final long DEFAULT_RESULT_BATCH_WINDOW = 500;
+
+    private final TestResultMessageListener testResultMessageListener;
+    private final int resultBatchSize;
+    private final long resultBatchWindow;
+
+    //Results of the tests finished since the last flush
+    private int pendingRunCount = 0;
+    private List<org.guvnor.common.services.shared.test.Failure> pendingFailures = new ArrayList<org.guvnor.common.services.shared.test.Failure>();
+    private long pendingSince;
+
+    private Timer flushTimer;
 
     public CustomJUnitRunNotifier( final Event<TestResultMessage> testResultMessageEvent ) {
+        this( testResultMessageEvent,
+              true );
+    }
 
-        this.testResultMessageEvent = testResultMessageEvent;
+    /**
+     * @param testResultMessageEvent
+     * @param reportTestRunResult False if the result of the run is reported by the caller, e.g. when aggregating runs
+     */
+    public CustomJUnitRunNotifier( final Event<TestResultMessage> testResultMessageEvent,
+                                   final boolean reportTestRunResult ) {
+        this( testResultMessageEvent,
+              reportTestRunResult,
+              Integer.getInteger( RESULT_BATCH_SIZE_PROPERTY,
+                                  DEFAULT_RESULT_BATCH_SIZE ),
+              Long.getLong( RESULT_BATCH_WINDOW_PROPERTY,
+                            DEFAULT_RESULT_BATCH_WINDOW ) );
+    }
 
-        addListener( new RunListener() {
+    /**
+     * The results of finished tests are reported together, in one message, once the given number of tests have
+     * finished or the given time has elapsed since the first of them finished; and always when the run finishes.
+     * @param testResultMessageEvent
+     * @param reportTestRunResult False if the result of the run is reported by the caller, e.g. when aggregating runs
+     * @param resultBatchSize Maximum number of tests reported in one message
+     * @param resultBatchWindow Maximum time, in milliseconds, the result of a test is held before being reported
+     */
+    public CustomJUnitRunNotifier( final Event<TestResultMessage> testResultMessageEvent,
+                                   final boolean reportTestRunResult,
+                                   final int resultBatchSize,
+                                   final long resultBatchWindow ) {
+        this( asListener( testResultMessageEvent ),
+              reportTestRunResult,
+              resultBatchSize,
+              resultBatchWindow );
+    }
+
+    /**
+     * @param testResultMessageListener Receives the messages, e.g. to queue them for another thread
+     * @param reportTestRunResult False if the result of the run is reported by the caller, e.g. when aggregating runs
+     */
+    public CustomJUnitRunNotifier( final TestResultMessageListener testResultMessageListener,
+                                   final boolean reportTestRunResult ) {
+        this( testResultMessageListener,
+              reportTestRunResult,
+              Integer.getInteger( RESULT_BATCH_SIZE_PROPERTY,
+                                  DEFAULT_RESULT_BATCH_SIZE ),
+              Long.getLong( RESULT_BATCH_WINDOW_PROPERTY,
+                            DEFAULT_RESULT_BATCH_WINDOW ) );
+    }
+
+    /**
+     * @param testResultMessageListener Receives the messages, e.g. to queue them for another thread
+     * @param reportTestRunResult False if the result of the run is reported by the caller, e.g. when aggregating runs
+     * @param resultBatchSize Maximum number of tests reported in one message
+     * @param resultBatchWindow Maximum time, in milliseconds, the result of a test is held before being reported
+     */
+    public CustomJUnitRunNotifier( final TestResultMessageListener testResultMessageListener,
+                                   final boolean reportTestRunResult,
+                                   final int resultBatchSize,
+                                   final long resultBatchWindow ) {
 
-            private boolean hasFailure = false;
+        this.testResultMessageListener = testResultMessageListener;
+        this.resultBatchSize = Math.max( 1,
+                                         resultBatchSize );
+        this.resultBatchWindow = resultBatchWindow;
+
+        addListener( new RunListener() {
 
             public void testFinished( final Description description ) throws Exception {
-                if ( !hasFailure ) {
-                    reportTestSuccess();
-                }
+                reportTestFinished();
             }
 
             public void testFailure( final Failure failure ) throws Exception {
-                hasFailure = true;
                 reportTestFailure( failure );
             }
 
             public void testAssumptionFailure( final Failure failure ) {
-                hasFailure = true;
                 reportTestFailure( failure );
             }
 
             public void testRunFinished( final Result result ) throws Exception {
-                reportTestRunResult( result );
+                flush();
+                if ( reportTestRunResult ) {
+                    reportTestRunResult( result );
+                }
             }
         } );
     }
 
-    private void reportTestRunResult( final Result result ) {
-        fireMessageEvent( new TestResultMessage( result.wasSuccessful(),
-                                                 result.getRunCount(),
-                                                 result.getFailureCount(),
-                                                 getFailures( result.getFailures() ) ) );
+    /**
+     * Report the results of the tests finished since the last report, if any. The results are otherwise reported when
+     * the run finishes; runners not notifying of the run finishing should call this once run.
+     */
+    public synchronized void flush() {
+        if ( pendingRunCount == 0 && pendingFailures.isEmpty() ) {
+            return;
+        }
+        fireMessageEvent( new TestResultMessage( pendingFailures.isEmpty(),
+                                                 pendingRunCount,
+                                                 pendingFailures.size(),
+                                                 pendingFailures ) );
+        pendingRunCount = 0;
+        pendingFailures = new ArrayList<org.guvnor.common.services.shared.test.Failure>();
     }
 
-    private void reportTestSuccess() {
-        fireMessageEvent( new TestResultMessage( true,
-                                                 1,
-                                                 1,
-                                                 new ArrayList<org.guvnor.common.services.shared.test.Failure>() ) );
+    /**
+     * Report the results of the tests finished since the last report if they have been held for the batch window
+     */
+    public synchronized void flushIfDue() {
+        if ( pendingRunCount == 0 && pendingFailures.isEmpty() ) {
+            return;
+        }
+        if ( System.currentTimeMillis() - pendingSince >= resultBatchWindow ) {
+            flush();
+        }
     }
 
-    private void reportTestFailure( final Failure failure ) {
-        ArrayList<org.guvnor.common.services.shared.test.Failure> failures = new ArrayList<org.guvnor.common.services.shared.test.Failure>();
-        failures.add( failureToFailure( failure ) );
+    /**
+     * Check the results held against the batch window periodically, rather than only when the next test finishes, so
+     * that results are not held while a long test runs. Results are then reported by the timer's thread. Call
+     * stopFlushTimer() once run.
+     */
+    public synchronized void startFlushTimer() {
+        if ( flushTimer != null || resultBatchWindow <= 0 || resultBatchWindow == Long.MAX_VALUE ) {
+            return;
+        }
+        final long period = Math.max( 1,
+                                      resultBatchWindow / 2 );
+        flushTimer = new Timer( "scenario-results",
+                                true );
+        flushTimer.schedule( new TimerTask() {
+                                 @Override
+                                 public void run() {
+                                     flushIfDue();
+                                 }
+                             },
+                             period,
+                             period );
+    }
 
-        fireMessageEvent( new TestResultMessage( false,
-                                                 1,
-                                                 1,
-                                                 failures ) );
+    public synchronized void stopFlushTimer() {
+        if ( flushTimer != null ) {
+            flushTimer.cancel();
+            flushTimer = null;
+        }
+    }
+
+    /**
+     * Combine the results of several runs into one message
+     * @param results
+     * @return
+     */
+    public static TestResultMessage makeTestRunResult( final List<Result> results ) {
+        boolean wasSuccessful = true;
+        int runCount = 0;
+        int failureCount = 0;
+        final List<org.guvnor.common.services.shared.test.Failure> failures = new ArrayList<org.guvnor.common.services.shared.test.Failure>();
+        for ( Result result : results ) {
+            wasSuccessful = wasSuccessful && result.wasSuccessful();
+            runCount = runCount + result.getRunCount();
+            failureCount = failureCount + result.getFailureCount();
+            failures.addAll( getFailures( result.getFailures() ) );
+        }
+        return new TestResultMessage( wasSuccessful,
+                                      runCount,
+                                      failureCount,
+                                      failures );
+    }
+
+    private void reportTestRunResult( final Result result ) {
+        fireMessageEvent( makeTestRunResult( Collections.singletonList( result ) ) );
+    }
+
+    private synchronized void reportTestFinished() {
+        if ( pendingRunCount == 0 && pendingFailures.isEmpty() ) {
+            pendingSince = System.currentTimeMillis();
+        }
+        pendingRunCount++;
+        if ( pendingRunCount >= resultBatchSize || System.currentTimeMillis() - pendingSince >= resultBatchWindow ) {
+            flush();
+        }
+    }
+
+    private synchronized void reportTestFailure( final Failure failure ) {
+        if ( pendingRunCount == 0 && pendingFailures.isEmpty() ) {
+            pendingSince = System.currentTimeMillis();
+        }
+        pendingFailures.add( failureToFailure( failure ) );
     }
 
     private void fireMessageEvent( final TestResultMessage testResultMessage ) {
-        testResultMessageEvent.fire( testResultMessage );
+        testResultMessageListener.onTestResultMessage( testResultMessage );
+    }
+
+    private static TestResultMessageListener asListener( final Event<TestResultMessage> testResultMessageEvent ) {
+        return new TestResultMessageListener() {
+            @Override
+            public void onTestResultMessage( final TestResultMessage message ) {
+                testResultMessageEvent.fire( message );
+            }
+        };
     }
 
-    private List<org.guvnor.common.services.shared.test.Failure> getFailures( final List<Failure> failures ) {
+    private static List<org.guvnor.common.services.shared.test.Failure> getFailures( final List<Failure> failures ) {
         ArrayList<org.guvnor.common.services.shared.test.Failure> result = new ArrayList<org.guvnor.common.services.shared.test.Failure>();
 
         for ( Failure failure : failures ) {
@@ -85,12 +249,22 @@ public class CustomJUnitRunNotifier
         return result;
     }
 
-    private org.guvnor.common.services.shared.test.Failure failureToFailure( final Failure failure ) {
+    private static org.guvnor.common.services.shared.test.Failure failureToFailure( final Failure failure ) {
         return new org.guvnor.common.services.shared.test.Failure( getScenarioName( failure ),
                                                                             failure.getMessage() );
     }
 
-    private String getScenarioName( final Failure failure ) {
+    private static String getScenarioName( final Failure failure ) {
         return failure.getDescription().getDisplayName().substring( 0, failure.getDescription().getDisplayName().indexOf( ".scenario" ) );
     }
+
+    /**
+     * Receives the messages reporting the results of tests
+     */
+    public interface TestResultMessageListener {
+
+        void onTestResultMessage( final TestResultMessage message );
+
+    }
+
 }
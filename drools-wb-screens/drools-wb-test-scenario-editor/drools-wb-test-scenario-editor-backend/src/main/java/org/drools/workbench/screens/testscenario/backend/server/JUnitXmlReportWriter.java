@@ -0,0 +1,160 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.testscenario.backend.server;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.drools.workbench.screens.testscenario.model.RuleProfile;
+import org.drools.workbench.screens.testscenario.model.ScenarioProfile;
+import org.drools.workbench.screens.testscenario.model.TestProfileMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Exports the profiles of scenario runs as JUnit XML reports, as understood by build servers. A report is written for
+ * each run to the directory named by REPORT_DIRECTORY_PROPERTY, if set. Each scenario is a test case, its wall time the
+ * test case's time; the rules on which most time was spent are listed in the test case's output.
+ */
+@ApplicationScoped
+public class JUnitXmlReportWriter {
+
+    public static final String REPORT_DIRECTORY_PROPERTY = "org.drools.workbench.testscenario.reportDirectory";
+
+    private static final Logger logger = LoggerFactory.getLogger( JUnitXmlReportWriter.class );
+
+    private static final String SUITE_NAME = "TestScenarios";
+
+    public void onTestProfile( @Observes final TestProfileMessage message ) {
+        final String directory = System.getProperty( REPORT_DIRECTORY_PROPERTY );
+        if ( directory == null ) {
+            return;
+        }
+        try {
+            //createTempFile adds a unique suffix, so reports written in the same millisecond do not overwrite each other
+            final File report = File.createTempFile( "TEST-" + SUITE_NAME + "-" + System.currentTimeMillis() + "-",
+                                                     ".xml",
+                                                     new File( directory ) );
+            final Writer writer = new OutputStreamWriter( new FileOutputStream( report ),
+                                                          "UTF-8" );
+            try {
+                write( message.getProfiles(),
+                       writer );
+            } finally {
+                writer.close();
+            }
+        } catch ( Exception e ) {
+            logger.error( "Unable to write test scenario report to " + directory,
+                          e );
+        }
+    }
+
+    /**
+     * Write the profiles as a JUnit XML test suite
+     * @param profiles
+     * @param writer
+     * @throws IOException
+     */
+    public static void write( final List<ScenarioProfile> profiles,
+                              final Writer writer ) throws IOException {
+        long time = 0;
+        int failures = 0;
+        for ( ScenarioProfile profile : profiles ) {
+            time = time + profile.getWallTime();
+            if ( !profile.wasSuccessful() ) {
+                failures++;
+            }
+        }
+
+        try {
+            final XMLStreamWriter xml = XMLOutputFactory.newInstance().createXMLStreamWriter( writer );
+            xml.writeStartDocument( "UTF-8",
+                                    "1.0" );
+            xml.writeStartElement( "testsuite" );
+            xml.writeAttribute( "name",
+                                SUITE_NAME );
+            xml.writeAttribute( "tests",
+                                String.valueOf( profiles.size() ) );
+            xml.writeAttribute( "failures",
+                                String.valueOf( failures ) );
+            xml.writeAttribute( "errors",
+                                "0" );
+            xml.writeAttribute( "time",
+                                toSeconds( time ) );
+
+            for ( ScenarioProfile profile : profiles ) {
+                xml.writeStartElement( "testcase" );
+                xml.writeAttribute( "classname",
+                                    SUITE_NAME );
+                xml.writeAttribute( "name",
+                                    profile.getScenarioName() );
+                xml.writeAttribute( "time",
+                                    toSeconds( profile.getWallTime() ) );
+                if ( !profile.wasSuccessful() ) {
+                    xml.writeStartElement( "failure" );
+                    xml.writeAttribute( "message",
+                                        profile.getFailureMessage() );
+                    xml.writeEndElement();
+                }
+                xml.writeStartElement( "system-out" );
+                xml.writeCharacters( makeOutput( profile ) );
+                xml.writeEndElement();
+                xml.writeEndElement();
+            }
+
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.flush();
+
+        } catch ( XMLStreamException e ) {
+            throw new IOException( e.getMessage() );
+        }
+    }
+
+    private static String makeOutput( final ScenarioProfile profile ) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append( "Fired rules: " ).append( profile.getFiredRules() ).append( "\n" );
+        sb.append( "Inserted facts: " ).append( profile.getInsertedFacts() ).append( "\n" );
+        for ( RuleProfile rule : profile.getRules() ) {
+            sb.append( rule.getRuleName() )
+                    .append( ": " )
+                    .append( rule.getFirings() )
+                    .append( " firings, " )
+                    .append( String.format( Locale.ENGLISH,
+                                            "%.3f",
+                                            rule.getFiringTime() / 1000000.0 ) )
+                    .append( " ms\n" );
+        }
+        return sb.toString();
+    }
+
+    private static String toSeconds( final long milliseconds ) {
+        return String.format( Locale.ENGLISH,
+                              "%.3f",
+                              milliseconds / 1000.0 );
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.testscenario.backend.server;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+
+import org.drools.workbench.screens.common.backend.server.ResourceCache;
+import org.guvnor.common.services.project.builder.events.InvalidateDMOProjectCacheEvent;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.KieSession;
+import org.kie.workbench.common.services.backend.builder.LRUBuilderCache;
+import org.kie.workbench.common.services.backend.session.SessionService;
+import org.kie.workbench.common.services.shared.project.KieProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.uberfire.backend.vfs.Path;
+
+/**
+ * Cache of the KieContainers scenarios are run against. The Project's Builder creates a new KieContainer, and hence
+ * builds new KieBases, each time one is requested; the KieContainer is instead kept and its default session created
+ * for each run. Sessions are therefore configured from the Project's kmodule.xml as they would otherwise be, including
+ * listeners, work item handlers, channels and calendars. The entry for a Project is invalidated when any resource
+ * within it changes. The cache holds as many Projects as the Builder cache, by default.
+ */
+@ApplicationScoped
+public class ProjectKieContainerCache extends ResourceCache<KieContainer> {
+
+    public static final String MAX_ENTRIES_PROPERTY = "org.drools.workbench.testscenario.kieContainerCache.maxEntries";
+
+    private static final int DEFAULT_MAX_ENTRIES = 20;
+
+    private static final Logger logger = LoggerFactory.getLogger( ProjectKieContainerCache.class );
+
+    @Inject
+    private LRUBuilderCache builderCache;
+
+    @Inject
+    private SessionService sessionService;
+
+    public ProjectKieContainerCache() {
+        super( MAX_ENTRIES_PROPERTY,
+               DEFAULT_MAX_ENTRIES );
+    }
+
+    /**
+     * Create a new session for the Project
+     * @param project
+     * @return The session, or null if the Project could not be built
+     */
+    public KieSession newKieSession( final KieProject project ) {
+        final String key = project.getRootPath().toURI();
+        final KieContainer cached = get( key );
+        if ( cached != null ) {
+            return cached.newKieSession();
+        }
+
+        final long generation = getGeneration();
+        final KieContainer kieContainer = buildKieContainer( project );
+        if ( kieContainer == null ) {
+            //The Project has build errors
+            return null;
+        }
+
+        final KieSession ksession;
+        try {
+            ksession = kieContainer.newKieSession();
+        } catch ( RuntimeException e ) {
+            //The Project has no default session; SessionService decides how to handle it
+            logger.debug( "Unable to create the default session of " + key + ". Sessions for it are not cached.",
+                          e );
+            return sessionService.newKieSession( project );
+        }
+
+        put( key,
+             kieContainer,
+             generation );
+        return ksession;
+    }
+
+    /**
+     * Build a new KieContainer for the Project
+     * @param project
+     * @return The KieContainer, or null if the Project has build errors
+     */
+    protected KieContainer buildKieContainer( final KieProject project ) {
+        return builderCache.assertBuilder( project ).getKieContainer();
+    }
+
+    @Override
+    protected boolean accept( final Path path ) {
+        //Any resource can affect the KieBases, e.g. a Java class or kmodule.xml
+        return true;
+    }
+
+    public void onInvalidateProject( @Observes final InvalidateDMOProjectCacheEvent event ) {
+        invalidate();
+    }
+
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.testscenario.backend.server;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.drools.workbench.screens.testscenario.model.RuleProfile;
+import org.drools.workbench.screens.testscenario.model.ScenarioProfile;
+import org.junit.runner.Description;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+import org.kie.api.definition.rule.Rule;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.AgendaEventListener;
+import org.kie.api.event.rule.BeforeMatchFiredEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.event.rule.DefaultRuleRuntimeEventListener;
+import org.kie.api.event.rule.ObjectInsertedEvent;
+import org.kie.api.event.rule.RuleRuntimeEventListener;
+import org.kie.api.runtime.KieSession;
+
+/**
+ * Profiles the scenarios run on a session. Rule firings and fact insertions are recorded by listeners attached to the
+ * session, and are attributed to the scenario being run by the notifier to which the profiler is added.
+ */
+public class ScenarioProfiler
+        extends RunListener {
+
+    private final KieSession ksession;
+    private final int topRules;
+    private final List<ScenarioProfile> profiles = new ArrayList<ScenarioProfile>();
+
+    //State of the scenario being run
+    private long started;
+    private long firingStarted;
+    private int firedRules;
+    private int insertedFacts;
+    private String failureMessage;
+    private final Map<String, RuleCounter> rules = new HashMap<String, RuleCounter>();
+
+    private final AgendaEventListener agendaEventListener = new DefaultAgendaEventListener() {
+
+        @Override
+        public void beforeMatchFired( final BeforeMatchFiredEvent event ) {
+            firingStarted = System.nanoTime();
+        }
+
+        @Override
+        public void afterMatchFired( final AfterMatchFiredEvent event ) {
+            final long firingTime = System.nanoTime() - firingStarted;
+            final Rule rule = event.getMatch().getRule();
+            final String ruleName = rule.getPackageName() + "." + rule.getName();
+            RuleCounter counter = rules.get( ruleName );
+            if ( counter == null ) {
+                counter = new RuleCounter();
+                rules.put( ruleName,
+                           counter );
+            }
+            counter.firings++;
+            counter.firingTime = counter.firingTime + firingTime;
+            firedRules++;
+        }
+    };
+
+    private final RuleRuntimeEventListener ruleRuntimeEventListener = new DefaultRuleRuntimeEventListener() {
+
+        @Override
+        public void objectInserted( final ObjectInsertedEvent event ) {
+            insertedFacts++;
+        }
+    };
+
+    /**
+     * @param ksession Session on which the scenarios are run
+     * @param topRules Number of rules, on which most time was spent, reported for each scenario
+     */
+    public ScenarioProfiler( final KieSession ksession,
+                             final int topRules ) {
+        this.ksession = ksession;
+        this.topRules = topRules;
+    }
+
+    public void attach() {
+        ksession.addEventListener( agendaEventListener );
+        ksession.addEventListener( ruleRuntimeEventListener );
+    }
+
+    public void detach() {
+        ksession.removeEventListener( agendaEventListener );
+        ksession.removeEventListener( ruleRuntimeEventListener );
+    }
+
+    /**
+     * Profiles of the scenarios finished so far, in the order they finished
+     * @return
+     */
+    public List<ScenarioProfile> getProfiles() {
+        return profiles;
+    }
+
+    @Override
+    public void testStarted( final Description description ) throws Exception {
+        started = System.nanoTime();
+        firedRules = 0;
+        insertedFacts = 0;
+        failureMessage = null;
+        rules.clear();
+    }
+
+    @Override
+    public void testFailure( final Failure failure ) throws Exception {
+        if ( failureMessage == null ) {
+            failureMessage = String.valueOf( failure.getMessage() );
+        }
+    }
+
+    @Override
+    public void testAssumptionFailure( final Failure failure ) {
+        if ( failureMessage == null ) {
+            failureMessage = String.valueOf( failure.getMessage() );
+        }
+    }
+
+    @Override
+    public void testFinished( final Description description ) throws Exception {
+        final long wallTime = ( System.nanoTime() - started ) / 1000000;
+        profiles.add( new ScenarioProfile( getScenarioName( description ),
+                                           failureMessage,
+                                           wallTime,
+                                           firedRules,
+                                           insertedFacts,
+                                           makeRuleProfiles() ) );
+    }
+
+    private List<RuleProfile> makeRuleProfiles() {
+        final List<RuleProfile> ruleProfiles = new ArrayList<RuleProfile>();
+        for ( Map.Entry<String, RuleCounter> e : rules.entrySet() ) {
+            ruleProfiles.add( new RuleProfile( e.getKey(),
+                                               e.getValue().firings,
+                                               e.getValue().firingTime ) );
+        }
+        Collections.sort( ruleProfiles,
+                          new Comparator<RuleProfile>() {
+                              @Override
+                              public int compare( final RuleProfile o1,
+                                                  final RuleProfile o2 ) {
+                                  return o1.getFiringTime() > o2.getFiringTime() ? -1 : ( o1.getFiringTime() < o2.getFiringTime() ? 1 : 0 );
+                              }
+                          } );
+        //Copied so that the list is portable
+        return new ArrayList<RuleProfile>( ruleProfiles.subList( 0,
+                                                                 Math.min( topRules,
+                                                                           ruleProfiles.size() ) ) );
+    }
+
+    private String getScenarioName( final Description description ) {
+        final String displayName = description.getDisplayName();
+        final int index = displayName.indexOf( ".scenario" );
+        return index < 0 ? displayName : displayName.substring( 0,
+                                                                index );
+    }
+
+    private static class RuleCounter {
+
+        private int firings;
+        private long firingTime;
+
+    }
+
+}
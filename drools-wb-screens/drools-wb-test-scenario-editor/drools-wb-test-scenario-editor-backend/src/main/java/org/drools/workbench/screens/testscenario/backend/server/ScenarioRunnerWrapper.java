@@ -1,26 +1,64 @@
 package org.drools.workbench.screens.testscenario.backend.server;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import javax.enterprise.event.Event;
 
 import org.drools.workbench.models.testscenarios.backend.ScenarioRunner4JUnit;
 import org.drools.workbench.models.testscenarios.shared.Scenario;
+import org.drools.workbench.screens.testscenario.model.ScenarioProfile;
+import org.drools.workbench.screens.testscenario.model.TestProfileMessage;
 import org.guvnor.common.services.shared.exceptions.GenericPortableException;
 import org.guvnor.common.services.shared.test.TestResultMessage;
+import org.junit.runner.Result;
 import org.junit.runners.model.InitializationError;
 import org.kie.api.runtime.KieSession;
 
 public class ScenarioRunnerWrapper {
 
+    //Batches read ahead per worker, bounding the scenarios held in memory
+    private static final int BATCHES_PER_WORKER = 2;
+
     private final Event<TestResultMessage> testResultMessageEvent;
     private final int maxRuleFirings;
+    private final Event<TestProfileMessage> testProfileMessageEvent;
+    private final int topRules;
 
     public ScenarioRunnerWrapper(
             Event<TestResultMessage> testResultMessageEvent,
             int maxRuleFirings) {
+        this(testResultMessageEvent,
+             maxRuleFirings,
+             null,
+             0);
+    }
+
+    /**
+     * @param testResultMessageEvent
+     * @param maxRuleFirings
+     * @param testProfileMessageEvent Raised with the profiles of the scenarios once run, or null if not profiling
+     * @param topRules Number of rules, on which most time was spent, reported for each scenario
+     */
+    public ScenarioRunnerWrapper(
+            Event<TestResultMessage> testResultMessageEvent,
+            int maxRuleFirings,
+            Event<TestProfileMessage> testProfileMessageEvent,
+            int topRules) {
         this.testResultMessageEvent = testResultMessageEvent;
         this.maxRuleFirings = maxRuleFirings;
+        this.testProfileMessageEvent = testProfileMessageEvent;
+        this.topRules = topRules;
     }
 
     public void run(Scenario scenario, KieSession ksession) {
@@ -30,7 +68,12 @@ public class ScenarioRunnerWrapper {
                     ksession,
                     maxRuleFirings);
 
-            scenarioRunner.run(new CustomJUnitRunNotifier(testResultMessageEvent));
+            final List<ScenarioProfile> profiles = new ArrayList<ScenarioProfile>();
+            run(scenarioRunner,
+                new CustomJUnitRunNotifier(testResultMessageEvent),
+                ksession,
+                profiles);
+            fireProfiles(profiles);
 
         } catch (InitializationError initializationError) {
             throw new GenericPortableException(initializationError.getMessage());
@@ -44,10 +87,272 @@ public class ScenarioRunnerWrapper {
                     ksession,
                     maxRuleFirings);
 
-            scenarioRunner.run(new CustomJUnitRunNotifier(testResultMessageEvent));
+            final List<ScenarioProfile> profiles = new ArrayList<ScenarioProfile>();
+            run(scenarioRunner,
+                new CustomJUnitRunNotifier(testResultMessageEvent),
+                ksession,
+                profiles);
+            fireProfiles(profiles);
+
+        } catch (InitializationError initializationError) {
+            throw new GenericPortableException(initializationError.getMessage());
+        }
+    }
+
+    /**
+     * Run the scenarios in batches on one session. Scenarios are read from the Iterator a batch at a time, so only one
+     * batch is held in memory. The results of each scenario are reported as they complete and the results of the
+     * batches are reported together once all have completed.
+     * @param scenarios
+     * @param batchSize Number of scenarios run by each runner
+     * @param ksession
+     */
+    public void run(Iterator<Scenario> scenarios,
+                    int batchSize,
+                    KieSession ksession) {
+        final List<Result> results = new ArrayList<Result>();
+        final List<ScenarioProfile> profiles = new ArrayList<ScenarioProfile>();
+        final CustomJUnitRunNotifier.TestResultMessageListener listener = new CustomJUnitRunNotifier.TestResultMessageListener() {
+            @Override
+            public void onTestResultMessage(TestResultMessage message) {
+                testResultMessageEvent.fire(message);
+            }
+        };
+        while (scenarios.hasNext()) {
+            results.add(runBatch(nextBatch(scenarios,
+                                           batchSize),
+                                 ksession,
+                                 listener,
+                                 profiles));
+        }
+        testResultMessageEvent.fire(CustomJUnitRunNotifier.makeTestRunResult(results));
+        fireProfiles(profiles);
+    }
+
+    /**
+     * Run the scenarios concurrently. Scenarios are read from the Iterator a batch at a time and each batch is run by a
+     * runner of its own on a new session; reading stops while every worker has batches waiting, so memory is bounded.
+     * The results of each scenario are reported as they complete and the results of the batches are reported together
+     * once all have completed. Events are fired by the calling thread. The first session is created by the calling
+     * thread, so that a KieBase not yet cached is built once rather than by every worker.
+     * @param scenarios
+     * @param batchSize Number of scenarios run by each runner
+     * @param sessionFactory Creates the session for each batch
+     * @param executor Executor running the batches
+     * @param workers Number of threads of the executor
+     */
+    public void run(Iterator<Scenario> scenarios,
+                    int batchSize,
+                    SessionFactory sessionFactory,
+                    ExecutorService executor,
+                    int workers) {
+        final BlockingQueue<TestResultMessage> messages = new LinkedBlockingQueue<TestResultMessage>();
+        final LinkedList<Future<Result>> pending = new LinkedList<Future<Result>>();
+        final List<Result> results = new ArrayList<Result>();
+        final List<ScenarioProfile> profiles = Collections.synchronizedList(new ArrayList<ScenarioProfile>());
+
+        KieSession firstSession = (scenarios.hasNext() ? sessionFactory.newKieSession() : null);
+        try {
+            while (scenarios.hasNext()) {
+                while (pending.size() >= workers * BATCHES_PER_WORKER) {
+                    results.add(await(pending.removeFirst(),
+                                      messages));
+                }
+                pending.add(executor.submit(new BatchRunner(nextBatch(scenarios,
+                                                                      batchSize),
+                                                            firstSession,
+                                                            sessionFactory,
+                                                            messages,
+                                                            profiles)));
+                firstSession = null;
+                fireMessages(messages,
+                             null);
+            }
+            while (!pending.isEmpty()) {
+                results.add(await(pending.removeFirst(),
+                                  messages));
+            }
+            testResultMessageEvent.fire(CustomJUnitRunNotifier.makeTestRunResult(results));
+            fireProfiles(profiles);
+
+        } catch (InterruptedException e) {
+            cancel(pending);
+            Thread.currentThread().interrupt();
+            throw new GenericPortableException(e.getMessage());
+
+        } catch (ExecutionException e) {
+            cancel(pending);
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GenericPortableException(e.getCause().getMessage());
+
+        } catch (RuntimeException e) {
+            //Reading a scenario failed
+            cancel(pending);
+            throw e;
+
+        } finally {
+            if (firstSession != null) {
+                firstSession.dispose();
+            }
+        }
+    }
+
+    private List<Scenario> nextBatch(Iterator<Scenario> scenarios,
+                                     int batchSize) {
+        final List<Scenario> batch = new ArrayList<Scenario>();
+        while (scenarios.hasNext() && batch.size() < Math.max(1,
+                                                              batchSize)) {
+            batch.add(scenarios.next());
+        }
+        return batch;
+    }
+
+    private Result runBatch(List<Scenario> scenarios,
+                            KieSession ksession,
+                            CustomJUnitRunNotifier.TestResultMessageListener listener,
+                            List<ScenarioProfile> profiles) {
+        try {
+            final ScenarioRunner4JUnit scenarioRunner = new ScenarioRunner4JUnit(
+                    scenarios,
+                    ksession,
+                    maxRuleFirings);
+
+            //The batch's results are reported with those of the other batches
+            final Result result = new Result();
+            final CustomJUnitRunNotifier notifier = new CustomJUnitRunNotifier(listener,
+                                                                               false);
+            notifier.addListener(result.createListener());
+            run(scenarioRunner,
+                notifier,
+                ksession,
+                profiles);
+            return result;
 
         } catch (InitializationError initializationError) {
             throw new GenericPortableException(initializationError.getMessage());
         }
     }
+
+    private void run(ScenarioRunner4JUnit scenarioRunner,
+                     CustomJUnitRunNotifier notifier,
+                     KieSession ksession,
+                     List<ScenarioProfile> profiles) {
+        //Results held by the notifier are reported once due, even while a long scenario runs
+        notifier.startFlushTimer();
+        try {
+            if (testProfileMessageEvent == null) {
+                scenarioRunner.run(notifier);
+                notifier.flush();
+                return;
+            }
+
+            final ScenarioProfiler profiler = new ScenarioProfiler(ksession,
+                                                                   topRules);
+            notifier.addListener(profiler);
+            profiler.attach();
+            try {
+                scenarioRunner.run(notifier);
+                notifier.flush();
+            } finally {
+                //Sessions may be reused, e.g. when running batches sequentially
+                profiler.detach();
+                profiles.addAll(profiler.getProfiles());
+            }
+        } finally {
+            notifier.stopFlushTimer();
+        }
+    }
+
+    private void fireProfiles(List<ScenarioProfile> profiles) {
+        if (testProfileMessageEvent != null) {
+            testProfileMessageEvent.fire(new TestProfileMessage(new ArrayList<ScenarioProfile>(profiles)));
+        }
+    }
+
+    private Result await(Future<Result> batch,
+                         BlockingQueue<TestResultMessage> messages) throws InterruptedException, ExecutionException {
+        while (!batch.isDone()) {
+            fireMessages(messages,
+                         messages.poll(100,
+                                       TimeUnit.MILLISECONDS));
+        }
+        fireMessages(messages,
+                     null);
+        return batch.get();
+    }
+
+    private void fireMessages(BlockingQueue<TestResultMessage> messages,
+                              TestResultMessage first) {
+        if (first != null) {
+            testResultMessageEvent.fire(first);
+        }
+        TestResultMessage message;
+        while ((message = messages.poll()) != null) {
+            testResultMessageEvent.fire(message);
+        }
+    }
+
+    private void cancel(List<Future<Result>> batches) {
+        for (Future<Result> batch : batches) {
+            batch.cancel(true);
+        }
+    }
+
+    /**
+     * Creates the sessions scenarios are run on
+     */
+    public interface SessionFactory {
+
+        KieSession newKieSession();
+
+    }
+
+    private class BatchRunner implements Callable<Result> {
+
+        private final List<Scenario> scenarios;
+        private final KieSession ksession;
+        private final SessionFactory sessionFactory;
+        private final BlockingQueue<TestResultMessage> messages;
+        private final List<ScenarioProfile> profiles;
+
+        /**
+         * @param scenarios
+         * @param ksession Session to run the batch on, or null to create one
+         * @param sessionFactory
+         * @param messages
+         * @param profiles
+         */
+        private BatchRunner(List<Scenario> scenarios,
+                            KieSession ksession,
+                            SessionFactory sessionFactory,
+                            BlockingQueue<TestResultMessage> messages,
+                            List<ScenarioProfile> profiles) {
+            this.scenarios = scenarios;
+            this.ksession = ksession;
+            this.sessionFactory = sessionFactory;
+            this.messages = messages;
+            this.profiles = profiles;
+        }
+
+        @Override
+        public Result call() throws Exception {
+            final KieSession ksession = (this.ksession != null ? this.ksession : sessionFactory.newKieSession());
+            try {
+                //Messages are queued to be fired by the thread running the scenarios
+                return runBatch(scenarios,
+                                ksession,
+                                new CustomJUnitRunNotifier.TestResultMessageListener() {
+                                    @Override
+                                    public void onTestResultMessage(TestResultMessage message) {
+                                        messages.add(message);
+                                    }
+                                },
+                                profiles);
+            } finally {
+                ksession.dispose();
+            }
+        }
+    }
 }
@@ -17,9 +17,17 @@
 package org.drools.workbench.screens.testscenario.backend.server;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Event;
 import javax.inject.Inject;
@@ -28,9 +36,12 @@ import javax.inject.Named;
 import org.drools.workbench.models.datamodel.oracle.PackageDataModelOracle;
 import org.drools.workbench.models.testscenarios.backend.util.ScenarioXMLPersistence;
 import org.drools.workbench.models.testscenarios.shared.Scenario;
+import org.drools.workbench.screens.common.backend.server.PackageDataModelPayloadCache;
+import org.drools.workbench.screens.testscenario.model.TestProfileMessage;
 import org.drools.workbench.screens.testscenario.model.TestScenarioModelContent;
 import org.drools.workbench.screens.testscenario.service.ScenarioTestEditorService;
 import org.guvnor.common.services.backend.exceptions.ExceptionUtilities;
+import org.guvnor.common.services.backend.file.FileDiscoveryService;
 import org.guvnor.common.services.backend.file.FileExtensionFilter;
 import org.guvnor.common.services.backend.file.LinkedDotFileFilter;
 import org.guvnor.common.services.backend.file.LinkedFilter;
@@ -47,8 +58,6 @@ import org.guvnor.structure.server.config.ConfigType;
 import org.guvnor.structure.server.config.ConfigurationService;
 import org.jboss.errai.bus.server.annotations.Service;
 import org.kie.api.runtime.KieSession;
-import org.kie.workbench.common.services.backend.session.SessionService;
-import org.kie.workbench.common.services.datamodel.backend.server.DataModelOracleUtilities;
 import org.kie.workbench.common.services.datamodel.backend.server.service.DataModelService;
 import org.kie.workbench.common.services.datamodel.model.PackageDataModelOracleBaselinePayload;
 import org.kie.workbench.common.services.shared.project.KieProject;
@@ -69,6 +78,14 @@ import org.uberfire.workbench.events.ResourceOpenedEvent;
 public class ScenarioTestEditorServiceImpl
         implements ScenarioTestEditorService {
 
+    public static final String WORKERS_PROPERTY = "org.drools.workbench.testscenario.workers";
+    public static final String BATCH_SIZE_PROPERTY = "org.drools.workbench.testscenario.batchSize";
+    public static final String PROFILE_PROPERTY = "org.drools.workbench.testscenario.profile";
+    public static final String PROFILE_TOP_RULES_PROPERTY = "org.drools.workbench.testscenario.profile.topRules";
+
+    private static final int DEFAULT_BATCH_SIZE = 50;
+    private static final int DEFAULT_PROFILE_TOP_RULES = 10;
+
     @Inject
     @Named("ioStrategy")
     private IOService ioService;
@@ -77,7 +94,7 @@ public class ScenarioTestEditorServiceImpl
     private MetadataService metadataService;
 
     @Inject
-    private SessionService sessionService;
+    private ProjectKieContainerCache kieContainerCache;
 
     @Inject
     private KieProjectService projectService;
@@ -97,9 +114,15 @@ public class ScenarioTestEditorServiceImpl
     @Inject
     private Event<TestResultMessage> testResultMessageEvent;
 
+    @Inject
+    private Event<TestProfileMessage> testProfileMessageEvent;
+
     @Inject
     private DataModelService dataModelService;
 
+    @Inject
+    private PackageDataModelPayloadCache dataModelPayloadCache;
+
     @Inject
     private Identity identity;
 
@@ -109,6 +132,40 @@ public class ScenarioTestEditorServiceImpl
     @Inject
     private ConfigurationService configurationService;
 
+    @Inject
+    protected FileDiscoveryService fileDiscoveryService;
+
+    //Scenarios are run sequentially on one session unless more than one worker is configured
+    private int workers;
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void setup() {
+        workers = Integer.getInteger( WORKERS_PROPERTY,
+                                      1 );
+        if ( workers > 1 ) {
+            executor = Executors.newFixedThreadPool( workers,
+                                                     new ThreadFactory() {
+                                                         private final AtomicInteger count = new AtomicInteger();
+
+                                                         @Override
+                                                         public Thread newThread( final Runnable r ) {
+                                                             final Thread t = new Thread( r,
+                                                                                          "test-scenario-" + count.incrementAndGet() );
+                                                             t.setDaemon( true );
+                                                             return t;
+                                                         }
+                                                     } );
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if ( executor != null ) {
+            executor.shutdownNow();
+        }
+    }
+
     @Override
     public Path create( final Path context,
                         final String fileName,
@@ -222,18 +279,17 @@ public class ScenarioTestEditorServiceImpl
             final Scenario scenario = load( path );
             final String packageName = projectService.resolvePackage( path ).getPackageName();
             final PackageDataModelOracle oracle = dataModelService.getDataModel( path );
-            final PackageDataModelOracleBaselinePayload dataModel = new PackageDataModelOracleBaselinePayload();
 
             //Get FQCN's used by model
-            final TestScenarioModelVisitor visitor = new TestScenarioModelVisitor( dataModel, scenario );
+            final TestScenarioModelVisitor visitor = new TestScenarioModelVisitor( new PackageDataModelOracleBaselinePayload(),
+                                                                                   scenario );
             final Set<String> consumedFQCNs = visitor.visit();
 
             //Get FQCN's used by Globals
             consumedFQCNs.addAll( oracle.getPackageGlobals().values() );
 
-            DataModelOracleUtilities.populateDataModel( oracle,
-                                                        dataModel,
-                                                        consumedFQCNs );
+            final PackageDataModelOracleBaselinePayload dataModel = dataModelPayloadCache.getDataModel( oracle,
+                                                                                                        consumedFQCNs );
 
             //Signal opening to interested parties
             resourceOpenedEvent.fire( new ResourceOpenedEvent( path,
@@ -254,9 +310,8 @@ public class ScenarioTestEditorServiceImpl
         try {
 
             final KieProject project = projectService.resolveProject( path );
-            final KieSession session = sessionService.newKieSession( project );
-            final ScenarioRunnerWrapper runner = new ScenarioRunnerWrapper( testResultMessageEvent,
-                                                                            getMaxRuleFirings() );
+            final KieSession session = kieContainerCache.newKieSession( project );
+            final ScenarioRunnerWrapper runner = makeRunner();
 
             runner.run( scenario,
                         session );
@@ -266,6 +321,19 @@ public class ScenarioTestEditorServiceImpl
         }
     }
 
+    //Scenarios are profiled, at some cost, only if enabled
+    private ScenarioRunnerWrapper makeRunner() {
+        if ( !Boolean.getBoolean( PROFILE_PROPERTY ) ) {
+            return new ScenarioRunnerWrapper( testResultMessageEvent,
+                                              getMaxRuleFirings() );
+        }
+        return new ScenarioRunnerWrapper( testResultMessageEvent,
+                                          getMaxRuleFirings(),
+                                          testProfileMessageEvent,
+                                          Integer.getInteger( PROFILE_TOP_RULES_PROPERTY,
+                                                              DEFAULT_PROFILE_TOP_RULES ) );
+    }
+
     private int getMaxRuleFirings() {
         for ( ConfigGroup editorConfigGroup : configurationService.getConfiguration( ConfigType.EDITOR ) ) {
             if ( ScenarioTestEditorService.TEST_SCENARIO_EDITOR_SETTINGS.equals( editorConfigGroup.getName() ) ) {
@@ -291,23 +359,59 @@ public class ScenarioTestEditorServiceImpl
             Event<TestResultMessage> customTestResultEvent) {
         try {
             final KieProject project = projectService.resolveProject( testResourcePath );
-            List<Path> scenarioPaths = loadScenarioPaths( testResourcePath );
-            List<Scenario> scenarios = new ArrayList<Scenario>();
-            for ( Path path : scenarioPaths ) {
-                Scenario s = load( path );
-                scenarios.add( s );
-            }
 
-            new ScenarioRunnerWrapper( testResultMessageEvent, getMaxRuleFirings() ).run(
-                    scenarios,
-                    sessionService.newKieSession( project )
-                                                                                        );
+            //Scenarios are loaded as they are run, so only those being run are held in memory
+            final List<Path> scenarioPaths = loadScenarioPaths( project.getRootPath() );
+            final Iterator<Scenario> scenarios = new Iterator<Scenario>() {
+                private final Iterator<Path> paths = scenarioPaths.iterator();
+
+                @Override
+                public boolean hasNext() {
+                    return paths.hasNext();
+                }
+
+                @Override
+                public Scenario next() {
+                    return load( paths.next() );
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+
+            final int batchSize = Integer.getInteger( BATCH_SIZE_PROPERTY,
+                                                      DEFAULT_BATCH_SIZE );
+            final ScenarioRunnerWrapper runner = makeRunner();
+            if ( executor == null ) {
+                runner.run( scenarios,
+                            batchSize,
+                            kieContainerCache.newKieSession( project ) );
+            } else {
+                runner.run( scenarios,
+                            batchSize,
+                            new ScenarioRunnerWrapper.SessionFactory() {
+                                @Override
+                                public KieSession newKieSession() {
+                                    //Sessions share the Project's cached KieContainer and its KieBases
+                                    return kieContainerCache.newKieSession( project );
+                                }
+                            },
+                            executor,
+                            workers );
+            }
 
         } catch ( Exception e ) {
             throw ExceptionUtilities.handleException( e );
         }
     }
 
+    /**
+     * Find the scenarios held in a folder and its sub-folders
+     * @param path A folder, or a file in which case its folder is searched
+     * @return
+     */
     public List<Path> loadScenarioPaths( final Path path ) {
         try {
             // Check Path exists
@@ -322,26 +426,24 @@ public class ScenarioTestEditorServiceImpl
                 pPath = pPath.getParent();
             }
 
-            LinkedFilter filter = new LinkedDotFileFilter();
-            LinkedFilter metaInfFolderFilter = new LinkedMetaInfFolderFilter();
+            final LinkedFilter filter = new LinkedDotFileFilter();
+            final LinkedFilter metaInfFolderFilter = new LinkedMetaInfFolderFilter();
             filter.setNextFilter( metaInfFolderFilter );
-            FileExtensionFilter fileExtensionFilter = new FileExtensionFilter( ".scenario" );
-
-            // Get list of immediate children
-            final DirectoryStream<org.uberfire.java.nio.file.Path> directoryStream = ioService.newDirectoryStream( pPath );
-            for ( final org.uberfire.java.nio.file.Path p : directoryStream ) {
-                if ( filter.accept( p ) && fileExtensionFilter.accept( p ) ) {
-                    if ( Files.isRegularFile( p ) ) {
-                        items.add( Paths.convert( p ) );
-                    } else if ( Files.isDirectory( p ) ) {
-                        items.add( Paths.convert( p ) );
-                    }
-                }
+            final FileExtensionFilter fileExtensionFilter = new FileExtensionFilter( ".scenario" );
+
+            // Get list of all descendants
+            final Collection<org.uberfire.java.nio.file.Path> scenarioPaths = fileDiscoveryService.discoverFiles( pPath,
+                                                                                                                 new DirectoryStream.Filter<org.uberfire.java.nio.file.Path>() {
+                                                                                                                     @Override
+                                                                                                                     public boolean accept( final org.uberfire.java.nio.file.Path p ) {
+                                                                                                                         return filter.accept( p ) && fileExtensionFilter.accept( p );
+                                                                                                                     }
+                                                                                                                 },
+                                                                                                                 true );
+            for ( final org.uberfire.java.nio.file.Path p : scenarioPaths ) {
+                items.add( Paths.convert( p ) );
             }
 
-            // Add ability to move up one level in the hierarchy
-            //items.add(new ParentPackageItem(Paths.convert(pPath.getParent()), ".."));
-
             return items;
 
         } catch ( Exception e ) {
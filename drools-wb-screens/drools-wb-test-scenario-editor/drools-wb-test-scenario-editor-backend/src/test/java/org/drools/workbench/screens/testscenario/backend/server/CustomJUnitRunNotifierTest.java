@@ -0,0 +1,250 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.testscenario.backend.server;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.enterprise.event.Event;
+import javax.enterprise.util.TypeLiteral;
+
+import org.guvnor.common.services.shared.test.TestResultMessage;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+
+import static org.junit.Assert.*;
+
+public class CustomJUnitRunNotifierTest {
+
+    @Test
+    public void testMakeTestRunResult() throws Exception {
+        final Result result1 = makeResult( "scenario1" );
+        final Result result2 = makeResult( "scenario2",
+                                           "scenario3" );
+
+        final TestResultMessage message = CustomJUnitRunNotifier.makeTestRunResult( Arrays.asList( result1,
+                                                                                                   result2 ) );
+        assertFalse( message.wasSuccessful() );
+        assertEquals( 3,
+                      message.getRunCount() );
+        assertEquals( 1,
+                      message.getFailureCount() );
+        assertEquals( 1,
+                      message.getFailures().size() );
+    }
+
+    @Test
+    public void testMakeTestRunResultSuccessful() throws Exception {
+        final TestResultMessage message = CustomJUnitRunNotifier.makeTestRunResult( Arrays.asList( makeResult( "scenario1" ),
+                                                                                                   makeResult( "scenario2" ) ) );
+        assertTrue( message.wasSuccessful() );
+        assertEquals( 2,
+                      message.getRunCount() );
+        assertEquals( 0,
+                      message.getFailureCount() );
+    }
+
+    @Test
+    public void testResultsAreBatched() throws Exception {
+        final RecordingEvent event = new RecordingEvent();
+        final CustomJUnitRunNotifier notifier = new CustomJUnitRunNotifier( event,
+                                                                            false,
+                                                                            2,
+                                                                            Long.MAX_VALUE );
+        runTest( notifier,
+                 "scenario1",
+                 false );
+        assertEquals( 0,
+                      event.messages.size() );
+
+        runTest( notifier,
+                 "scenario2",
+                 true );
+        assertEquals( 1,
+                      event.messages.size() );
+        assertFalse( event.messages.get( 0 ).wasSuccessful() );
+        assertEquals( 2,
+                      event.messages.get( 0 ).getRunCount() );
+        assertEquals( 1,
+                      event.messages.get( 0 ).getFailureCount() );
+        assertEquals( "scenario2",
+                      event.messages.get( 0 ).getFailures().get( 0 ).getDisplayName() );
+    }
+
+    @Test
+    public void testResultsAreFlushedWhenRunFinishes() throws Exception {
+        final RecordingEvent event = new RecordingEvent();
+        final CustomJUnitRunNotifier notifier = new CustomJUnitRunNotifier( event,
+                                                                            true,
+                                                                            100,
+                                                                            Long.MAX_VALUE );
+        final Result result = new Result();
+        notifier.addListener( result.createListener() );
+        runTest( notifier,
+                 "scenario1",
+                 false );
+        assertEquals( 0,
+                      event.messages.size() );
+
+        notifier.fireTestRunFinished( result );
+        assertEquals( 2,
+                      event.messages.size() );
+        assertTrue( event.messages.get( 0 ).wasSuccessful() );
+        assertEquals( 1,
+                      event.messages.get( 0 ).getRunCount() );
+        assertEquals( 0,
+                      event.messages.get( 0 ).getFailureCount() );
+        assertEquals( 1,
+                      event.messages.get( 1 ).getRunCount() );
+    }
+
+    @Test
+    public void testFlush() throws Exception {
+        final RecordingEvent event = new RecordingEvent();
+        final CustomJUnitRunNotifier notifier = new CustomJUnitRunNotifier( event,
+                                                                            false,
+                                                                            100,
+                                                                            Long.MAX_VALUE );
+        notifier.flush();
+        assertEquals( 0,
+                      event.messages.size() );
+
+        runTest( notifier,
+                 "scenario1",
+                 false );
+        notifier.flush();
+        notifier.flush();
+        assertEquals( 1,
+                      event.messages.size() );
+    }
+
+    @Test
+    public void testListener() throws Exception {
+        final List<TestResultMessage> messages = new ArrayList<TestResultMessage>();
+        final CustomJUnitRunNotifier notifier = new CustomJUnitRunNotifier( new CustomJUnitRunNotifier.TestResultMessageListener() {
+                                                                                @Override
+                                                                                public void onTestResultMessage( final TestResultMessage message ) {
+                                                                                    messages.add( message );
+                                                                                }
+                                                                            },
+                                                                            false,
+                                                                            1,
+                                                                            Long.MAX_VALUE );
+        runTest( notifier,
+                 "scenario1",
+                 true );
+        assertEquals( 1,
+                      messages.size() );
+        assertEquals( 1,
+                      messages.get( 0 ).getFailureCount() );
+    }
+
+    @Test
+    public void testFlushTimer() throws Exception {
+        final List<TestResultMessage> messages = Collections.synchronizedList( new ArrayList<TestResultMessage>() );
+        final CustomJUnitRunNotifier notifier = new CustomJUnitRunNotifier( new CustomJUnitRunNotifier.TestResultMessageListener() {
+                                                                                @Override
+                                                                                public void onTestResultMessage( final TestResultMessage message ) {
+                                                                                    messages.add( message );
+                                                                                }
+                                                                            },
+                                                                            false,
+                                                                            100,
+                                                                            50 );
+        notifier.startFlushTimer();
+        try {
+            runTest( notifier,
+                     "scenario1",
+                     false );
+
+            //The result is reported without another test finishing
+            final long timeout = System.currentTimeMillis() + 5000;
+            while ( messages.isEmpty() && System.currentTimeMillis() < timeout ) {
+                Thread.sleep( 10 );
+            }
+            assertEquals( 1,
+                          messages.size() );
+            assertEquals( 1,
+                          messages.get( 0 ).getRunCount() );
+        } finally {
+            notifier.stopFlushTimer();
+        }
+    }
+
+    private void runTest( final CustomJUnitRunNotifier notifier,
+                          final String scenario,
+                          final boolean fail ) {
+        final Description description = Description.createTestDescription( "org.test",
+                                                                           scenario + ".scenario" );
+        notifier.fireTestStarted( description );
+        if ( fail ) {
+            notifier.fireTestFailure( new Failure( description,
+                                                   new AssertionError( "failed" ) ) );
+        }
+        notifier.fireTestFinished( description );
+    }
+
+    //The last scenario of a result fails if there is more than one
+    private Result makeResult( final String... scenarios ) throws Exception {
+        final Result result = new Result();
+        final RunListener listener = result.createListener();
+        for ( int i = 0; i < scenarios.length; i++ ) {
+            final Description description = Description.createTestDescription( "org.test",
+                                                                               scenarios[ i ] + ".scenario" );
+            listener.testStarted( description );
+            if ( i > 0 && i == scenarios.length - 1 ) {
+                listener.testFailure( new Failure( description,
+                                                   new AssertionError( "failed" ) ) );
+            }
+            listener.testFinished( description );
+        }
+        return result;
+    }
+
+    private static class RecordingEvent implements Event<TestResultMessage> {
+
+        private final List<TestResultMessage> messages = new ArrayList<TestResultMessage>();
+
+        @Override
+        public void fire( final TestResultMessage event ) {
+            messages.add( event );
+        }
+
+        @Override
+        public Event<TestResultMessage> select( final Annotation... qualifiers ) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <U extends TestResultMessage> Event<U> select( final Class<U> subtype,
+                                                              final Annotation... qualifiers ) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <U extends TestResultMessage> Event<U> select( final TypeLiteral<U> subtype,
+                                                              final Annotation... qualifiers ) {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+}
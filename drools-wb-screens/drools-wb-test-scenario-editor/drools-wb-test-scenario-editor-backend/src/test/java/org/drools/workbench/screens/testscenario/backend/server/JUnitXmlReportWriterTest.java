@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.testscenario.backend.server;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.drools.workbench.screens.testscenario.model.RuleProfile;
+import org.drools.workbench.screens.testscenario.model.ScenarioProfile;
+import org.drools.workbench.screens.testscenario.model.TestProfileMessage;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class JUnitXmlReportWriterTest {
+
+    @Test
+    public void testWrite() throws Exception {
+        final ScenarioProfile profile1 = new ScenarioProfile( "scenario1",
+                                                              null,
+                                                              1500,
+                                                              3,
+                                                              2,
+                                                              Arrays.asList( new RuleProfile( "org.test.Rule1",
+                                                                                              3,
+                                                                                              2500000 ) ) );
+        final ScenarioProfile profile2 = new ScenarioProfile( "scenario2",
+                                                              "Expected <1> but was <2>",
+                                                              250,
+                                                              0,
+                                                              1,
+                                                              new ArrayList<RuleProfile>() );
+
+        final StringWriter writer = new StringWriter();
+        JUnitXmlReportWriter.write( Arrays.asList( profile1,
+                                                   profile2 ),
+                                    writer );
+        final String xml = writer.toString();
+
+        assertTrue( xml.contains( "<testsuite name=\"TestScenarios\" tests=\"2\" failures=\"1\" errors=\"0\" time=\"1.750\">" ) );
+        assertTrue( xml.contains( "<testcase classname=\"TestScenarios\" name=\"scenario1\" time=\"1.500\">" ) );
+        assertTrue( xml.contains( "org.test.Rule1: 3 firings, 2.500 ms" ) );
+        assertTrue( xml.contains( "<testcase classname=\"TestScenarios\" name=\"scenario2\" time=\"0.250\"><failure message=\"Expected &lt;1&gt; but was &lt;2&gt;\">" ) );
+    }
+
+    @Test
+    public void testReportsHaveUniqueNames() throws Exception {
+        final File directory = File.createTempFile( "reports",
+                                                    "" );
+        assertTrue( directory.delete() );
+        assertTrue( directory.mkdir() );
+        System.setProperty( JUnitXmlReportWriter.REPORT_DIRECTORY_PROPERTY,
+                            directory.getAbsolutePath() );
+        try {
+            final JUnitXmlReportWriter reportWriter = new JUnitXmlReportWriter();
+            final TestProfileMessage message = new TestProfileMessage( new ArrayList<ScenarioProfile>() );
+            for ( int i = 0; i < 5; i++ ) {
+                reportWriter.onTestProfile( message );
+            }
+
+            final File[] reports = directory.listFiles();
+            assertEquals( 5,
+                          reports.length );
+            for ( File report : reports ) {
+                assertTrue( report.getName().startsWith( "TEST-TestScenarios-" ) );
+                assertTrue( report.getName().endsWith( ".xml" ) );
+                assertTrue( report.delete() );
+            }
+        } finally {
+            System.clearProperty( JUnitXmlReportWriter.REPORT_DIRECTORY_PROPERTY );
+            directory.delete();
+        }
+    }
+
+}
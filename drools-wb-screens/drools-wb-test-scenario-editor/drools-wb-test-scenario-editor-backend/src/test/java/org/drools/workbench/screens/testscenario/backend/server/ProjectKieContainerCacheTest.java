@@ -0,0 +1,126 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.workbench.screens.testscenario.backend.server;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
+import org.kie.api.builder.ReleaseId;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.KieSession;
+import org.kie.workbench.common.services.shared.project.KieProject;
+import org.uberfire.backend.vfs.Path;
+import org.uberfire.backend.vfs.PathFactory;
+import org.uberfire.workbench.events.ResourceUpdatedEvent;
+
+import static org.junit.Assert.*;
+
+public class ProjectKieContainerCacheTest {
+
+    private ReleaseId releaseId;
+    private TestProjectKieContainerCache cache;
+
+    @Before
+    public void setup() {
+        final KieServices ks = KieServices.Factory.get();
+        final KieBuilder builder = ks.newKieBuilder( ks.newKieFileSystem() ).buildAll();
+        releaseId = builder.getKieModule().getReleaseId();
+        cache = new TestProjectKieContainerCache();
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty( ProjectKieContainerCache.MAX_ENTRIES_PROPERTY );
+    }
+
+    @Test
+    public void testKieContainerIsReused() {
+        final KieProject project = makeProject( "default://project1" );
+
+        final KieSession ksession1 = cache.newKieSession( project );
+        final KieSession ksession2 = cache.newKieSession( project );
+        try {
+            assertNotSame( ksession1,
+                           ksession2 );
+            assertEquals( 1,
+                          cache.built );
+        } finally {
+            ksession1.dispose();
+            ksession2.dispose();
+        }
+    }
+
+    @Test
+    public void testChangeWithinProjectInvalidatesKieContainer() {
+        final KieProject project1 = makeProject( "default://project1" );
+        final KieProject project2 = makeProject( "default://project2" );
+        cache.newKieSession( project1 ).dispose();
+        cache.newKieSession( project2 ).dispose();
+
+        cache.onResourceUpdated( new ResourceUpdatedEvent( makePath( "default://project1/src/main/resources/org/test/Person.java" ),
+                                                           "",
+                                                           null ) );
+        assertEquals( 1,
+                      cache.getSize() );
+
+        cache.newKieSession( project1 ).dispose();
+        cache.newKieSession( project2 ).dispose();
+        assertEquals( 3,
+                      cache.built );
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        System.setProperty( ProjectKieContainerCache.MAX_ENTRIES_PROPERTY,
+                            "1" );
+        cache.newKieSession( makeProject( "default://project1" ) ).dispose();
+        cache.newKieSession( makeProject( "default://project2" ) ).dispose();
+
+        assertEquals( 1,
+                      cache.getSize() );
+    }
+
+    private KieProject makeProject( final String uri ) {
+        final Path rootPath = makePath( uri );
+        return new KieProject() {
+            @Override
+            public Path getRootPath() {
+                return rootPath;
+            }
+        };
+    }
+
+    private Path makePath( final String uri ) {
+        return PathFactory.newPath( uri.substring( uri.lastIndexOf( '/' ) + 1 ),
+                                    uri );
+    }
+
+    private class TestProjectKieContainerCache extends ProjectKieContainerCache {
+
+        private int built;
+
+        @Override
+        protected KieContainer buildKieContainer( final KieProject project ) {
+            built++;
+            return KieServices.Factory.get().newKieContainer( releaseId );
+        }
+
+    }
+
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.workbench.screens.testscenario.backend.server;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.enterprise.event.Event;
+import javax.enterprise.util.TypeLiteral;
+
+import org.drools.workbench.models.testscenarios.shared.Scenario;
+import org.guvnor.common.services.shared.test.TestResultMessage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.KieSession;
+
+import static org.junit.Assert.*;
+
+public class ScenarioRunnerWrapperTest {
+
+    private KieContainer kieContainer;
+    private RecordingExecutor executor;
+
+    @Before
+    public void setup() {
+        final KieServices ks = KieServices.Factory.get();
+        final KieBuilder builder = ks.newKieBuilder( ks.newKieFileSystem() ).buildAll();
+        kieContainer = ks.newKieContainer( builder.getKieModule().getReleaseId() );
+        executor = new RecordingExecutor( 2 );
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testRunInParallel() throws Exception {
+        final RecordingEvent event = new RecordingEvent();
+        final TrackingSessionFactory sessionFactory = new TrackingSessionFactory();
+        final CountingIterator scenarios = new CountingIterator( 6 );
+
+        new ScenarioRunnerWrapper( event,
+                                   0 ).run( scenarios,
+                                            2,
+                                            sessionFactory,
+                                            executor,
+                                            2 );
+
+        //Every scenario is read and run once
+        assertEquals( 6,
+                      scenarios.read );
+        assertEquals( 3,
+                      executor.batches.size() );
+        int runCount = 0;
+        for ( TestResultMessage message : event.messages.subList( 0,
+                                                                  event.messages.size() - 1 ) ) {
+            runCount = runCount + message.getRunCount();
+        }
+        assertEquals( 6,
+                      runCount );
+
+        //The results of the batches are reported together last
+        final TestResultMessage result = event.messages.get( event.messages.size() - 1 );
+        assertTrue( result.wasSuccessful() );
+        assertEquals( 6,
+                      result.getRunCount() );
+        assertEquals( 0,
+                      result.getFailureCount() );
+
+        //The first session, created by the calling thread, runs the first batch rather than being discarded
+        assertEquals( 3,
+                      sessionFactory.disposals.size() );
+        for ( AtomicInteger disposals : sessionFactory.disposals ) {
+            assertEquals( 1,
+                          disposals.get() );
+        }
+    }
+
+    @Test
+    public void testWorkerFailureCancelsPendingBatches() throws Exception {
+        final RecordingEvent event = new RecordingEvent();
+        final CountDownLatch release = new CountDownLatch( 1 );
+        final CountingIterator scenarios = new CountingIterator( 6 );
+
+        //The second session fails, while the first batch and later sessions wait, so that the failed batch is
+        //the next awaited and the batches read ahead are still pending when it is
+        final CountDownLatch failed = new CountDownLatch( 1 );
+        final TrackingSessionFactory sessionFactory = new TrackingSessionFactory() {
+            @Override
+            protected void beforeNewKieSession( final int count ) {
+                if ( count == 2 ) {
+                    failed.countDown();
+                    throw new IllegalStateException( "failed" );
+                }
+                if ( count > 2 ) {
+                    await( release );
+                }
+            }
+
+            @Override
+            protected void beforeDispose( final int count ) {
+                if ( count == 1 ) {
+                    await( failed );
+                }
+            }
+        };
+
+        try {
+            new ScenarioRunnerWrapper( event,
+                                       0 ).run( scenarios,
+                                                1,
+                                                sessionFactory,
+                                                executor,
+                                                2 );
+            fail( "The worker's failure was not raised" );
+
+        } catch ( IllegalStateException e ) {
+            assertEquals( "failed",
+                          e.getMessage() );
+        } finally {
+            release.countDown();
+        }
+
+        //Reading stopped once the failure was raised, and the batches read ahead were cancelled
+        assertEquals( 5,
+                      scenarios.read );
+        assertEquals( 5,
+                      executor.batches.size() );
+        assertFalse( executor.batches.get( 0 ).isCancelled() );
+        for ( Future<?> batch : executor.batches.subList( 2,
+                                                          5 ) ) {
+            assertTrue( batch.isCancelled() );
+        }
+    }
+
+    private static void await( final CountDownLatch latch ) {
+        try {
+            latch.await();
+        } catch ( InterruptedException e ) {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    private class TrackingSessionFactory implements ScenarioRunnerWrapper.SessionFactory {
+
+        private final AtomicInteger created = new AtomicInteger();
+        private final List<AtomicInteger> disposals = Collections.synchronizedList( new ArrayList<AtomicInteger>() );
+
+        @Override
+        public KieSession newKieSession() {
+            final int count = created.incrementAndGet();
+            beforeNewKieSession( count );
+            final KieSession ksession = kieContainer.newKieSession();
+            final AtomicInteger disposed = new AtomicInteger();
+            disposals.add( disposed );
+            return (KieSession) Proxy.newProxyInstance( KieSession.class.getClassLoader(),
+                                                        new Class[]{ KieSession.class },
+                                                        new InvocationHandler() {
+                                                            @Override
+                                                            public Object invoke( final Object proxy,
+                                                                                  final Method method,
+                                                                                  final Object[] args ) throws Throwable {
+                                                                if ( "dispose".equals( method.getName() ) ) {
+                                                                    beforeDispose( count );
+                                                                    disposed.incrementAndGet();
+                                                                }
+                                                                try {
+                                                                    return method.invoke( ksession,
+                                                                                          args );
+                                                                } catch ( InvocationTargetException e ) {
+                                                                    throw e.getCause();
+                                                                }
+                                                            }
+                                                        } );
+        }
+
+        //Sessions are numbered from 1 in the order they are requested
+        protected void beforeNewKieSession( final int count ) {
+        }
+
+        protected void beforeDispose( final int count ) {
+        }
+
+    }
+
+    private static class CountingIterator implements Iterator<Scenario> {
+
+        private final int size;
+        private volatile int read;
+
+        private CountingIterator( final int size ) {
+            this.size = size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return read < size;
+        }
+
+        @Override
+        public Scenario next() {
+            final Scenario scenario = new Scenario();
+            scenario.setName( "scenario" + ( ++read ) );
+            return scenario;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+    private static class RecordingExecutor extends ThreadPoolExecutor {
+
+        private final List<Future<?>> batches = Collections.synchronizedList( new ArrayList<Future<?>>() );
+
+        private RecordingExecutor( final int threads ) {
+            super( threads,
+                   threads,
+                   0L,
+                   TimeUnit.MILLISECONDS,
+                   new LinkedBlockingQueue<Runnable>() );
+        }
+
+        @Override
+        public <T> Future<T> submit( final Callable<T> task ) {
+            final Future<T> batch = super.submit( task );
+            batches.add( batch );
+            return batch;
+        }
+
+    }
+
+    private static class RecordingEvent implements Event<TestResultMessage> {
+
+        private final List<TestResultMessage> messages = new ArrayList<TestResultMessage>();
+
+        @Override
+        public void fire( final TestResultMessage event ) {
+            messages.add( event );
+        }
+
+        @Override
+        public Event<TestResultMessage> select( final Annotation... qualifiers ) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <U extends TestResultMessage> Event<U> select( final Class<U> subtype,
+                                                              final Annotation... qualifiers ) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <U extends TestResultMessage> Event<U> select( final TypeLiteral<U> subtype,
+                                                              final Annotation... qualifiers ) {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.workbench.screens.testscenario.backend.server;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.guvnor.common.services.backend.file.FileDiscoveryServiceImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.uberfire.backend.server.util.Paths;
+import org.uberfire.backend.vfs.Path;
+
+import static org.junit.Assert.*;
+
+public class ScenarioTestEditorServiceImplTest {
+
+    private File root;
+    private TestScenarioTestEditorService service;
+
+    @Before
+    public void setup() throws Exception {
+        root = File.createTempFile( "project",
+                                    "" );
+        root.delete();
+        root.mkdirs();
+        service = new TestScenarioTestEditorService();
+    }
+
+    @After
+    public void tearDown() {
+        delete( root );
+    }
+
+    @Test
+    public void testScenariosAreFoundInSubPackages() throws Exception {
+        write( "src/test/resources/org/test/scenario1.scenario" );
+        write( "src/test/resources/org/test/sub/scenario2.scenario" );
+        write( "src/test/resources/org/test/sub/sub/scenario3.scenario" );
+        write( "src/test/resources/org/test/rule.drl" );
+
+        assertEquals( names( "scenario1.scenario",
+                             "scenario2.scenario",
+                             "scenario3.scenario" ),
+                      names( service.loadScenarioPaths( getPath( "" ) ) ) );
+        assertEquals( names( "scenario2.scenario",
+                             "scenario3.scenario" ),
+                      names( service.loadScenarioPaths( getPath( "src/test/resources/org/test/sub" ) ) ) );
+    }
+
+    @Test
+    public void testFolderOfFileIsSearched() throws Exception {
+        write( "src/test/resources/org/test/scenario1.scenario" );
+        write( "src/test/resources/org/test/sub/scenario2.scenario" );
+
+        assertEquals( names( "scenario1.scenario",
+                             "scenario2.scenario" ),
+                      names( service.loadScenarioPaths( getPath( "src/test/resources/org/test/scenario1.scenario" ) ) ) );
+    }
+
+    @Test
+    public void testMetaInfAndDotFilesAreSkipped() throws Exception {
+        write( "src/test/resources/org/test/scenario1.scenario" );
+        write( "src/test/resources/org/test/.scenario2.scenario" );
+        write( "src/main/resources/META-INF/scenario3.scenario" );
+
+        assertEquals( names( "scenario1.scenario" ),
+                      names( service.loadScenarioPaths( getPath( "" ) ) ) );
+    }
+
+    @Test
+    public void testMissingFolderHasNoScenarios() throws Exception {
+        assertTrue( service.loadScenarioPaths( getPath( "missing" ) ).isEmpty() );
+    }
+
+    private void write( final String fileName ) throws Exception {
+        final File file = new File( root,
+                                    fileName );
+        file.getParentFile().mkdirs();
+        final FileWriter writer = new FileWriter( file );
+        try {
+            writer.write( "content" );
+        } finally {
+            writer.close();
+        }
+    }
+
+    private Path getPath( final String fileName ) {
+        return Paths.convert( org.uberfire.java.nio.file.Paths.get( new File( root,
+                                                                              fileName ).toURI() ) );
+    }
+
+    private Set<String> names( final String... names ) {
+        final Set<String> set = new HashSet<String>();
+        for ( String name : names ) {
+            set.add( name );
+        }
+        return set;
+    }
+
+    private Set<String> names( final List<Path> paths ) {
+        final Set<String> set = new HashSet<String>();
+        for ( Path path : paths ) {
+            set.add( path.getFileName() );
+        }
+        return set;
+    }
+
+    private void delete( final File file ) {
+        final File[] children = file.listFiles();
+        if ( children != null ) {
+            for ( File child : children ) {
+                delete( child );
+            }
+        }
+        file.delete();
+    }
+
+    private static class TestScenarioTestEditorService extends ScenarioTestEditorServiceImpl {
+
+        private TestScenarioTestEditorService() {
+            this.fileDiscoveryService = new FileDiscoveryServiceImpl();
+        }
+
+    }
+
+}
@@ -4,6 +4,7 @@ import javax.inject.Inject;
 
 import org.drools.workbench.screens.testscenario.client.resources.i18n.TestScenarioConstants;
 import org.drools.workbench.screens.testscenario.client.service.TestRuntimeReportingService;
+import org.drools.workbench.screens.testscenario.model.ScenarioProfile;
 import org.guvnor.common.services.shared.test.Failure;
 import org.kie.workbench.common.widgets.client.resources.CommonImages;
 
@@ -20,6 +21,7 @@ import com.google.gwt.uibinder.client.UiBinder;
 import com.google.gwt.uibinder.client.UiField;
 import com.google.gwt.user.cellview.client.Column;
 import com.google.gwt.user.cellview.client.DataGrid;
+import com.google.gwt.user.cellview.client.TextColumn;
 import com.google.gwt.user.client.ui.Composite;
 import com.google.gwt.user.client.ui.HTML;
 import com.google.gwt.user.client.ui.Label;
@@ -51,6 +53,9 @@ public class TestRunnerReportingViewImpl
     @UiField(provided = true)
     DataGrid<Failure> dataGrid;
 
+    @UiField(provided = true)
+    DataGrid<ScenarioProfile> profileGrid;
+
     @UiField
     VerticalPanel panel;
 
@@ -71,6 +76,16 @@ public class TestRunnerReportingViewImpl
 
         setUpColumns();
 
+        profileGrid = new DataGrid<ScenarioProfile>();
+        profileGrid.setWidth( "100%" );
+        profileGrid.setHeight( "200px" );
+
+        profileGrid.setAutoHeaderRefreshDisabled( true );
+
+        profileGrid.setEmptyTableWidget( new Label( "---" ) );
+
+        setUpProfileColumns();
+
         initWidget( uiBinder.createAndBindUi( this ) );
     }
 
@@ -79,6 +94,7 @@ public class TestRunnerReportingViewImpl
         dataGrid.setPixelSize( (int) ( getParent().getOffsetWidth() * 0.60 ),
                                getParent().getOffsetHeight() );
         dataGrid.onResize();
+        profileGrid.onResize();
     }
 
     private void setUpColumns() {
@@ -124,6 +140,33 @@ public class TestRunnerReportingViewImpl
         dataGrid.setColumnWidth( column, 60, Style.Unit.PCT );
     }
 
+    private void setUpProfileColumns() {
+        profileGrid.addColumn( new TextColumn<ScenarioProfile>() {
+            @Override
+            public String getValue( ScenarioProfile profile ) {
+                return profile.getScenarioName();
+            }
+        }, TestScenarioConstants.INSTANCE.ScenarioName() );
+        profileGrid.addColumn( new TextColumn<ScenarioProfile>() {
+            @Override
+            public String getValue( ScenarioProfile profile ) {
+                return String.valueOf( profile.getWallTime() );
+            }
+        }, TestScenarioConstants.INSTANCE.WallTimeMs() );
+        profileGrid.addColumn( new TextColumn<ScenarioProfile>() {
+            @Override
+            public String getValue( ScenarioProfile profile ) {
+                return String.valueOf( profile.getFiredRules() );
+            }
+        }, TestScenarioConstants.INSTANCE.FiredRules() );
+        profileGrid.addColumn( new TextColumn<ScenarioProfile>() {
+            @Override
+            public String getValue( ScenarioProfile profile ) {
+                return String.valueOf( profile.getInsertedFacts() );
+            }
+        }, TestScenarioConstants.INSTANCE.InsertedFacts() );
+    }
+
     @Override
     public void setPresenter( Presenter presenter ) {
         this.presenter = presenter;
@@ -132,6 +175,7 @@ public class TestRunnerReportingViewImpl
     @Override
     public void bindDataGridToService( TestRuntimeReportingService testRuntimeReportingService ) {
         testRuntimeReportingService.addDataDisplay( dataGrid );
+        testRuntimeReportingService.addProfileDataDisplay( profileGrid );
     }
 
     @Override
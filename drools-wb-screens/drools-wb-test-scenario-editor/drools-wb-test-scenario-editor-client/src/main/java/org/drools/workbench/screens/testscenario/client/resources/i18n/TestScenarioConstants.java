@@ -261,4 +261,12 @@ public interface TestScenarioConstants
     String TestScenarioParamFileName(String fileName);
 
     String testScenarioResourceTypeDescription();
+
+    String ScenarioName();
+
+    String WallTimeMs();
+
+    String FiredRules();
+
+    String InsertedFacts();
 }
@@ -5,7 +5,9 @@ import javax.enterprise.event.Event;
 import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 
+import org.drools.workbench.screens.testscenario.model.ScenarioProfile;
 import org.drools.workbench.screens.testscenario.model.Success;
+import org.drools.workbench.screens.testscenario.model.TestProfileMessage;
 import org.guvnor.common.services.shared.test.Failure;
 import org.guvnor.common.services.shared.test.TestResultMessage;
 import org.uberfire.client.mvp.PlaceManager;
@@ -24,6 +26,8 @@ public class TestRuntimeReportingService {
 
     private ListDataProvider<Failure> dataProvider = new ListDataProvider<Failure>();
 
+    private ListDataProvider<ScenarioProfile> profileDataProvider = new ListDataProvider<ScenarioProfile>();
+
 
     public TestRuntimeReportingService() {
 
@@ -45,4 +49,14 @@ public class TestRuntimeReportingService {
     public void addDataDisplay(HasData<Failure> failures) {
         dataProvider.addDataDisplay(failures);
     }
+
+    public void addProfiles(final @Observes TestProfileMessage message) {
+        profileDataProvider.getList().clear();
+        profileDataProvider.getList().addAll(message.getProfiles());
+        profileDataProvider.flush();
+    }
+
+    public void addProfileDataDisplay(HasData<ScenarioProfile> profiles) {
+        profileDataProvider.addDataDisplay(profiles);
+    }
 }
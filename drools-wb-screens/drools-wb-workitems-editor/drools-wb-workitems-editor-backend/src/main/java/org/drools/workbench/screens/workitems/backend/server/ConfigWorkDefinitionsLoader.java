@@ -37,6 +37,9 @@ public class ConfigWorkDefinitionsLoader {
     @Inject
     private ConfigurationService configurationService;
 
+    @Inject
+    private WorkDefinitionsParserCache workDefinitionsParserCache;
+
     public Map<String, WorkDefinition> loadWorkDefinitions() {
         //Find all configured WIDs
         final Map<String, WorkDefinition> workDefinitions = new HashMap<String, WorkDefinition>();
@@ -56,7 +59,7 @@ public class ConfigWorkDefinitionsLoader {
         }
 
         //Parse MVEL expressions into model
-        workDefinitions.putAll( WorkDefinitionsParser.parse( definitions ) );
+        workDefinitions.putAll( workDefinitionsParserCache.parse( definitions ) );
 
         return workDefinitions;
     }
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.workbench.screens.workitems.backend.server;
+
+import java.util.Collections;
+import java.util.Map;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.drools.workbench.models.datamodel.workitems.PortableWorkDefinition;
+import org.drools.workbench.screens.common.backend.server.ResourceCache;
+import org.drools.workbench.screens.workitems.type.WorkItemsTypeDefinition;
+import org.uberfire.backend.vfs.Path;
+
+/**
+ * Cache of the Work Item Definitions held in a Project. WID files are discovered, parsed and converted into
+ * structures suitable for GWT once per Project. The entry for a Project is invalidated when a WID file within it
+ * changes. Cached definitions are shared and must not be modified.
+ */
+@ApplicationScoped
+public class ProjectWorkDefinitionsCache extends ResourceCache<Map<String, PortableWorkDefinition>> {
+
+    public static final String MAX_ENTRIES_PROPERTY = "org.drools.workbench.workitems.projectCache.maxEntries";
+
+    private static final int DEFAULT_MAX_ENTRIES = 20;
+
+    @Inject
+    private ResourceWorkDefinitionsLoader resourceWorkDefinitionsLoader;
+
+    @Inject
+    private WorkItemsTypeDefinition resourceType;
+
+    public ProjectWorkDefinitionsCache() {
+        super( MAX_ENTRIES_PROPERTY,
+               DEFAULT_MAX_ENTRIES );
+    }
+
+    /**
+     * Work Item Definitions held in the Project with the provided root
+     * @param projectRoot
+     * @return
+     */
+    public Map<String, PortableWorkDefinition> getWorkDefinitions( final Path projectRoot ) {
+        final String key = projectRoot.toURI();
+        Map<String, PortableWorkDefinition> workDefinitions = get( key );
+        if ( workDefinitions == null ) {
+            final long generation = getGeneration();
+            workDefinitions = Collections.unmodifiableMap( WorkDefinitionsConverter.convert( resourceWorkDefinitionsLoader.loadWorkDefinitions( projectRoot ) ) );
+            put( key,
+                 workDefinitions,
+                 generation );
+        }
+        return workDefinitions;
+    }
+
+    //WID files are discovered anywhere beneath the Project's root
+    @Override
+    protected boolean accept( final Path path ) {
+        return resourceType.accept( path );
+    }
+
+}
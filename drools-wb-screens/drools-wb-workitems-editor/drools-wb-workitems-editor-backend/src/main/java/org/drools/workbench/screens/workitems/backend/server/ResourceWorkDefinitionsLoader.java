@@ -43,6 +43,9 @@ public class ResourceWorkDefinitionsLoader {
     @Inject
     private FileDiscoveryService fileDiscoveryService;
 
+    @Inject
+    private WorkDefinitionsParserCache workDefinitionsParserCache;
+
     private FileExtensionFilter widFilter = new FileExtensionFilter( ".wid" );
 
     public Map<String, WorkDefinition> loadWorkDefinitions( final Path projectRoot ) {
@@ -64,7 +67,7 @@ public class ResourceWorkDefinitionsLoader {
         }
 
         //Parse MVEL expressions into model
-        workDefinitions.putAll( WorkDefinitionsParser.parse( definitions ) );
+        workDefinitions.putAll( workDefinitionsParserCache.parse( definitions ) );
 
         return workDefinitions;
     }
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.workbench.screens.workitems.backend.server;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.drools.core.process.core.ParameterDefinition;
+import org.drools.core.process.core.WorkDefinition;
+import org.drools.core.process.core.datatype.DataType;
+import org.drools.core.process.core.datatype.impl.type.BooleanDataType;
+import org.drools.core.process.core.datatype.impl.type.FloatDataType;
+import org.drools.core.process.core.datatype.impl.type.IntegerDataType;
+import org.drools.core.process.core.datatype.impl.type.ObjectDataType;
+import org.drools.core.process.core.datatype.impl.type.StringDataType;
+import org.drools.workbench.models.datamodel.workitems.PortableBooleanParameterDefinition;
+import org.drools.workbench.models.datamodel.workitems.PortableFloatParameterDefinition;
+import org.drools.workbench.models.datamodel.workitems.PortableIntegerParameterDefinition;
+import org.drools.workbench.models.datamodel.workitems.PortableObjectParameterDefinition;
+import org.drools.workbench.models.datamodel.workitems.PortableParameterDefinition;
+import org.drools.workbench.models.datamodel.workitems.PortableStringParameterDefinition;
+import org.drools.workbench.models.datamodel.workitems.PortableWorkDefinition;
+import org.jbpm.process.workitem.WorkDefinitionImpl;
+
+public class WorkDefinitionsConverter {
+
+    /**
+     * Copy WorkDefinitions into structures suitable for GWT
+     * @param workDefinitions
+     * @return
+     */
+    public static Map<String, PortableWorkDefinition> convert( final Map<String, WorkDefinition> workDefinitions ) {
+        final Map<String, PortableWorkDefinition> workItems = new HashMap<String, PortableWorkDefinition>();
+        for ( Map.Entry<String, WorkDefinition> entry : workDefinitions.entrySet() ) {
+            final PortableWorkDefinition wid = new PortableWorkDefinition();
+            final WorkDefinitionImpl wd = (WorkDefinitionImpl) entry.getValue();
+            wid.setName( wd.getName() );
+            wid.setDisplayName( wd.getDisplayName() );
+            wid.setParameters( convertWorkItemParameters( entry.getValue().getParameters() ) );
+            wid.setResults( convertWorkItemParameters( entry.getValue().getResults() ) );
+            workItems.put( entry.getKey(),
+                           wid );
+        }
+        return workItems;
+    }
+
+    private static Set<PortableParameterDefinition> convertWorkItemParameters( final Set<ParameterDefinition> parameters ) {
+        final Set<PortableParameterDefinition> pps = new HashSet<PortableParameterDefinition>();
+        for ( ParameterDefinition pd : parameters ) {
+            final DataType pdt = pd.getType();
+            PortableParameterDefinition ppd = null;
+            if ( pdt instanceof BooleanDataType ) {
+                ppd = new PortableBooleanParameterDefinition();
+            } else if ( pdt instanceof FloatDataType ) {
+                ppd = new PortableFloatParameterDefinition();
+            } else if ( pdt instanceof IntegerDataType ) {
+                ppd = new PortableIntegerParameterDefinition();
+            } else if ( pdt instanceof ObjectDataType ) {
+                ppd = new PortableObjectParameterDefinition();
+                final PortableObjectParameterDefinition oppd = (PortableObjectParameterDefinition) ppd;
+                final ObjectDataType odt = (ObjectDataType) pdt;
+                oppd.setClassName( odt.getClassName() );
+            } else if ( pd.getType() instanceof StringDataType ) {
+                ppd = new PortableStringParameterDefinition();
+            }
+            if ( ppd != null ) {
+                ppd.setName( pd.getName() );
+                pps.add( ppd );
+            }
+        }
+        return pps;
+    }
+
+}
@@ -46,13 +46,27 @@ import org.mvel2.ParserContext;
 public class WorkDefinitionsParser {
 
     /**
-     * Parse a MVEL String into WorkDefinitions
+     * Parse MVEL Strings into WorkDefinitions
      * @param workItemDefinitions
      * @return
      */
-    @SuppressWarnings({ "unchecked", "rawtypes" })
     public static Map<String, WorkDefinition> parse( final List<String> workItemDefinitions ) {
 
+        final Map<String, WorkDefinition> workDefinitions = new HashMap<String, WorkDefinition>();
+        for ( String workItemDefinition : workItemDefinitions ) {
+            workDefinitions.putAll( parse( workItemDefinition ) );
+        }
+        return workDefinitions;
+    }
+
+    /**
+     * Parse a MVEL String into WorkDefinitions
+     * @param workItemDefinition
+     * @return
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static Map<String, WorkDefinition> parse( final String workItemDefinition ) {
+
         final Map<String, WorkDefinition> workDefinitions = new HashMap<String, WorkDefinition>();
 
         //Add Data-type imports, in-case they are missing from definition
@@ -75,56 +89,53 @@ public class WorkDefinitionsParser {
                            UndefinedDataType.class );
 
         //Compile expression and convert String
-        for ( String workItemDefinition : workItemDefinitions ) {
-
-            final Serializable compiled = MVEL.compileExpression( workItemDefinition,
-                                                                  context );
-            final Object result = MVELSafeHelper.getEvaluator().executeExpression( compiled,
-                                                                                   new HashMap() );
-            final List<Map<String, Object>> workDefinitionsMap = (List<Map<String, Object>>) result;
+        final Serializable compiled = MVEL.compileExpression( workItemDefinition,
+                                                              context );
+        final Object result = MVELSafeHelper.getEvaluator().executeExpression( compiled,
+                                                                               new HashMap() );
+        final List<Map<String, Object>> workDefinitionsMap = (List<Map<String, Object>>) result;
 
-            //Populate model
-            if ( workDefinitionsMap != null ) {
-                for ( Map<String, Object> workDefinitionMap : workDefinitionsMap ) {
+        //Populate model
+        if ( workDefinitionsMap != null ) {
+            for ( Map<String, Object> workDefinitionMap : workDefinitionsMap ) {
 
-                    if ( workDefinitionMap != null ) {
-                        final WorkDefinitionImpl workDefinition = new WorkDefinitionImpl();
-                        workDefinition.setName( (String) workDefinitionMap.get( "name" ) );
-                        workDefinition.setDisplayName( (String) workDefinitionMap.get( "displayName" ) );
-                        workDefinition.setIcon( (String) workDefinitionMap.get( "icon" ) );
-                        workDefinition.setCustomEditor( (String) workDefinitionMap.get( "customEditor" ) );
-                        final Set<ParameterDefinition> parameters = new HashSet<ParameterDefinition>();
-                        if ( workDefinitionMap.get( "parameters" ) != null ) {
-                            final Map<String, DataType> parameterMap = (Map<String, DataType>) workDefinitionMap.get( "parameters" );
-                            if ( parameterMap != null ) {
-                                for ( Map.Entry<String, DataType> entry : parameterMap.entrySet() ) {
-                                    parameters.add( new ParameterDefinitionImpl( entry.getKey(),
-                                                                                 entry.getValue() ) );
-                                }
+                if ( workDefinitionMap != null ) {
+                    final WorkDefinitionImpl workDefinition = new WorkDefinitionImpl();
+                    workDefinition.setName( (String) workDefinitionMap.get( "name" ) );
+                    workDefinition.setDisplayName( (String) workDefinitionMap.get( "displayName" ) );
+                    workDefinition.setIcon( (String) workDefinitionMap.get( "icon" ) );
+                    workDefinition.setCustomEditor( (String) workDefinitionMap.get( "customEditor" ) );
+                    final Set<ParameterDefinition> parameters = new HashSet<ParameterDefinition>();
+                    if ( workDefinitionMap.get( "parameters" ) != null ) {
+                        final Map<String, DataType> parameterMap = (Map<String, DataType>) workDefinitionMap.get( "parameters" );
+                        if ( parameterMap != null ) {
+                            for ( Map.Entry<String, DataType> entry : parameterMap.entrySet() ) {
+                                parameters.add( new ParameterDefinitionImpl( entry.getKey(),
+                                                                             entry.getValue() ) );
                             }
-                            workDefinition.setParameters( parameters );
                         }
+                        workDefinition.setParameters( parameters );
+                    }
 
-                        if ( workDefinitionMap.get( "results" ) != null ) {
-                            final Set<ParameterDefinition> results = new HashSet<ParameterDefinition>();
-                            final Map<String, DataType> resultMap = (Map<String, DataType>) workDefinitionMap.get( "results" );
-                            if ( resultMap != null ) {
-                                for ( Map.Entry<String, DataType> entry : resultMap.entrySet() ) {
-                                    results.add( new ParameterDefinitionImpl( entry.getKey(),
-                                                                              entry.getValue() ) );
-                                }
+                    if ( workDefinitionMap.get( "results" ) != null ) {
+                        final Set<ParameterDefinition> results = new HashSet<ParameterDefinition>();
+                        final Map<String, DataType> resultMap = (Map<String, DataType>) workDefinitionMap.get( "results" );
+                        if ( resultMap != null ) {
+                            for ( Map.Entry<String, DataType> entry : resultMap.entrySet() ) {
+                                results.add( new ParameterDefinitionImpl( entry.getKey(),
+                                                                          entry.getValue() ) );
                             }
-                            workDefinition.setResults( results );
-                        }
-                        if ( workDefinitionMap.get( "defaultHandler" ) != null ) {
-                            workDefinition.setDefaultHandler( (String) workDefinitionMap.get( "defaultHandler" ) );
-                        }
-                        if ( workDefinitionMap.get( "dependencies" ) != null ) {
-                            workDefinition.setDependencies( ( (List<String>) workDefinitionMap.get( "dependencies" ) ).toArray( new String[ 0 ] ) );
                         }
-                        workDefinitions.put( workDefinition.getName(),
-                                             workDefinition );
+                        workDefinition.setResults( results );
+                    }
+                    if ( workDefinitionMap.get( "defaultHandler" ) != null ) {
+                        workDefinition.setDefaultHandler( (String) workDefinitionMap.get( "defaultHandler" ) );
+                    }
+                    if ( workDefinitionMap.get( "dependencies" ) != null ) {
+                        workDefinition.setDependencies( ( (List<String>) workDefinitionMap.get( "dependencies" ) ).toArray( new String[ 0 ] ) );
                     }
+                    workDefinitions.put( workDefinition.getName(),
+                                         workDefinition );
                 }
             }
         }
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.screens.workitems.backend.server;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.drools.core.process.core.WorkDefinition;
+
+/**
+ * Cache of the WorkDefinitions parsed from MVEL Strings. Definitions are parsed when loading and when validating WID
+ * files, which are rarely changed. Entries are keyed by the String itself. Parsing depends on nothing else: the
+ * String is evaluated with a fixed set of data type imports against the workbench's own classes, not a Project's.
+ * A changed definition is therefore never matched and no entry can become stale; superseded definitions are evicted
+ * as the cache is bounded, evicting the least recently used entries. Cached WorkDefinitions are shared and must not
+ * be modified.
+ */
+@ApplicationScoped
+public class WorkDefinitionsParserCache {
+
+    public static final String MAX_ENTRIES_PROPERTY = "org.drools.workbench.workitems.parserCache.maxEntries";
+
+    private static final int DEFAULT_MAX_ENTRIES = 100;
+
+    private final Map<String, Map<String, WorkDefinition>> entries = Collections.synchronizedMap( new LinkedHashMap<String, Map<String, WorkDefinition>>( 16,
+                                                                                                                                                        0.75f,
+                                                                                                                                                        true ) {
+        @Override
+        protected boolean removeEldestEntry( final Map.Entry<String, Map<String, WorkDefinition>> eldest ) {
+            return size() > Integer.getInteger( MAX_ENTRIES_PROPERTY,
+                                                DEFAULT_MAX_ENTRIES );
+        }
+    } );
+
+    /**
+     * Parse MVEL Strings into WorkDefinitions. Strings that fail to parse are not cached.
+     * @param workItemDefinitions
+     * @return
+     */
+    public Map<String, WorkDefinition> parse( final List<String> workItemDefinitions ) {
+        final Map<String, WorkDefinition> workDefinitions = new HashMap<String, WorkDefinition>();
+        for ( String workItemDefinition : workItemDefinitions ) {
+            Map<String, WorkDefinition> parsed = entries.get( workItemDefinition );
+            if ( parsed == null ) {
+                parsed = Collections.unmodifiableMap( WorkDefinitionsParser.parse( workItemDefinition ) );
+                entries.put( workItemDefinition,
+                             parsed );
+            }
+            workDefinitions.putAll( parsed );
+        }
+        return workDefinitions;
+    }
+
+    public void invalidate() {
+        entries.clear();
+    }
+
+}
@@ -30,20 +30,6 @@ import javax.enterprise.event.Event;
 import javax.inject.Inject;
 import javax.inject.Named;
 
-import org.drools.core.process.core.ParameterDefinition;
-import org.drools.core.process.core.WorkDefinition;
-import org.drools.core.process.core.datatype.DataType;
-import org.drools.core.process.core.datatype.impl.type.BooleanDataType;
-import org.drools.core.process.core.datatype.impl.type.FloatDataType;
-import org.drools.core.process.core.datatype.impl.type.IntegerDataType;
-import org.drools.core.process.core.datatype.impl.type.ObjectDataType;
-import org.drools.core.process.core.datatype.impl.type.StringDataType;
-import org.drools.workbench.models.datamodel.workitems.PortableBooleanParameterDefinition;
-import org.drools.workbench.models.datamodel.workitems.PortableFloatParameterDefinition;
-import org.drools.workbench.models.datamodel.workitems.PortableIntegerParameterDefinition;
-import org.drools.workbench.models.datamodel.workitems.PortableObjectParameterDefinition;
-import org.drools.workbench.models.datamodel.workitems.PortableParameterDefinition;
-import org.drools.workbench.models.datamodel.workitems.PortableStringParameterDefinition;
 import org.drools.workbench.models.datamodel.workitems.PortableWorkDefinition;
 import org.drools.workbench.screens.workitems.model.WorkItemDefinitionElements;
 import org.drools.workbench.screens.workitems.model.WorkItemsModelContent;
@@ -63,7 +49,6 @@ import org.guvnor.structure.server.config.ConfigItem;
 import org.guvnor.structure.server.config.ConfigType;
 import org.guvnor.structure.server.config.ConfigurationService;
 import org.jboss.errai.bus.server.annotations.Service;
-import org.jbpm.process.workitem.WorkDefinitionImpl;
 import org.kie.workbench.common.services.shared.project.KieProjectService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -108,11 +93,14 @@ public class WorkItemsEditorServiceImpl implements WorkItemsEditorService {
     private FileDiscoveryService fileDiscoveryService;
 
     @Inject
-    private ResourceWorkDefinitionsLoader resourceWorkDefinitionsLoader;
+    private ProjectWorkDefinitionsCache workDefinitionsCache;
 
     @Inject
     private ConfigWorkDefinitionsLoader configWorkDefinitionsLoader;
 
+    @Inject
+    private WorkDefinitionsParserCache workDefinitionsParserCache;
+
     @Inject
     private KieProjectService projectService;
 
@@ -322,7 +310,7 @@ public class WorkItemsEditorServiceImpl implements WorkItemsEditorService {
         final List<String> workItemDefinitions = new ArrayList<String>();
         workItemDefinitions.add( content );
         try {
-            WorkDefinitionsParser.parse( workItemDefinitions );
+            workDefinitionsParserCache.parse( workItemDefinitions );
 
         } catch ( Exception e ) {
             final ValidationMessage msg = new ValidationMessage();
@@ -336,61 +324,23 @@ public class WorkItemsEditorServiceImpl implements WorkItemsEditorService {
 
     @Override
     public Set<PortableWorkDefinition> loadWorkItemDefinitions( final Path path ) {
-        final Map<String, WorkDefinition> workDefinitions = new HashMap<String, WorkDefinition>();
+        final Map<String, PortableWorkDefinition> workItems = new HashMap<String, PortableWorkDefinition>();
 
         try {
-            //Load WorkItemDefinitions from VFS
+            //Load WorkItemDefinitions from VFS; these are parsed once per Project
             final Path projectRoot = projectService.resolveProject( path ).getRootPath();
-            workDefinitions.putAll( resourceWorkDefinitionsLoader.loadWorkDefinitions( projectRoot ) );
+            workItems.putAll( workDefinitionsCache.getWorkDefinitions( projectRoot ) );
 
             //Load WorkItemDefinitions from ConfigurationService
-            workDefinitions.putAll( configWorkDefinitionsLoader.loadWorkDefinitions() );
-
-            //Copy the Work Items into Structures suitable for GWT
-            final Set<PortableWorkDefinition> workItems = new HashSet<PortableWorkDefinition>();
-            for ( Map.Entry<String, WorkDefinition> entry : workDefinitions.entrySet() ) {
-                final PortableWorkDefinition wid = new PortableWorkDefinition();
-                final WorkDefinitionImpl wd = (WorkDefinitionImpl) entry.getValue();
-                wid.setName( wd.getName() );
-                wid.setDisplayName( wd.getDisplayName() );
-                wid.setParameters( convertWorkItemParameters( entry.getValue().getParameters() ) );
-                wid.setResults( convertWorkItemParameters( entry.getValue().getResults() ) );
-                workItems.add( wid );
-            }
-            return workItems;
+            workItems.putAll( WorkDefinitionsConverter.convert( configWorkDefinitionsLoader.loadWorkDefinitions() ) );
+
+            return new HashSet<PortableWorkDefinition>( workItems.values() );
 
         } catch ( Exception e ) {
             throw ExceptionUtilities.handleException( e );
         }
     }
 
-    private Set<PortableParameterDefinition> convertWorkItemParameters( final Set<ParameterDefinition> parameters ) {
-        final Set<PortableParameterDefinition> pps = new HashSet<PortableParameterDefinition>();
-        for ( ParameterDefinition pd : parameters ) {
-            final DataType pdt = pd.getType();
-            PortableParameterDefinition ppd = null;
-            if ( pdt instanceof BooleanDataType ) {
-                ppd = new PortableBooleanParameterDefinition();
-            } else if ( pdt instanceof FloatDataType ) {
-                ppd = new PortableFloatParameterDefinition();
-            } else if ( pdt instanceof IntegerDataType ) {
-                ppd = new PortableIntegerParameterDefinition();
-            } else if ( pdt instanceof ObjectDataType ) {
-                ppd = new PortableObjectParameterDefinition();
-                final PortableObjectParameterDefinition oppd = (PortableObjectParameterDefinition) ppd;
-                final ObjectDataType odt = (ObjectDataType) pdt;
-                oppd.setClassName( odt.getClassName() );
-            } else if ( pd.getType() instanceof StringDataType ) {
-                ppd = new PortableStringParameterDefinition();
-            }
-            if ( ppd != null ) {
-                ppd.setName( pd.getName() );
-                pps.add( ppd );
-            }
-        }
-        return pps;
-    }
-
     private CommentedOption makeCommentedOption( final String commitMessage ) {
         final String name = identity.getName();
         final Date when = new Date();
@@ -23,6 +23,8 @@ import javax.enterprise.inject.Produces;
 import javax.inject.Inject;
 import javax.inject.Named;
 
+import org.drools.workbench.backend.server.indexing.GroupCommitIndexEngine;
+import org.drools.workbench.backend.server.indexing.IndexingProfile;
 import org.guvnor.common.services.backend.metadata.attribute.OtherMetaView;
 import org.uberfire.backend.server.IOWatchServiceNonDotImpl;
 import org.uberfire.commons.cluster.ClusterServiceFactory;
@@ -34,6 +36,7 @@ import org.uberfire.io.attribute.DublinCoreView;
 import org.uberfire.io.impl.cluster.IOServiceClusterImpl;
 import org.uberfire.java.nio.base.version.VersionAttributeView;
 import org.kie.uberfire.metadata.backend.lucene.LuceneConfig;
+import org.kie.uberfire.metadata.engine.MetaIndexEngine;
 import org.kie.uberfire.metadata.io.IOSearchIndex;
 import org.kie.uberfire.metadata.io.IOServiceIndexedImpl;
 import org.uberfire.security.impl.authz.RuntimeAuthorizationManager;
@@ -56,13 +59,19 @@ public class ApplicationScopedProducer {
 
     private IOService ioService;
     private IOSearchService ioSearchService;
+    private MetaIndexEngine indexEngine;
 
     @PostConstruct
     public void setup() {
         SecurityFactory.setAuthzManager( new RuntimeAuthorizationManager() );
 
+        //Changes made through the IOService are committed in groups, bounded by the profile's maximum staleness
+        final IndexingProfile profile = IndexingProfile.getActive();
+        indexEngine = GroupCommitIndexEngine.wrap( config.getIndexEngine(),
+                                                   profile.getMaxStalenessMillis(),
+                                                   profile.isBatchOnStartup() );
         final IOService service = new IOServiceIndexedImpl( watchService,
-                                                            config.getIndexEngine(),
+                                                            indexEngine,
                                                             DublinCoreView.class,
                                                             VersionAttributeView.class,
                                                             OtherMetaView.class );
@@ -79,6 +88,9 @@ public class ApplicationScopedProducer {
 
     @PreDestroy
     private void cleanup() {
+        if ( indexEngine instanceof GroupCommitIndexEngine ) {
+            ( (GroupCommitIndexEngine) indexEngine ).flush();
+        }
         config.dispose();
         ioService.dispose();
     }
@@ -95,4 +107,15 @@ public class ApplicationScopedProducer {
         return ioSearchService;
     }
 
+    /**
+     * The index engine used by the IOService. Callers indexing directly must use this, rather than the engine of the
+     * LuceneConfig, so that their batches are not committed by grouped commits.
+     * @return
+     */
+    @Produces
+    @Named("indexEngine")
+    public MetaIndexEngine indexEngine() {
+        return indexEngine;
+    }
+
 }
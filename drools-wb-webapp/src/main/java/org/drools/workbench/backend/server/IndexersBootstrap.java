@@ -23,11 +23,20 @@ import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.inject.Any;
 import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
+import javax.inject.Named;
 
+import org.drools.workbench.backend.server.indexing.CachingIndexer;
+import org.drools.workbench.backend.server.indexing.IndexingMetrics;
+import org.drools.workbench.backend.server.indexing.IndexingProfile;
+import org.drools.workbench.backend.server.indexing.KObjectCache;
+import org.drools.workbench.backend.server.indexing.MonitoringIndexer;
+import org.drools.workbench.backend.server.indexing.ParallelBatchIndex;
 import org.kie.uberfire.metadata.engine.Indexer;
 import org.kie.uberfire.metadata.io.IndexersFactory;
+import org.kie.workbench.common.services.shared.project.KieProjectService;
 import org.uberfire.commons.services.cdi.Startup;
 import org.uberfire.commons.services.cdi.StartupType;
+import org.uberfire.io.IOService;
 
 @Startup(StartupType.EAGER)
 @ApplicationScoped
@@ -37,10 +46,34 @@ public class IndexersBootstrap {
     @Any
     private Instance<Indexer> indexers;
 
+    @Inject
+    private ParallelBatchIndex batchIndex;
+
+    @Inject
+    private KObjectCache kObjectCache;
+
+    @Inject
+    private IndexingMetrics indexingMetrics;
+
+    @Inject
+    @Named("ioStrategy")
+    private IOService ioService;
+
+    @Inject
+    private KieProjectService projectService;
+
     @PostConstruct
     public void setup() {
         for ( Indexer indexer : getIndexers() ) {
-            IndexersFactory.addIndexer( indexer );
+            //Metrics are recorded for the editor's Indexer and hence exclude assets served by the cache
+            IndexersFactory.addIndexer( new CachingIndexer( new MonitoringIndexer( indexer,
+                                                                                   indexingMetrics ),
+                                                            kObjectCache,
+                                                            ioService,
+                                                            projectService ) );
+        }
+        if ( IndexingProfile.getActive().isBatchOnStartup() ) {
+            batchIndex.reindexAllAsync();
         }
     }
 
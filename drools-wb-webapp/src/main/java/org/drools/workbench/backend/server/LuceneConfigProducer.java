@@ -23,28 +23,45 @@ import javax.enterprise.inject.Produces;
 import javax.inject.Named;
 
 import org.apache.lucene.analysis.Analyzer;
+import org.drools.workbench.backend.server.indexing.IndexingProfile;
 import org.kie.uberfire.metadata.backend.lucene.LuceneConfig;
 import org.kie.uberfire.metadata.backend.lucene.LuceneConfigBuilder;
 import org.kie.uberfire.metadata.backend.lucene.analyzer.FilenameAnalyzer;
 import org.kie.workbench.common.services.refactoring.backend.server.indexing.RuleAttributeNameAnalyzer;
 import org.kie.workbench.common.services.refactoring.model.index.terms.ProjectRootPathIndexTerm;
 import org.kie.workbench.common.services.refactoring.model.index.terms.RuleIndexTerm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import static org.apache.lucene.util.Version.*;
 
 @ApplicationScoped
 public class LuceneConfigProducer {
 
+    private static final Logger logger = LoggerFactory.getLogger( LuceneConfigProducer.class );
+
     private LuceneConfig config;
 
     @PostConstruct
     public void setup() {
         final Map<String, Analyzer> analyzers = getAnalyzers();
-        this.config = new LuceneConfigBuilder().withInMemoryMetaModelStore()
+        final IndexingProfile profile = IndexingProfile.getActive();
+        logger.info( "Using indexing profile " + profile );
+
+        final LuceneConfigBuilder builder = new LuceneConfigBuilder().withInMemoryMetaModelStore()
                 .usingAnalyzers( analyzers )
-                .useDirectoryBasedIndex()
-                .useNIODirectory()
-                .build();
+                .useDirectoryBasedIndex();
+        switch ( profile.getDirectoryType() ) {
+            case MMAP:
+                builder.useMMapDirectory();
+                break;
+            case INMEMORY:
+                builder.useInMemoryDirectory();
+                break;
+            default:
+                builder.useNIODirectory();
+        }
+        this.config = builder.build();
     }
 
     @Produces
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.backend.server.indexing;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.guvnor.common.services.project.model.Package;
+import org.guvnor.common.services.project.model.Project;
+import org.kie.uberfire.metadata.engine.Indexer;
+import org.kie.uberfire.metadata.model.KObject;
+import org.kie.uberfire.metadata.model.KProperty;
+import org.kie.workbench.common.services.refactoring.backend.server.indexing.DefaultIndexBuilder;
+import org.kie.workbench.common.services.refactoring.backend.server.util.KObjectUtil;
+import org.kie.workbench.common.services.refactoring.model.index.terms.PackageNameIndexTerm;
+import org.kie.workbench.common.services.refactoring.model.index.terms.ProjectRootPathIndexTerm;
+import org.kie.workbench.common.services.shared.project.KieProjectService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.uberfire.backend.server.util.Paths;
+import org.uberfire.commons.data.Pair;
+import org.uberfire.io.IOService;
+import org.uberfire.java.nio.file.Path;
+import org.uberfire.java.nio.file.StandardOpenOption;
+
+/**
+ * Indexer that only delegates to the editor's Indexer when the terms of the asset's current content are not already
+ * held in the KObjectCache. Content is identified by its SHA-1, independent of the asset's Path, so the terms are
+ * reused for the same content in another branch or clone and are never stale for content changed within the
+ * resolution of the file's modification time. Project and Package terms are not cached; they are resolved for the
+ * Path being indexed.
+ */
+public class CachingIndexer extends DelegatingIndexer {
+
+    private static final Logger logger = LoggerFactory.getLogger( CachingIndexer.class );
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final KObjectCache cache;
+    private final IOService ioService;
+    private final KieProjectService projectService;
+
+    public CachingIndexer( final Indexer delegate,
+                           final KObjectCache cache,
+                           final IOService ioService,
+                           final KieProjectService projectService ) {
+        super( delegate );
+        this.cache = cache;
+        this.ioService = ioService;
+        this.projectService = projectService;
+    }
+
+    @Override
+    public KObject toKObject( final Path path ) {
+        final Project project;
+        final Package pkg;
+        final String key;
+        try {
+            project = projectService.resolveProject( Paths.convert( path ) );
+            pkg = projectService.resolvePackage( Paths.convert( path ) );
+            key = makeKey( getIndexerName( delegate ),
+                           getContentHash( path ) );
+
+        } catch ( Exception e ) {
+            logger.error( "Unable to resolve cache key for '" + path.toUri().toString() + "'.",
+                          e );
+            return delegate.toKObject( path );
+        }
+
+        final String projectRoot = KObjectCache.getProjectRoot( project );
+        final Set<Pair<String, String>> cachedTerms = cache.get( key,
+                                                                 projectRoot );
+        if ( cachedTerms != null ) {
+            final DefaultIndexBuilder builder = new DefaultIndexBuilder( project,
+                                                                         pkg );
+            final Set<Pair<String, String>> terms = new HashSet<Pair<String, String>>( builder.build() );
+            terms.addAll( cachedTerms );
+            return KObjectUtil.toKObject( path,
+                                          terms );
+        }
+
+        final long generation = cache.getGeneration();
+        final KObject kObject = delegate.toKObject( path );
+        if ( kObject != null ) {
+            cache.put( key,
+                       projectRoot,
+                       getTerms( kObject ),
+                       generation );
+        }
+        return kObject;
+    }
+
+    //Terms produced by most Indexers depend upon the Project's DataModelOracle; entries record the Projects that
+    //used them and are invalidated with their DataModelOracles
+    static String makeKey( final String indexerName,
+                           final String contentHash ) {
+        return indexerName + '|' + contentHash;
+    }
+
+    private String getContentHash( final Path path ) throws Exception {
+        final MessageDigest digest = MessageDigest.getInstance( "SHA-1" );
+        final InputStream is = ioService.newInputStream( path,
+                                                         StandardOpenOption.READ );
+        try {
+            final byte[] buffer = new byte[ BUFFER_SIZE ];
+            int read;
+            while ( ( read = is.read( buffer ) ) != -1 ) {
+                digest.update( buffer,
+                               0,
+                               read );
+            }
+        } finally {
+            try {
+                is.close();
+            } catch ( IOException e ) {
+                //Swallow
+            }
+        }
+        final StringBuilder sb = new StringBuilder();
+        for ( byte b : digest.digest() ) {
+            sb.append( String.format( "%02x",
+                                      b ) );
+        }
+        return sb.toString();
+    }
+
+    private Set<Pair<String, String>> getTerms( final KObject kObject ) {
+        final Set<Pair<String, String>> terms = new HashSet<Pair<String, String>>();
+        for ( KProperty<?> property : kObject.getProperties() ) {
+            final String name = property.getName();
+            if ( ProjectRootPathIndexTerm.TERM.equals( name ) || PackageNameIndexTerm.TERM.equals( name ) ) {
+                continue;
+            }
+            terms.add( new Pair<String, String>( name,
+                                                 String.valueOf( property.getValue() ) ) );
+        }
+        return terms;
+    }
+
+}
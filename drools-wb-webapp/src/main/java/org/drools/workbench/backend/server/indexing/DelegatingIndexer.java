@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.backend.server.indexing;
+
+import org.kie.uberfire.metadata.engine.Indexer;
+import org.kie.uberfire.metadata.model.KObject;
+import org.kie.uberfire.metadata.model.KObjectKey;
+import org.uberfire.commons.validation.PortablePreconditions;
+import org.uberfire.java.nio.file.Path;
+
+/**
+ * Base for Indexers that decorate the Indexers provided by the editors
+ */
+public abstract class DelegatingIndexer implements Indexer {
+
+    protected final Indexer delegate;
+
+    protected DelegatingIndexer( final Indexer delegate ) {
+        this.delegate = PortablePreconditions.checkNotNull( "delegate",
+                                                            delegate );
+    }
+
+    public Indexer getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public boolean supportsPath( final Path path ) {
+        return delegate.supportsPath( path );
+    }
+
+    @Override
+    public KObject toKObject( final Path path ) {
+        return delegate.toKObject( path );
+    }
+
+    @Override
+    public KObjectKey toKObjectKey( final Path path ) {
+        return delegate.toKObjectKey( path );
+    }
+
+    /**
+     * The editor's Indexer at the root of a chain of decorators
+     * @param indexer
+     * @return
+     */
+    public static Indexer getRootIndexer( final Indexer indexer ) {
+        Indexer i = indexer;
+        while ( i instanceof DelegatingIndexer ) {
+            i = ( (DelegatingIndexer) i ).getDelegate();
+        }
+        return i;
+    }
+
+    /**
+     * Name of the editor's Indexer at the root of a chain of decorators
+     * @param indexer
+     * @return
+     */
+    public static String getIndexerName( final Indexer indexer ) {
+        final String name = getRootIndexer( indexer ).getClass().getSimpleName();
+        //Strip any suffix added to the class name by CDI proxies
+        final int proxySuffix = name.indexOf( '$' );
+        return ( proxySuffix > 0 ? name.substring( 0,
+                                                   proxySuffix ) : name );
+    }
+
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.backend.server.indexing;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.kie.uberfire.metadata.engine.MetaIndexEngine;
+import org.kie.uberfire.metadata.model.KCluster;
+import org.kie.uberfire.metadata.model.KObject;
+import org.kie.uberfire.metadata.model.KObjectKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.uberfire.commons.validation.PortablePreconditions;
+
+/**
+ * MetaIndexEngine that groups the commits following individual changes. Outside of a batch the Lucene engine commits,
+ * and refreshes its near-real-time searchers, after every change. This engine instead opens a batch on the first
+ * change to a cluster and commits it no later than the configured maximum staleness; hence searches never see results
+ * older than the bound whilst concurrent saves share a single commit. Batches started by callers are left untouched;
+ * hence callers indexing directly, e.g. ParallelBatchIndex, must do so through this engine rather than its delegate.
+ * When Repositories are re-indexed by ParallelBatchIndex on startup, freshIndex reports false until that batch ends so
+ * that IOServiceIndexedImpl does not index fresh Repositories a second time with its own sequential batch.
+ */
+public class GroupCommitIndexEngine implements MetaIndexEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger( GroupCommitIndexEngine.class );
+
+    private final MetaIndexEngine delegate;
+    private final long maxStalenessMillis;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor( new ThreadFactory() {
+        @Override
+        public Thread newThread( final Runnable r ) {
+            final Thread t = new Thread( r,
+                                         "index-group-commit" );
+            t.setDaemon( true );
+            return t;
+        }
+    } );
+
+    //Clusters with a batch opened by this engine that have not yet been committed
+    private final Set<String> pending = new HashSet<String>();
+
+    //Clusters with a batch opened by a caller
+    private final Set<String> external = new HashSet<String>();
+
+    private volatile boolean startupBatch;
+
+    private GroupCommitIndexEngine( final MetaIndexEngine delegate,
+                                    final long maxStalenessMillis,
+                                    final boolean startupBatch ) {
+        this.delegate = PortablePreconditions.checkNotNull( "delegate",
+                                                            delegate );
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.startupBatch = startupBatch;
+    }
+
+    /**
+     * Group commits of the provided MetaIndexEngine. A maximum staleness of zero or less disables grouping.
+     * @param delegate
+     * @param maxStalenessMillis
+     * @return
+     */
+    public static MetaIndexEngine wrap( final MetaIndexEngine delegate,
+                                        final long maxStalenessMillis ) {
+        return wrap( delegate,
+                     maxStalenessMillis,
+                     false );
+    }
+
+    /**
+     * Group commits of the provided MetaIndexEngine. A maximum staleness of zero or less disables grouping.
+     * @param delegate
+     * @param maxStalenessMillis
+     * @param startupBatch True if ParallelBatchIndex re-indexes all Repositories on startup
+     * @return
+     */
+    public static MetaIndexEngine wrap( final MetaIndexEngine delegate,
+                                        final long maxStalenessMillis,
+                                        final boolean startupBatch ) {
+        if ( maxStalenessMillis <= 0 && !startupBatch ) {
+            return delegate;
+        }
+        return new GroupCommitIndexEngine( delegate,
+                                           maxStalenessMillis,
+                                           startupBatch );
+    }
+
+    @Override
+    public boolean freshIndex( final KCluster cluster ) {
+        if ( startupBatch ) {
+            return false;
+        }
+        return delegate.freshIndex( cluster );
+    }
+
+    /**
+     * Called by ParallelBatchIndex once the Repositories existing on startup have been re-indexed. Fresh Repositories
+     * are indexed by IOServiceIndexedImpl thereafter.
+     */
+    public void endStartupBatch() {
+        startupBatch = false;
+    }
+
+    @Override
+    public void startBatch( final KCluster cluster ) {
+        synchronized ( pending ) {
+            //Any changes grouped so far are committed with the caller's batch
+            pending.remove( cluster.getClusterId() );
+            external.add( cluster.getClusterId() );
+            delegate.startBatch( cluster );
+        }
+    }
+
+    @Override
+    public void index( final KObject object ) {
+        openBatch( object.getClusterId() );
+        delegate.index( object );
+    }
+
+    @Override
+    public void index( final KObject... objects ) {
+        for ( KObject object : objects ) {
+            openBatch( object.getClusterId() );
+        }
+        delegate.index( objects );
+    }
+
+    @Override
+    public void rename( final KObjectKey from,
+                        final KObject to ) {
+        openBatch( from.getClusterId() );
+        openBatch( to.getClusterId() );
+        delegate.rename( from,
+                         to );
+    }
+
+    @Override
+    public void delete( final KCluster cluster ) {
+        synchronized ( pending ) {
+            pending.remove( cluster.getClusterId() );
+            external.remove( cluster.getClusterId() );
+            delegate.delete( cluster );
+        }
+    }
+
+    @Override
+    public void delete( final KObjectKey objectKey ) {
+        openBatch( objectKey.getClusterId() );
+        delegate.delete( objectKey );
+    }
+
+    @Override
+    public void delete( final KObjectKey... objectsKey ) {
+        for ( KObjectKey objectKey : objectsKey ) {
+            openBatch( objectKey.getClusterId() );
+        }
+        delegate.delete( objectsKey );
+    }
+
+    @Override
+    public void commit( final KCluster cluster ) {
+        synchronized ( pending ) {
+            pending.remove( cluster.getClusterId() );
+            external.remove( cluster.getClusterId() );
+            delegate.commit( cluster );
+        }
+    }
+
+    @Override
+    public void beforeDispose( final Runnable callback ) {
+        delegate.beforeDispose( callback );
+    }
+
+    @Override
+    public void dispose() {
+        flush();
+        delegate.dispose();
+    }
+
+    /**
+     * Commit all changes grouped so far and stop scheduling further commits
+     */
+    public void flush() {
+        final List<String> clusterIds;
+        synchronized ( pending ) {
+            scheduler.shutdownNow();
+            clusterIds = new ArrayList<String>( pending );
+        }
+        for ( String clusterId : clusterIds ) {
+            flush( clusterId );
+        }
+    }
+
+    private void openBatch( final String clusterId ) {
+        synchronized ( pending ) {
+            if ( maxStalenessMillis <= 0 || scheduler.isShutdown() || external.contains( clusterId ) || !pending.add( clusterId ) ) {
+                return;
+            }
+            delegate.startBatch( new ClusterRef( clusterId ) );
+            scheduler.schedule( new Runnable() {
+                                    @Override
+                                    public void run() {
+                                        flush( clusterId );
+                                    }
+                                },
+                                maxStalenessMillis,
+                                TimeUnit.MILLISECONDS );
+        }
+    }
+
+    private void flush( final String clusterId ) {
+        synchronized ( pending ) {
+            if ( !pending.remove( clusterId ) ) {
+                return;
+            }
+            try {
+                delegate.commit( new ClusterRef( clusterId ) );
+            } catch ( Exception e ) {
+                logger.error( "Unable to commit index for cluster '" + clusterId + "'.",
+                              e );
+            }
+        }
+    }
+
+    private static class ClusterRef implements KCluster {
+
+        private final String clusterId;
+
+        private ClusterRef( final String clusterId ) {
+            this.clusterId = clusterId;
+        }
+
+        @Override
+        public String getClusterId() {
+            return clusterId;
+        }
+
+        @Override
+        public boolean equals( final Object o ) {
+            if ( this == o ) {
+                return true;
+            }
+            if ( !( o instanceof KCluster ) ) {
+                return false;
+            }
+            return clusterId.equals( ( (KCluster) o ).getClusterId() );
+        }
+
+        @Override
+        public int hashCode() {
+            return clusterId.hashCode();
+        }
+
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.backend.server.indexing;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Metrics for a single Indexer; i.e. a single asset type. Latencies are recorded in a histogram with fixed buckets.
+ */
+public class IndexerMetrics {
+
+    /**
+     * Upper bounds, in milliseconds, of the latency histogram buckets. A final bucket holds all greater latencies.
+     */
+    public static final long[] LATENCY_BUCKETS = new long[]{ 1, 5, 10, 50, 100, 500, 1000, 5000 };
+
+    private final String indexerName;
+    private final AtomicLong indexed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong elapsedNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLong terms = new AtomicLong();
+    private final AtomicLong assetBytes = new AtomicLong();
+    private final AtomicLongArray latencies = new AtomicLongArray( LATENCY_BUCKETS.length + 1 );
+
+    private volatile String slowestAsset;
+
+    public IndexerMetrics( final String indexerName ) {
+        this.indexerName = indexerName;
+    }
+
+    public void recordSuccess( final String asset,
+                               final long nanos,
+                               final long bytes,
+                               final int termCount ) {
+        indexed.incrementAndGet();
+        terms.addAndGet( termCount );
+        record( asset,
+                nanos,
+                bytes );
+    }
+
+    public void recordFailure( final String asset,
+                               final long nanos,
+                               final long bytes ) {
+        failed.incrementAndGet();
+        record( asset,
+                nanos,
+                bytes );
+    }
+
+    private void record( final String asset,
+                         final long nanos,
+                         final long bytes ) {
+        elapsedNanos.addAndGet( nanos );
+        assetBytes.addAndGet( bytes );
+        latencies.incrementAndGet( getBucket( TimeUnit.NANOSECONDS.toMillis( nanos ) ) );
+
+        long max = maxNanos.get();
+        while ( nanos > max ) {
+            if ( maxNanos.compareAndSet( max,
+                                         nanos ) ) {
+                slowestAsset = asset;
+                break;
+            }
+            max = maxNanos.get();
+        }
+    }
+
+    private static int getBucket( final long millis ) {
+        for ( int i = 0; i < LATENCY_BUCKETS.length; i++ ) {
+            if ( millis <= LATENCY_BUCKETS[ i ] ) {
+                return i;
+            }
+        }
+        return LATENCY_BUCKETS.length;
+    }
+
+    public String getIndexerName() {
+        return indexerName;
+    }
+
+    public long getIndexed() {
+        return indexed.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public long getTermCount() {
+        return terms.get();
+    }
+
+    /**
+     * Total size of the assets indexed. This is the size of the files, not the bytes read by the Indexer.
+     * @return
+     */
+    public long getAssetBytes() {
+        return assetBytes.get();
+    }
+
+    public double getMeanLatencyMillis() {
+        final long count = indexed.get() + failed.get();
+        if ( count == 0 ) {
+            return 0;
+        }
+        return (double) elapsedNanos.get() / count / TimeUnit.MILLISECONDS.toNanos( 1 );
+    }
+
+    public double getMaxLatencyMillis() {
+        return (double) maxNanos.get() / TimeUnit.MILLISECONDS.toNanos( 1 );
+    }
+
+    /**
+     * The asset that took longest to index
+     * @return
+     */
+    public String getSlowestAsset() {
+        return slowestAsset;
+    }
+
+    /**
+     * Count of assets in each latency bucket; see LATENCY_BUCKETS
+     * @return
+     */
+    public long[] getLatencyHistogram() {
+        final long[] histogram = new long[ latencies.length() ];
+        for ( int i = 0; i < histogram.length; i++ ) {
+            histogram[ i ] = latencies.get( i );
+        }
+        return histogram;
+    }
+
+    @Override
+    public String toString() {
+        return indexerName + ": indexed=" + getIndexed() + ", failed=" + getFailed() + ", terms=" + getTermCount() + ", assetBytes=" + getAssetBytes() + ", mean(ms)=" + String.format( "%.1f",
+                                                                                                                                                                                        getMeanLatencyMillis() );
+    }
+
+}
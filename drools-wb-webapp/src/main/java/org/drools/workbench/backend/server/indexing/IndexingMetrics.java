@@ -0,0 +1,204 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.backend.server.indexing;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Indexing metrics for all Indexers wrapped by MonitoringIndexer. Metrics are published to JMX and by
+ * IndexingMetricsResource.
+ */
+@ApplicationScoped
+public class IndexingMetrics implements IndexingMetricsMBean {
+
+    public static final String OBJECT_NAME = "org.drools.workbench:type=IndexingMetrics";
+
+    private static final Logger logger = LoggerFactory.getLogger( IndexingMetrics.class );
+
+    @Inject
+    private ParallelBatchIndex batchIndex;
+
+    private final ConcurrentMap<String, IndexerMetrics> metrics = new ConcurrentHashMap<String, IndexerMetrics>();
+    private final AtomicLong active = new AtomicLong();
+
+    private ObjectName objectName;
+
+    public IndexingMetrics() {
+        //CDI proxy
+    }
+
+    IndexingMetrics( final ParallelBatchIndex batchIndex ) {
+        this.batchIndex = batchIndex;
+    }
+
+    @PostConstruct
+    public void registerMBean() {
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            objectName = new ObjectName( OBJECT_NAME );
+            if ( !server.isRegistered( objectName ) ) {
+                server.registerMBean( this,
+                                      objectName );
+            }
+        } catch ( Exception e ) {
+            logger.warn( "Unable to register Indexing metrics with JMX.",
+                         e );
+            objectName = null;
+        }
+    }
+
+    @PreDestroy
+    public void unregisterMBean() {
+        if ( objectName == null ) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean( objectName );
+        } catch ( Exception e ) {
+            logger.warn( "Unable to unregister Indexing metrics from JMX.",
+                         e );
+        }
+    }
+
+    public IndexerMetrics getIndexerMetrics( final String indexerName ) {
+        IndexerMetrics m = metrics.get( indexerName );
+        if ( m == null ) {
+            final IndexerMetrics newMetrics = new IndexerMetrics( indexerName );
+            m = metrics.putIfAbsent( indexerName,
+                                     newMetrics );
+            if ( m == null ) {
+                m = newMetrics;
+            }
+        }
+        return m;
+    }
+
+    public Collection<IndexerMetrics> getAllIndexerMetrics() {
+        final List<IndexerMetrics> result = new ArrayList<IndexerMetrics>( metrics.values() );
+        return Collections.unmodifiableList( result );
+    }
+
+    //Read-only access for JMX clients should not register metrics for unknown Indexers
+    private IndexerMetrics lookup( final String indexerName ) {
+        final IndexerMetrics m = metrics.get( indexerName );
+        return ( m == null ? new IndexerMetrics( indexerName ) : m );
+    }
+
+    public void startIndexing() {
+        active.incrementAndGet();
+    }
+
+    public void finishIndexing() {
+        active.decrementAndGet();
+    }
+
+    @Override
+    public String[] getIndexerNames() {
+        final List<String> names = new ArrayList<String>( metrics.keySet() );
+        Collections.sort( names );
+        return names.toArray( new String[ names.size() ] );
+    }
+
+    @Override
+    public long getActiveIndexing() {
+        return active.get();
+    }
+
+    @Override
+    public long getPendingBatchAssets() {
+        return batchIndex.getPendingCount();
+    }
+
+    @Override
+    public long getTotalIndexed() {
+        long total = 0;
+        for ( IndexerMetrics m : metrics.values() ) {
+            total = total + m.getIndexed();
+        }
+        return total;
+    }
+
+    @Override
+    public long getTotalFailed() {
+        long total = 0;
+        for ( IndexerMetrics m : metrics.values() ) {
+            total = total + m.getFailed();
+        }
+        return total;
+    }
+
+    @Override
+    public long getIndexed( final String indexerName ) {
+        return lookup( indexerName ).getIndexed();
+    }
+
+    @Override
+    public long getFailed( final String indexerName ) {
+        return lookup( indexerName ).getFailed();
+    }
+
+    @Override
+    public long getTermCount( final String indexerName ) {
+        return lookup( indexerName ).getTermCount();
+    }
+
+    @Override
+    public long getAssetBytes( final String indexerName ) {
+        return lookup( indexerName ).getAssetBytes();
+    }
+
+    @Override
+    public double getMeanLatencyMillis( final String indexerName ) {
+        return lookup( indexerName ).getMeanLatencyMillis();
+    }
+
+    @Override
+    public double getMaxLatencyMillis( final String indexerName ) {
+        return lookup( indexerName ).getMaxLatencyMillis();
+    }
+
+    @Override
+    public String getSlowestAsset( final String indexerName ) {
+        return lookup( indexerName ).getSlowestAsset();
+    }
+
+    @Override
+    public long[] getLatencyHistogram( final String indexerName ) {
+        return lookup( indexerName ).getLatencyHistogram();
+    }
+
+    @Override
+    public void reset() {
+        metrics.clear();
+    }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.backend.server.indexing;
+
+/**
+ * JMX view of IndexingMetrics. Per-Indexer operations take the simple class name of the editor's Indexer.
+ */
+public interface IndexingMetricsMBean {
+
+    String[] getIndexerNames();
+
+    long getActiveIndexing();
+
+    long getPendingBatchAssets();
+
+    long getTotalIndexed();
+
+    long getTotalFailed();
+
+    long getIndexed( final String indexerName );
+
+    long getFailed( final String indexerName );
+
+    long getTermCount( final String indexerName );
+
+    long getAssetBytes( final String indexerName );
+
+    double getMeanLatencyMillis( final String indexerName );
+
+    double getMaxLatencyMillis( final String indexerName );
+
+    String getSlowestAsset( final String indexerName );
+
+    long[] getLatencyHistogram( final String indexerName );
+
+    void reset();
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.backend.server.indexing;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * REST endpoint publishing IndexingMetrics as JSON at /rest/indexing/metrics. IndexingMetricsResponse is serialized by
+ * the RESTEasy Jackson provider.
+ */
+@Path("/indexing")
+@RequestScoped
+public class IndexingMetricsResource {
+
+    @Inject
+    private IndexingMetrics metrics;
+
+    public IndexingMetricsResource() {
+        //CDI proxy
+    }
+
+    IndexingMetricsResource( final IndexingMetrics metrics ) {
+        this.metrics = metrics;
+    }
+
+    @GET
+    @Path("/metrics")
+    @Produces(MediaType.APPLICATION_JSON)
+    public IndexingMetricsResponse getMetrics() {
+        return new IndexingMetricsResponse( metrics );
+    }
+
+}
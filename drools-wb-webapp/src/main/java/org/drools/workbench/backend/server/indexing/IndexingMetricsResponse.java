@@ -0,0 +1,69 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.backend.server.indexing;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Snapshot of IndexingMetrics returned by IndexingMetricsResource and serialized to JSON by the REST provider
+ */
+public class IndexingMetricsResponse {
+
+    private long activeIndexing;
+    private long pendingBatchAssets;
+    private long totalIndexed;
+    private long totalFailed;
+    private long[] latencyBucketsMillis;
+    private Collection<IndexerMetrics> indexers = new ArrayList<IndexerMetrics>();
+
+    public IndexingMetricsResponse() {
+    }
+
+    public IndexingMetricsResponse( final IndexingMetrics metrics ) {
+        this.activeIndexing = metrics.getActiveIndexing();
+        this.pendingBatchAssets = metrics.getPendingBatchAssets();
+        this.totalIndexed = metrics.getTotalIndexed();
+        this.totalFailed = metrics.getTotalFailed();
+        this.latencyBucketsMillis = IndexerMetrics.LATENCY_BUCKETS;
+        this.indexers = metrics.getAllIndexerMetrics();
+    }
+
+    public long getActiveIndexing() {
+        return activeIndexing;
+    }
+
+    public long getPendingBatchAssets() {
+        return pendingBatchAssets;
+    }
+
+    public long getTotalIndexed() {
+        return totalIndexed;
+    }
+
+    public long getTotalFailed() {
+        return totalFailed;
+    }
+
+    public long[] getLatencyBucketsMillis() {
+        return latencyBucketsMillis;
+    }
+
+    public Collection<IndexerMetrics> getIndexers() {
+        return indexers;
+    }
+
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.backend.server.indexing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Presets for the Lucene index and indexing pipeline, selected with the "org.drools.workbench.indexing.profile"
+ * system property. Settings of a profile are defaults only; any setting configured with its own system property
+ * takes precedence. The commit interval is the maximum staleness applied by GroupCommitIndexEngine.
+ * LuceneConfigBuilder does not expose the IndexWriter RAM buffer or merge policy, nor a persistent meta-model store,
+ * so profiles do not change them.
+ */
+public enum IndexingProfile {
+
+    /**
+     * Few Repositories of modest size. NIO index directory and a commit per change; matches the settings used
+     * before profiles existed.
+     */
+    SMALL("small",
+          DirectoryType.NIO,
+          1,
+          1000,
+          50000,
+          false,
+          0),
+
+    /**
+     * Many or large Repositories. Memory mapped index directory, larger queue and cache, and commits grouped
+     * with at most 500ms staleness.
+     */
+    LARGE_REPO("large",
+               DirectoryType.MMAP,
+               1,
+               5000,
+               200000,
+               false,
+               500),
+
+    /**
+     * Initial import of existing Repositories. Memory mapped index directory, more workers than cores to overlap
+     * IO with parsing, a full batch re-index on startup and commits grouped with at most 2s staleness.
+     */
+    BULK_MIGRATION("bulk",
+                   DirectoryType.MMAP,
+                   2,
+                   10000,
+                   50000,
+                   true,
+                   2000);
+
+    public static final String PROFILE_PROPERTY = "org.drools.workbench.indexing.profile";
+    public static final String DIRECTORY_PROPERTY = "org.drools.workbench.indexing.directory";
+    public static final String MAX_STALENESS_PROPERTY = "org.drools.workbench.indexing.maxStaleness";
+    public static final String BATCH_ON_STARTUP_PROPERTY = "org.drools.workbench.indexing.batchOnStartup";
+
+    private static final Logger logger = LoggerFactory.getLogger( IndexingProfile.class );
+
+    /**
+     * Lucene Directory implementations supported by LuceneConfigBuilder
+     */
+    public enum DirectoryType {
+        NIO,
+        MMAP,
+        INMEMORY
+    }
+
+    private final String name;
+    private final DirectoryType directoryType;
+    private final int workersPerProcessor;
+    private final int queueSize;
+    private final int cacheEntries;
+    private final boolean batchOnStartup;
+    private final long maxStalenessMillis;
+
+    private IndexingProfile( final String name,
+                             final DirectoryType directoryType,
+                             final int workersPerProcessor,
+                             final int queueSize,
+                             final int cacheEntries,
+                             final boolean batchOnStartup,
+                             final long maxStalenessMillis ) {
+        this.name = name;
+        this.directoryType = directoryType;
+        this.workersPerProcessor = workersPerProcessor;
+        this.queueSize = queueSize;
+        this.cacheEntries = cacheEntries;
+        this.batchOnStartup = batchOnStartup;
+        this.maxStalenessMillis = maxStalenessMillis;
+    }
+
+    /**
+     * The profile selected by system property, defaulting to SMALL
+     * @return
+     */
+    public static IndexingProfile getActive() {
+        final String value = System.getProperty( PROFILE_PROPERTY );
+        if ( value == null || value.trim().isEmpty() ) {
+            return SMALL;
+        }
+        for ( IndexingProfile profile : values() ) {
+            if ( profile.name.equalsIgnoreCase( value.trim() ) || profile.name().equalsIgnoreCase( value.trim() ) ) {
+                return profile;
+            }
+        }
+        logger.warn( "Unknown indexing profile '" + value + "'. Using '" + SMALL.name + "'." );
+        return SMALL;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DirectoryType getDirectoryType() {
+        final String value = System.getProperty( DIRECTORY_PROPERTY );
+        if ( value == null || value.trim().isEmpty() ) {
+            return directoryType;
+        }
+        try {
+            return DirectoryType.valueOf( value.trim().toUpperCase() );
+        } catch ( IllegalArgumentException e ) {
+            logger.warn( "Unknown index directory type '" + value + "'. Using '" + directoryType + "'." );
+            return directoryType;
+        }
+    }
+
+    public int getWorkers() {
+        return Integer.getInteger( ParallelBatchIndex.WORKERS_PROPERTY,
+                                   workersPerProcessor * Runtime.getRuntime().availableProcessors() );
+    }
+
+    public int getQueueSize() {
+        return Integer.getInteger( ParallelBatchIndex.QUEUE_SIZE_PROPERTY,
+                                   queueSize );
+    }
+
+    public int getCacheEntries() {
+        return Integer.getInteger( KObjectCache.MAX_ENTRIES_PROPERTY,
+                                   cacheEntries );
+    }
+
+    public boolean isBatchOnStartup() {
+        final String value = System.getProperty( BATCH_ON_STARTUP_PROPERTY );
+        return ( value == null ? batchOnStartup : Boolean.parseBoolean( value ) );
+    }
+
+    /**
+     * Maximum time, in milliseconds, a change may remain uncommitted and hence invisible to searches. Zero or less
+     * commits every change as it happens.
+     * @return
+     */
+    public long getMaxStalenessMillis() {
+        return Long.getLong( MAX_STALENESS_PROPERTY,
+                             maxStalenessMillis );
+    }
+
+    @Override
+    public String toString() {
+        return name + " (directory=" + getDirectoryType() + ", workers=" + getWorkers() + ", queueSize=" + getQueueSize() + ", cacheEntries=" + getCacheEntries() + ", batchOnStartup=" + isBatchOnStartup() + ", maxStaleness=" + getMaxStalenessMillis() + "ms)";
+    }
+
+}
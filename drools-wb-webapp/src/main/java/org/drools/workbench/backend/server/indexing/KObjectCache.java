@@ -0,0 +1,382 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.backend.server.indexing;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+
+import org.guvnor.common.services.project.builder.events.InvalidateDMOPackageCacheEvent;
+import org.guvnor.common.services.project.builder.events.InvalidateDMOProjectCacheEvent;
+import org.guvnor.common.services.project.model.Project;
+import org.kie.workbench.common.services.shared.project.KieProjectService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.uberfire.commons.data.Pair;
+
+/**
+ * Cache of the index terms produced by Indexers, keyed by the content of the indexed asset. The cache is bounded,
+ * evicting the least recently used entries, and is persisted between restarts, beside the Lucene index, so that
+ * unchanged assets do not need to be parsed when re-indexed. Assets with the same content, for example in another
+ * branch or clone, share an entry; an entry records the Projects it has been used for and is invalidated with the
+ * DataModelOracle of any of them. Entries are persisted as plain strings rather than serialized objects, so a
+ * tampered file can at worst yield wrong terms.
+ */
+@ApplicationScoped
+public class KObjectCache {
+
+    public static final String MAX_ENTRIES_PROPERTY = "org.drools.workbench.indexing.cache.maxEntries";
+    public static final String CACHE_FILE_PROPERTY = "org.drools.workbench.indexing.cache.file";
+
+    //Location of the Lucene index, as configured for LuceneConfigBuilder
+    public static final String INDEX_DIR_PROPERTY = "org.uberfire.metadata.index.dir";
+
+    private static final Logger logger = LoggerFactory.getLogger( KObjectCache.class );
+
+    private static final String INDEX_DIR = ".index";
+    private static final String CACHE_FILE = "kobject.cache";
+
+    private static final int MAGIC = 0x4B4F4243;
+    private static final int FORMAT_VERSION = 2;
+
+    //Guards against allocating huge buffers when reading a corrupt file
+    private static final int MAX_STRING_BYTES = 1024 * 1024;
+
+    @Inject
+    private KieProjectService projectService;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private Map<String, Entry> entries;
+
+    //Incremented on invalidation so that terms produced beforehand are not cached afterwards
+    private long generation;
+
+    @PostConstruct
+    public void setup() {
+        final int maxEntries = IndexingProfile.getActive().getCacheEntries();
+        this.entries = new LinkedHashMap<String, Entry>( 16,
+                                                         0.75f,
+                                                         true ) {
+            @Override
+            protected boolean removeEldestEntry( final Map.Entry<String, Entry> eldest ) {
+                if ( size() > maxEntries ) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        load();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        store();
+    }
+
+    /**
+     * Terms cached for the key. The Project is recorded against the entry so that it is invalidated with the
+     * Project's DataModelOracle.
+     * @param key
+     * @param projectRoot
+     * @return null if the key is not cached
+     */
+    public Set<Pair<String, String>> get( final String key,
+                                         final String projectRoot ) {
+        final Entry entry;
+        synchronized ( this ) {
+            entry = entries.get( key );
+            if ( entry != null ) {
+                entry.projectRoots.add( projectRoot );
+            }
+        }
+        if ( entry == null ) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.getTerms();
+    }
+
+    /**
+     * Generation of the cache; read before producing the terms to be put
+     * @return
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Cache terms, unless the cache has been invalidated since the given generation
+     * @param key
+     * @param projectRoot
+     * @param terms
+     * @param generation
+     */
+    public void put( final String key,
+                     final String projectRoot,
+                     final Set<Pair<String, String>> terms,
+                     final long generation ) {
+        final Entry entry = new Entry( projectRoot,
+                                       terms );
+        synchronized ( this ) {
+            if ( generation == this.generation ) {
+                entries.put( key,
+                             entry );
+            }
+        }
+    }
+
+    public synchronized void invalidateProject( final String projectRoot ) {
+        generation++;
+        final Iterator<Entry> itr = entries.values().iterator();
+        while ( itr.hasNext() ) {
+            if ( itr.next().projectRoots.contains( projectRoot ) ) {
+                itr.remove();
+            }
+        }
+    }
+
+    public synchronized void invalidate() {
+        generation++;
+        entries.clear();
+    }
+
+    public void onInvalidateProject( @Observes final InvalidateDMOProjectCacheEvent event ) {
+        final Project project = event.getProject();
+        if ( project != null ) {
+            invalidateProject( getProjectRoot( project ) );
+        }
+    }
+
+    public void onInvalidatePackage( @Observes final InvalidateDMOPackageCacheEvent event ) {
+        final Project project = projectService.resolveProject( event.getResourcePath() );
+        if ( project != null ) {
+            invalidateProject( getProjectRoot( project ) );
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    public static String getProjectRoot( final Project project ) {
+        if ( project == null ) {
+            return "";
+        }
+        return project.getRootPath().toURI();
+    }
+
+    File getCacheFile() {
+        final String cacheFile = System.getProperty( CACHE_FILE_PROPERTY );
+        if ( cacheFile != null ) {
+            return new File( cacheFile );
+        }
+        final String indexDir = System.getProperty( INDEX_DIR_PROPERTY );
+        final File dir = ( indexDir == null ? new File( INDEX_DIR ) : new File( indexDir,
+                                                                              INDEX_DIR ) );
+        return new File( dir.getAbsoluteFile(),
+                         CACHE_FILE );
+    }
+
+    synchronized void load() {
+        final File file = getCacheFile();
+        if ( !file.exists() ) {
+            return;
+        }
+        DataInputStream dis = null;
+        try {
+            dis = new DataInputStream( new BufferedInputStream( new FileInputStream( file ) ) );
+            if ( dis.readInt() != MAGIC || dis.readInt() != FORMAT_VERSION ) {
+                logger.warn( "Ignoring cached index entries in '" + file.getAbsolutePath() + "' of an unknown format. The cache will be rebuilt." );
+                return;
+            }
+            final int size = dis.readInt();
+            for ( int i = 0; i < size; i++ ) {
+                final String key = readString( dis );
+                final int projectRootCount = dis.readInt();
+                if ( projectRootCount < 0 || projectRootCount > MAX_STRING_BYTES ) {
+                    throw new IOException( "Invalid project count " + projectRootCount );
+                }
+                final Set<String> projectRoots = new HashSet<String>();
+                for ( int j = 0; j < projectRootCount; j++ ) {
+                    projectRoots.add( readString( dis ) );
+                }
+                final int termCount = dis.readInt();
+                if ( termCount < 0 || termCount > MAX_STRING_BYTES ) {
+                    throw new IOException( "Invalid term count " + termCount );
+                }
+                final String[] names = new String[ termCount ];
+                final String[] values = new String[ termCount ];
+                for ( int j = 0; j < termCount; j++ ) {
+                    names[ j ] = readString( dis );
+                    values[ j ] = readString( dis );
+                }
+                entries.put( key,
+                             new Entry( projectRoots,
+                                        names,
+                                        values ) );
+            }
+            evictions.set( 0 );
+            logger.info( "Loaded " + entries.size() + " cached index entries from '" + file.getAbsolutePath() + "'." );
+
+        } catch ( Exception e ) {
+            logger.warn( "Unable to load cached index entries from '" + file.getAbsolutePath() + "'. The cache will be rebuilt.",
+                         e );
+            entries.clear();
+        } finally {
+            close( dis );
+        }
+    }
+
+    synchronized void store() {
+        final File file = getCacheFile();
+        if ( file.getParentFile() != null ) {
+            file.getParentFile().mkdirs();
+        }
+        DataOutputStream dos = null;
+        try {
+            dos = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( file ) ) );
+            dos.writeInt( MAGIC );
+            dos.writeInt( FORMAT_VERSION );
+            dos.writeInt( entries.size() );
+            for ( Map.Entry<String, Entry> e : entries.entrySet() ) {
+                writeString( dos,
+                             e.getKey() );
+                dos.writeInt( e.getValue().projectRoots.size() );
+                for ( String projectRoot : e.getValue().projectRoots ) {
+                    writeString( dos,
+                                 projectRoot );
+                }
+                dos.writeInt( e.getValue().names.length );
+                for ( int i = 0; i < e.getValue().names.length; i++ ) {
+                    writeString( dos,
+                                 e.getValue().names[ i ] );
+                    writeString( dos,
+                                 e.getValue().values[ i ] );
+                }
+            }
+
+        } catch ( Exception e ) {
+            logger.warn( "Unable to store cached index entries to '" + file.getAbsolutePath() + "'.",
+                         e );
+        } finally {
+            close( dos );
+        }
+    }
+
+    private static void writeString( final DataOutputStream dos,
+                                     final String value ) throws IOException {
+        final byte[] bytes = value.getBytes( "UTF-8" );
+        dos.writeInt( bytes.length );
+        dos.write( bytes );
+    }
+
+    private static String readString( final DataInputStream dis ) throws IOException {
+        final int length = dis.readInt();
+        if ( length < 0 || length > MAX_STRING_BYTES ) {
+            throw new IOException( "Invalid string length " + length );
+        }
+        final byte[] bytes = new byte[ length ];
+        dis.readFully( bytes );
+        return new String( bytes,
+                           "UTF-8" );
+    }
+
+    private void close( final Closeable closeable ) {
+        if ( closeable == null ) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch ( Exception e ) {
+            //Swallow
+        }
+    }
+
+    private static class Entry {
+
+        //Guarded by the KObjectCache
+        private final Set<String> projectRoots;
+        private final String[] names;
+        private final String[] values;
+
+        private Entry( final String projectRoot,
+                       final Set<Pair<String, String>> terms ) {
+            this.projectRoots = new HashSet<String>();
+            this.projectRoots.add( projectRoot );
+            this.names = new String[ terms.size() ];
+            this.values = new String[ terms.size() ];
+            int i = 0;
+            for ( Pair<String, String> term : terms ) {
+                names[ i ] = term.getK1();
+                values[ i ] = term.getK2();
+                i++;
+            }
+        }
+
+        private Entry( final Set<String> projectRoots,
+                       final String[] names,
+                       final String[] values ) {
+            this.projectRoots = projectRoots;
+            this.names = names;
+            this.values = values;
+        }
+
+        private Set<Pair<String, String>> getTerms() {
+            final Set<Pair<String, String>> terms = new HashSet<Pair<String, String>>();
+            for ( int i = 0; i < names.length; i++ ) {
+                terms.add( new Pair<String, String>( names[ i ],
+                                                     values[ i ] ) );
+            }
+            return terms;
+        }
+
+    }
+
+}
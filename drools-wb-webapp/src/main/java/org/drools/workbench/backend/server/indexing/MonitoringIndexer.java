@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.backend.server.indexing;
+
+import org.kie.uberfire.metadata.engine.Indexer;
+import org.kie.uberfire.metadata.model.KObject;
+import org.kie.uberfire.metadata.model.KProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.uberfire.java.nio.file.Files;
+import org.uberfire.java.nio.file.Path;
+
+/**
+ * Indexer that records the time taken, asset size and terms produced by the editor's Indexer in IndexingMetrics.
+ * Editors' Indexers signal failure by returning null; failures are counted and logged with the asset's Path.
+ */
+public class MonitoringIndexer extends DelegatingIndexer {
+
+    private static final Logger logger = LoggerFactory.getLogger( MonitoringIndexer.class );
+
+    private final IndexingMetrics metrics;
+
+    public MonitoringIndexer( final Indexer delegate,
+                              final IndexingMetrics metrics ) {
+        super( delegate );
+        this.metrics = metrics;
+    }
+
+    @Override
+    public KObject toKObject( final Path path ) {
+        final IndexerMetrics indexerMetrics = metrics.getIndexerMetrics( getIndexerName( delegate ) );
+        final String asset = path.toUri().toString();
+        final long bytes = getSize( path );
+        final long start = System.nanoTime();
+        metrics.startIndexing();
+        try {
+            final KObject kObject = delegate.toKObject( path );
+            final long nanos = System.nanoTime() - start;
+            if ( kObject == null ) {
+                indexerMetrics.recordFailure( asset,
+                                              nanos,
+                                              bytes );
+                logger.warn( indexerMetrics.getIndexerName() + " was unable to index '" + asset + "'." );
+            } else {
+                indexerMetrics.recordSuccess( asset,
+                                              nanos,
+                                              bytes,
+                                              getTermCount( kObject ) );
+            }
+            return kObject;
+
+        } catch ( RuntimeException e ) {
+            indexerMetrics.recordFailure( asset,
+                                          System.nanoTime() - start,
+                                          bytes );
+            throw e;
+        } finally {
+            metrics.finishIndexing();
+        }
+    }
+
+    private long getSize( final Path path ) {
+        try {
+            return Files.size( path );
+        } catch ( Exception e ) {
+            return 0;
+        }
+    }
+
+    private int getTermCount( final KObject kObject ) {
+        int count = 0;
+        for ( KProperty<?> property : kObject.getProperties() ) {
+            count++;
+        }
+        return count;
+    }
+
+}
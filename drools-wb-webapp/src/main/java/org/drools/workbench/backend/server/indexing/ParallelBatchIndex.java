@@ -0,0 +1,341 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.backend.server.indexing;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.guvnor.structure.repositories.Repository;
+import org.guvnor.structure.repositories.RepositoryService;
+import org.kie.uberfire.metadata.engine.Indexer;
+import org.kie.uberfire.metadata.engine.MetaIndexEngine;
+import org.kie.uberfire.metadata.io.IndexersFactory;
+import org.kie.uberfire.metadata.io.KObjectUtil;
+import org.kie.uberfire.metadata.model.KCluster;
+import org.kie.uberfire.metadata.model.KObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.uberfire.backend.server.util.Paths;
+import org.uberfire.java.nio.file.FileVisitResult;
+import org.uberfire.java.nio.file.Path;
+import org.uberfire.java.nio.file.SimpleFileVisitor;
+import org.uberfire.java.nio.file.attribute.BasicFileAttributes;
+
+import static org.uberfire.java.nio.file.Files.*;
+
+/**
+ * Re-indexes Repositories using a bounded pool of workers so that the Indexers registered by IndexersBootstrap
+ * convert assets into KObjects concurrently rather than one after another. Pending work is held in a bounded
+ * queue; when the queue is full the thread walking the Repository indexes the asset itself, throttling discovery
+ * to the rate the workers can sustain. When run on startup it replaces the sequential batch of IOServiceIndexedImpl,
+ * which GroupCommitIndexEngine suppresses until this batch ends.
+ */
+@ApplicationScoped
+public class ParallelBatchIndex {
+
+    public static final String WORKERS_PROPERTY = "org.drools.workbench.indexing.workers";
+    public static final String QUEUE_SIZE_PROPERTY = "org.drools.workbench.indexing.queueSize";
+
+    private static final Logger logger = LoggerFactory.getLogger( ParallelBatchIndex.class );
+
+    @Inject
+    @Named("indexEngine")
+    private MetaIndexEngine indexEngine;
+
+    @Inject
+    private RepositoryService repositoryService;
+
+    private final AtomicInteger activeBatches = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final CountDownLatch initialBatch = new CountDownLatch( 1 );
+
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor( new IndexingThreadFactory( "batch-index-coordinator" ) );
+
+    public ParallelBatchIndex() {
+        //CDI proxy
+    }
+
+    ParallelBatchIndex( final MetaIndexEngine indexEngine ) {
+        this.indexEngine = indexEngine;
+    }
+
+    /**
+     * Re-index all Repositories in the background. Use isReady() or awaitReady() to determine completion.
+     */
+    public void reindexAllAsync() {
+        activeBatches.incrementAndGet();
+        coordinator.execute( new Runnable() {
+            @Override
+            public void run() {
+                final Set<String> indexed = new HashSet<String>();
+                try {
+                    reindex( getRepositories(),
+                             indexed );
+                } finally {
+                    //IOServiceIndexedImpl indexes fresh Repositories from now on; any created whilst this batch ran
+                    //may have been missed by both and are indexed here
+                    endStartupBatch();
+                    try {
+                        reindex( getRepositories(),
+                                 indexed );
+                    } finally {
+                        activeBatches.decrementAndGet();
+                        initialBatch.countDown();
+                    }
+                }
+            }
+        } );
+    }
+
+    /**
+     * Re-index a single Repository, blocking until all of its assets have been indexed and committed.
+     * @param repository
+     */
+    public void reindex( final Repository repository ) {
+        final Path root = Paths.convert( repository.getRoot() );
+        reindex( root,
+                 KObjectUtil.toKCluster( root.getFileSystem() ),
+                 repository.getAlias(),
+                 new ArrayList<Indexer>( IndexersFactory.getIndexers() ) );
+    }
+
+    void reindex( final Path root,
+                  final KCluster cluster,
+                  final String alias,
+                  final List<Indexer> indexers ) {
+        final ThreadPoolExecutor workers = makeWorkers();
+
+        final long start = System.currentTimeMillis();
+        final AtomicInteger submitted = new AtomicInteger();
+        indexEngine.startBatch( cluster );
+        try {
+            walkFileTree( root,
+                          new SimpleFileVisitor<Path>() {
+                              @Override
+                              public FileVisitResult preVisitDirectory( final Path dir,
+                                                                        final BasicFileAttributes attrs ) {
+                                  return isHidden( dir ) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                              }
+
+                              @Override
+                              public FileVisitResult visitFile( final Path file,
+                                                                final BasicFileAttributes attrs ) {
+                                  if ( !isHidden( file ) ) {
+                                      final Indexer indexer = getIndexer( indexers,
+                                                                          file );
+                                      if ( indexer != null ) {
+                                          submitted.incrementAndGet();
+                                          pending.incrementAndGet();
+                                          workers.execute( new IndexTask( indexer,
+                                                                          file ) );
+                                      }
+                                  }
+                                  return FileVisitResult.CONTINUE;
+                              }
+                          } );
+        } finally {
+            workers.shutdown();
+            awaitTermination( workers );
+            indexEngine.commit( cluster );
+        }
+
+        //Metrics for each Indexer are recorded by MonitoringIndexer and published by IndexingMetrics
+        final long elapsed = System.currentTimeMillis() - start;
+        final String assetsPerSecond = String.format( "%.1f",
+                                                      getAssetsPerSecond( submitted.get(),
+                                                                          elapsed ) );
+        logger.info( "Indexed " + submitted.get() + " assets in Repository '" + alias + "' in " + elapsed + "ms (" + assetsPerSecond + " assets/s)." );
+    }
+
+    /**
+     * Whether the initial batch re-index has completed and no further batches are running
+     * @return
+     */
+    public boolean isReady() {
+        return initialBatch.getCount() == 0 && activeBatches.get() == 0;
+    }
+
+    /**
+     * Wait for the initial batch re-index to complete
+     * @param timeout
+     * @param unit
+     * @return true if the index is ready
+     * @throws InterruptedException
+     */
+    public boolean awaitReady( final long timeout,
+                               final TimeUnit unit ) throws InterruptedException {
+        return initialBatch.await( timeout,
+                                   unit ) && isReady();
+    }
+
+    /**
+     * The number of assets submitted for indexing by running batches that have not yet been indexed
+     * @return
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+    }
+
+    private void reindex( final Collection<Repository> repositories,
+                          final Set<String> indexed ) {
+        for ( Repository repository : repositories ) {
+            if ( indexed.add( repository.getAlias() ) ) {
+                reindex( repository );
+            }
+        }
+    }
+
+    private void endStartupBatch() {
+        if ( indexEngine instanceof GroupCommitIndexEngine ) {
+            ( (GroupCommitIndexEngine) indexEngine ).endStartupBatch();
+        }
+    }
+
+    private Collection<Repository> getRepositories() {
+        final Collection<Repository> repositories = repositoryService.getRepositories();
+        if ( repositories == null ) {
+            return new ArrayList<Repository>();
+        }
+        return repositories;
+    }
+
+    private ThreadPoolExecutor makeWorkers() {
+        final int workers = getWorkers();
+        return new ThreadPoolExecutor( workers,
+                                       workers,
+                                       0L,
+                                       TimeUnit.MILLISECONDS,
+                                       new ArrayBlockingQueue<Runnable>( getQueueSize() ),
+                                       new IndexingThreadFactory( "batch-index-worker" ),
+                                       new ThreadPoolExecutor.CallerRunsPolicy() );
+    }
+
+    private int getWorkers() {
+        final int workers = IndexingProfile.getActive().getWorkers();
+        return Math.max( 1,
+                         workers );
+    }
+
+    private int getQueueSize() {
+        final int queueSize = IndexingProfile.getActive().getQueueSize();
+        return Math.max( 1,
+                         queueSize );
+    }
+
+    private void awaitTermination( final ExecutorService workers ) {
+        try {
+            while ( !workers.awaitTermination( 1,
+                                               TimeUnit.MINUTES ) ) {
+                logger.info( "Waiting for batch indexing workers to complete..." );
+            }
+        } catch ( InterruptedException e ) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean isHidden( final Path path ) {
+        final Path fileName = path.getFileName();
+        return fileName != null && fileName.toString().startsWith( "." );
+    }
+
+    private Indexer getIndexer( final List<Indexer> indexers,
+                                final Path path ) {
+        for ( Indexer indexer : indexers ) {
+            if ( indexer.supportsPath( path ) ) {
+                return indexer;
+            }
+        }
+        return null;
+    }
+
+    private double getAssetsPerSecond( final int assets,
+                                       final long millis ) {
+        if ( millis == 0 ) {
+            return 0;
+        }
+        return assets / ( (double) millis / TimeUnit.SECONDS.toMillis( 1 ) );
+    }
+
+    private class IndexTask implements Runnable {
+
+        private final Indexer indexer;
+        private final Path path;
+
+        private IndexTask( final Indexer indexer,
+                           final Path path ) {
+            this.indexer = indexer;
+            this.path = path;
+        }
+
+        @Override
+        public void run() {
+            try {
+                final KObject kObject = indexer.toKObject( path );
+                if ( kObject != null ) {
+                    indexEngine.index( kObject );
+                }
+
+            } catch ( Exception e ) {
+                logger.error( "Unable to index '" + path.toUri().toString() + "'.",
+                              e );
+            } finally {
+                pending.decrementAndGet();
+            }
+        }
+
+    }
+
+    private static class IndexingThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        private IndexingThreadFactory( final String prefix ) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread( final Runnable r ) {
+            final Thread t = new Thread( r,
+                                         prefix + "-" + count.incrementAndGet() );
+            t.setDaemon( true );
+            return t;
+        }
+
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.backend.server.indexing;
+
+import org.junit.Test;
+import org.kie.uberfire.metadata.engine.MetaIndexEngine;
+
+import static org.drools.workbench.backend.server.indexing.RecordingIndexEngine.*;
+import static org.junit.Assert.*;
+
+public class GroupCommitIndexEngineTest {
+
+    private static final long MAX_STALENESS = 50;
+
+    @Test
+    public void testChangesAreGrouped() throws Exception {
+        final RecordingIndexEngine delegate = new RecordingIndexEngine();
+        final MetaIndexEngine engine = GroupCommitIndexEngine.wrap( delegate,
+                                                                    MAX_STALENESS );
+
+        engine.index( makeKObject( "cluster1" ) );
+        engine.index( makeKObject( "cluster1" ) );
+        assertEquals( 1,
+                      delegate.count( "startBatch:cluster1" ) );
+        assertEquals( 0,
+                      delegate.count( "commit:cluster1" ) );
+
+        Thread.sleep( MAX_STALENESS * 4 );
+        assertEquals( 1,
+                      delegate.count( "commit:cluster1" ) );
+    }
+
+    @Test
+    public void testCallerBatchIsNotCommittedByGroupedCommit() throws Exception {
+        final RecordingIndexEngine delegate = new RecordingIndexEngine();
+        final MetaIndexEngine engine = GroupCommitIndexEngine.wrap( delegate,
+                                                                    MAX_STALENESS );
+
+        //A grouped commit is scheduled before the caller, e.g. ParallelBatchIndex, starts its batch
+        engine.index( makeKObject( "cluster1" ) );
+        engine.startBatch( makeCluster( "cluster1" ) );
+        engine.index( makeKObject( "cluster1" ) );
+        engine.index( makeKObject( "cluster1" ) );
+
+        Thread.sleep( MAX_STALENESS * 4 );
+        assertEquals( 0,
+                      delegate.count( "commit:cluster1" ) );
+
+        engine.commit( makeCluster( "cluster1" ) );
+        assertEquals( 1,
+                      delegate.count( "commit:cluster1" ) );
+
+        //Changes following the caller's batch are grouped again
+        engine.index( makeKObject( "cluster1" ) );
+        Thread.sleep( MAX_STALENESS * 4 );
+        assertEquals( 2,
+                      delegate.count( "commit:cluster1" ) );
+    }
+
+    @Test
+    public void testFreshIndexIsSuppressedDuringStartupBatch() throws Exception {
+        final RecordingIndexEngine delegate = new RecordingIndexEngine();
+        final MetaIndexEngine engine = GroupCommitIndexEngine.wrap( delegate,
+                                                                    0,
+                                                                    true );
+        assertFalse( engine.freshIndex( makeCluster( "cluster1" ) ) );
+
+        ( (GroupCommitIndexEngine) engine ).endStartupBatch();
+        assertTrue( engine.freshIndex( makeCluster( "cluster1" ) ) );
+
+        //Grouping is disabled, so changes are not batched by the engine
+        engine.index( makeKObject( "cluster1" ) );
+        assertEquals( 0,
+                      delegate.count( "startBatch:cluster1" ) );
+    }
+
+    @Test
+    public void testGroupingDisabled() throws Exception {
+        final RecordingIndexEngine delegate = new RecordingIndexEngine();
+        assertSame( delegate,
+                    GroupCommitIndexEngine.wrap( delegate,
+                                                 0 ) );
+    }
+
+}
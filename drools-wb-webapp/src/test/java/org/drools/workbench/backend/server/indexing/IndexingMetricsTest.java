@@ -0,0 +1,157 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.backend.server.indexing;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.kie.uberfire.metadata.engine.Indexer;
+import org.kie.uberfire.metadata.model.KObject;
+import org.kie.uberfire.metadata.model.KObjectKey;
+import org.kie.uberfire.metadata.model.KProperty;
+import org.uberfire.java.nio.file.Path;
+import org.uberfire.java.nio.file.Paths;
+
+import static org.junit.Assert.*;
+
+public class IndexingMetricsTest {
+
+    private File file;
+    private IndexingMetrics metrics;
+
+    @Before
+    public void setup() throws Exception {
+        file = File.createTempFile( "rule",
+                                    ".drl" );
+        final FileWriter writer = new FileWriter( file );
+        try {
+            writer.write( "rule1" );
+        } finally {
+            writer.close();
+        }
+        metrics = new IndexingMetrics( new ParallelBatchIndex( new RecordingIndexEngine() ) );
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testMonitoringIndexer() {
+        final Path path = Paths.get( file.toURI() );
+        new MonitoringIndexer( new StubIndexer( true ),
+                               metrics ).toKObject( path );
+        new MonitoringIndexer( new StubIndexer( false ),
+                               metrics ).toKObject( path );
+
+        final IndexerMetrics m = metrics.getIndexerMetrics( "StubIndexer" );
+        assertEquals( 1,
+                      m.getIndexed() );
+        assertEquals( 1,
+                      m.getFailed() );
+        assertEquals( 2,
+                      m.getTermCount() );
+        assertEquals( 2 * file.length(),
+                      m.getAssetBytes() );
+        assertEquals( 0,
+                      metrics.getActiveIndexing() );
+    }
+
+    @Test
+    public void testResourceIsSerializedToJson() throws Exception {
+        new MonitoringIndexer( new StubIndexer( true ),
+                               metrics ).toKObject( Paths.get( file.toURI() ) );
+
+        final IndexingMetricsResource resource = new IndexingMetricsResource( metrics );
+        final ObjectMapper mapper = new ObjectMapper();
+        final JsonNode json = mapper.readTree( mapper.writeValueAsString( resource.getMetrics() ) );
+
+        assertEquals( 1,
+                      json.get( "totalIndexed" ).getLongValue() );
+        assertEquals( 0,
+                      json.get( "totalFailed" ).getLongValue() );
+        assertEquals( IndexerMetrics.LATENCY_BUCKETS.length,
+                      json.get( "latencyBucketsMillis" ).size() );
+
+        final JsonNode indexer = json.get( "indexers" ).get( 0 );
+        assertEquals( "StubIndexer",
+                      indexer.get( "indexerName" ).getTextValue() );
+        assertEquals( file.length(),
+                      indexer.get( "assetBytes" ).getLongValue() );
+        assertEquals( IndexerMetrics.LATENCY_BUCKETS.length + 1,
+                      indexer.get( "latencyHistogram" ).size() );
+    }
+
+    private static Object makeProxy( final Class<?> type,
+                                     final Object properties ) {
+        return Proxy.newProxyInstance( type.getClassLoader(),
+                                       new Class<?>[]{ type },
+                                       new InvocationHandler() {
+                                           @Override
+                                           public Object invoke( final Object proxy,
+                                                                 final Method method,
+                                                                 final Object[] args ) {
+                                               if ( "getProperties".equals( method.getName() ) ) {
+                                                   return properties;
+                                               }
+                                               return null;
+                                           }
+                                       } );
+    }
+
+    private static class StubIndexer implements Indexer {
+
+        private final boolean succeed;
+
+        private StubIndexer( final boolean succeed ) {
+            this.succeed = succeed;
+        }
+
+        @Override
+        public boolean supportsPath( final Path path ) {
+            return true;
+        }
+
+        @Override
+        public KObject toKObject( final Path path ) {
+            if ( !succeed ) {
+                return null;
+            }
+            return (KObject) makeProxy( KObject.class,
+                                        Arrays.asList( makeProxy( KProperty.class,
+                                                                  null ),
+                                                       makeProxy( KProperty.class,
+                                                                  null ) ) );
+        }
+
+        @Override
+        public KObjectKey toKObjectKey( final Path path ) {
+            return null;
+        }
+
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.backend.server.indexing;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class IndexingProfileTest {
+
+    @After
+    public void tearDown() {
+        System.clearProperty( IndexingProfile.PROFILE_PROPERTY );
+        System.clearProperty( IndexingProfile.DIRECTORY_PROPERTY );
+        System.clearProperty( IndexingProfile.MAX_STALENESS_PROPERTY );
+        System.clearProperty( IndexingProfile.BATCH_ON_STARTUP_PROPERTY );
+    }
+
+    @Test
+    public void testDefaultProfile() {
+        assertEquals( IndexingProfile.SMALL,
+                      IndexingProfile.getActive() );
+        assertEquals( IndexingProfile.DirectoryType.NIO,
+                      IndexingProfile.SMALL.getDirectoryType() );
+        assertEquals( 0,
+                      IndexingProfile.SMALL.getMaxStalenessMillis() );
+        assertFalse( IndexingProfile.SMALL.isBatchOnStartup() );
+    }
+
+    @Test
+    public void testProfileSelectedByName() {
+        System.setProperty( IndexingProfile.PROFILE_PROPERTY,
+                            "bulk" );
+        assertEquals( IndexingProfile.BULK_MIGRATION,
+                      IndexingProfile.getActive() );
+
+        System.setProperty( IndexingProfile.PROFILE_PROPERTY,
+                            "LARGE_REPO" );
+        assertEquals( IndexingProfile.LARGE_REPO,
+                      IndexingProfile.getActive() );
+
+        System.setProperty( IndexingProfile.PROFILE_PROPERTY,
+                            "unknown" );
+        assertEquals( IndexingProfile.SMALL,
+                      IndexingProfile.getActive() );
+    }
+
+    @Test
+    public void testSystemPropertiesOverrideProfile() {
+        System.setProperty( IndexingProfile.DIRECTORY_PROPERTY,
+                            "inmemory" );
+        System.setProperty( IndexingProfile.MAX_STALENESS_PROPERTY,
+                            "100" );
+        System.setProperty( IndexingProfile.BATCH_ON_STARTUP_PROPERTY,
+                            "false" );
+
+        assertEquals( IndexingProfile.DirectoryType.INMEMORY,
+                      IndexingProfile.BULK_MIGRATION.getDirectoryType() );
+        assertEquals( 100,
+                      IndexingProfile.BULK_MIGRATION.getMaxStalenessMillis() );
+        assertFalse( IndexingProfile.BULK_MIGRATION.isBatchOnStartup() );
+    }
+
+}
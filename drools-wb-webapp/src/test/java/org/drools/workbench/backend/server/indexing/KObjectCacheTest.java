@@ -0,0 +1,207 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.backend.server.indexing;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.uberfire.commons.data.Pair;
+
+import static org.junit.Assert.*;
+
+public class KObjectCacheTest {
+
+    private File cacheFile;
+
+    @Before
+    public void setup() throws Exception {
+        cacheFile = File.createTempFile( "kobject",
+                                         ".cache" );
+        cacheFile.delete();
+        System.setProperty( KObjectCache.CACHE_FILE_PROPERTY,
+                            cacheFile.getAbsolutePath() );
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty( KObjectCache.CACHE_FILE_PROPERTY );
+        System.clearProperty( KObjectCache.MAX_ENTRIES_PROPERTY );
+        cacheFile.delete();
+    }
+
+    @Test
+    public void testStoreAndLoad() throws Exception {
+        final KObjectCache cache1 = new KObjectCache();
+        cache1.setup();
+        cache1.put( "key1",
+                    "default://project1",
+                    makeTerms( "rule",
+                               "Rule 1" ),
+                    cache1.getGeneration() );
+        cache1.put( "key2",
+                    "default://project2",
+                    makeTerms( "type",
+                               "org.test.Applicant" ),
+                    cache1.getGeneration() );
+        cache1.shutdown();
+        assertTrue( cacheFile.exists() );
+
+        final KObjectCache cache2 = new KObjectCache();
+        cache2.setup();
+        assertEquals( 2,
+                      cache2.getSize() );
+        assertEquals( makeTerms( "rule",
+                                 "Rule 1" ),
+                      cache2.get( "key1",
+                                  "default://project1" ) );
+
+        //Entries retain their Project once loaded
+        cache2.invalidateProject( "default://project1" );
+        assertNull( cache2.get( "key1",
+                                "default://project1" ) );
+        assertNotNull( cache2.get( "key2",
+                                   "default://project2" ) );
+    }
+
+    @Test
+    public void testSerializedObjectsAreIgnored() throws Exception {
+        final ObjectOutputStream oos = new ObjectOutputStream( new FileOutputStream( cacheFile ) );
+        try {
+            oos.writeObject( new HashSet<String>() );
+        } finally {
+            oos.close();
+        }
+
+        final KObjectCache cache = new KObjectCache();
+        cache.setup();
+        assertEquals( 0,
+                      cache.getSize() );
+    }
+
+    @Test
+    public void testTruncatedFileIsIgnored() throws Exception {
+        final KObjectCache cache1 = new KObjectCache();
+        cache1.setup();
+        cache1.put( "key1",
+                    "default://project1",
+                    makeTerms( "rule",
+                               "Rule 1" ),
+                    cache1.getGeneration() );
+        cache1.shutdown();
+
+        final RandomAccessFile file = new RandomAccessFile( cacheFile,
+                                                           "rw" );
+        try {
+            file.setLength( file.length() - 4 );
+        } finally {
+            file.close();
+        }
+
+        final KObjectCache cache2 = new KObjectCache();
+        cache2.setup();
+        assertEquals( 0,
+                      cache2.getSize() );
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntriesAreEvicted() throws Exception {
+        System.setProperty( KObjectCache.MAX_ENTRIES_PROPERTY,
+                            "2" );
+        final KObjectCache cache = new KObjectCache();
+        cache.setup();
+        cache.put( "key1",
+                   "",
+                   makeTerms( "rule",
+                              "Rule 1" ),
+                   cache.getGeneration() );
+        cache.put( "key2",
+                   "",
+                   makeTerms( "rule",
+                              "Rule 2" ),
+                   cache.getGeneration() );
+        cache.get( "key1",
+                   "" );
+        cache.put( "key3",
+                   "",
+                   makeTerms( "rule",
+                              "Rule 3" ),
+                   cache.getGeneration() );
+
+        assertNotNull( cache.get( "key1",
+                                  "" ) );
+        assertNull( cache.get( "key2",
+                               "" ) );
+        assertNotNull( cache.get( "key3",
+                                  "" ) );
+        assertEquals( 1,
+                      cache.getEvictions() );
+    }
+
+    @Test
+    public void testSharedEntryIsInvalidatedWithEitherProject() throws Exception {
+        final KObjectCache cache = new KObjectCache();
+        cache.setup();
+        cache.put( "key1",
+                   "default://master@project1",
+                   makeTerms( "rule",
+                              "Rule 1" ),
+                   cache.getGeneration() );
+
+        //The same content in another branch shares the entry
+        assertEquals( makeTerms( "rule",
+                                 "Rule 1" ),
+                      cache.get( "key1",
+                                 "default://develop@project1" ) );
+
+        cache.invalidateProject( "default://develop@project1" );
+        assertNull( cache.get( "key1",
+                               "default://master@project1" ) );
+    }
+
+    @Test
+    public void testTermsProducedBeforeInvalidationAreNotCached() throws Exception {
+        final KObjectCache cache = new KObjectCache();
+        cache.setup();
+        final long generation = cache.getGeneration();
+        cache.invalidateProject( "default://project1" );
+        cache.put( "key1",
+                   "default://project1",
+                   makeTerms( "rule",
+                              "Rule 1" ),
+                   generation );
+
+        assertNull( cache.get( "key1",
+                               "default://project1" ) );
+        assertEquals( 0,
+                      cache.getSize() );
+    }
+
+    private Set<Pair<String, String>> makeTerms( final String name,
+                                                 final String value ) {
+        final Set<Pair<String, String>> terms = new HashSet<Pair<String, String>>();
+        terms.add( new Pair<String, String>( name,
+                                             value ) );
+        return terms;
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.backend.server.indexing;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.kie.uberfire.metadata.engine.Indexer;
+import org.kie.uberfire.metadata.model.KObject;
+import org.kie.uberfire.metadata.model.KObjectKey;
+import org.uberfire.java.nio.file.Path;
+import org.uberfire.java.nio.file.Paths;
+
+import static org.drools.workbench.backend.server.indexing.RecordingIndexEngine.*;
+import static org.junit.Assert.*;
+
+public class ParallelBatchIndexTest {
+
+    private File root;
+
+    @Before
+    public void setup() throws Exception {
+        root = File.createTempFile( "repository",
+                                    "" );
+        root.delete();
+        new File( root,
+                  "src/rules" ).mkdirs();
+        new File( root,
+                  ".hidden" ).mkdirs();
+        write( "src/rules/rule1.drl" );
+        write( "src/rules/rule2.drl" );
+        write( "src/rules/readme.txt" );
+        write( ".hidden/rule3.drl" );
+    }
+
+    @After
+    public void tearDown() {
+        delete( root );
+    }
+
+    @Test
+    public void testReindex() throws Exception {
+        final RecordingIndexEngine indexEngine = new RecordingIndexEngine();
+        final ParallelBatchIndex batchIndex = new ParallelBatchIndex( indexEngine );
+
+        batchIndex.reindex( getRoot(),
+                            makeCluster( "repository1" ),
+                            "repository1",
+                            Arrays.<Indexer>asList( new TestDrlIndexer( "repository1" ) ) );
+
+        assertEquals( Arrays.asList( "startBatch:repository1",
+                                     "index:repository1",
+                                     "index:repository1",
+                                     "commit:repository1" ),
+                      indexEngine.getOperations() );
+        assertEquals( 0,
+                      batchIndex.getPendingCount() );
+    }
+
+    @Test
+    public void testMetricsCountEachAssetOnce() throws Exception {
+        final int assets = 50;
+        new File( root,
+                  "src/more" ).mkdirs();
+        for ( int i = 0; i < assets - 2; i++ ) {
+            write( "src/more/rule" + i + ".drl" );
+        }
+        final ParallelBatchIndex batchIndex = new ParallelBatchIndex( new RecordingIndexEngine() );
+        final IndexingMetrics metrics = new IndexingMetrics( batchIndex );
+
+        batchIndex.reindex( getRoot(),
+                            makeCluster( "repository1" ),
+                            "repository1",
+                            Arrays.<Indexer>asList( new MonitoringIndexer( new TestDrlIndexer( "repository1" ),
+                                                                           metrics ) ) );
+
+        assertEquals( assets,
+                      metrics.getTotalIndexed() );
+        assertEquals( assets,
+                      metrics.getIndexed( "TestDrlIndexer" ) );
+        assertEquals( 0,
+                      metrics.getTotalFailed() );
+        assertEquals( assets,
+                      new IndexingMetricsResource( metrics ).getMetrics().getTotalIndexed() );
+    }
+
+    private Path getRoot() {
+        return Paths.get( root.toURI() );
+    }
+
+    private void write( final String fileName ) throws Exception {
+        final FileWriter writer = new FileWriter( new File( root,
+                                                            fileName ) );
+        try {
+            writer.write( fileName );
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void delete( final File file ) {
+        final File[] children = file.listFiles();
+        if ( children != null ) {
+            for ( File child : children ) {
+                delete( child );
+            }
+        }
+        file.delete();
+    }
+
+    private static class TestDrlIndexer implements Indexer {
+
+        private final String clusterId;
+
+        private TestDrlIndexer( final String clusterId ) {
+            this.clusterId = clusterId;
+        }
+
+        @Override
+        public boolean supportsPath( final Path path ) {
+            return path.getFileName().toString().endsWith( ".drl" );
+        }
+
+        @Override
+        public KObject toKObject( final Path path ) {
+            return makeKObject( clusterId );
+        }
+
+        @Override
+        public KObjectKey toKObjectKey( final Path path ) {
+            return null;
+        }
+
+    }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2014 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.workbench.backend.server.indexing;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.kie.uberfire.metadata.engine.MetaIndexEngine;
+import org.kie.uberfire.metadata.model.KCluster;
+import org.kie.uberfire.metadata.model.KObject;
+import org.kie.uberfire.metadata.model.KObjectKey;
+
+/**
+ * MetaIndexEngine recording the operations performed on it
+ */
+public class RecordingIndexEngine implements MetaIndexEngine {
+
+    private final List<String> operations = Collections.synchronizedList( new ArrayList<String>() );
+
+    private volatile boolean freshIndex = true;
+
+    public List<String> getOperations() {
+        synchronized ( operations ) {
+            return new ArrayList<String>( operations );
+        }
+    }
+
+    public int count( final String operation ) {
+        int count = 0;
+        for ( String o : getOperations() ) {
+            if ( o.equals( operation ) ) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public void setFreshIndex( final boolean freshIndex ) {
+        this.freshIndex = freshIndex;
+    }
+
+    @Override
+    public boolean freshIndex( final KCluster cluster ) {
+        return freshIndex;
+    }
+
+    @Override
+    public void startBatch( final KCluster cluster ) {
+        operations.add( "startBatch:" + cluster.getClusterId() );
+    }
+
+    @Override
+    public void index( final KObject object ) {
+        operations.add( "index:" + object.getClusterId() );
+    }
+
+    @Override
+    public void index( final KObject... objects ) {
+        for ( KObject object : objects ) {
+            index( object );
+        }
+    }
+
+    @Override
+    public void rename( final KObjectKey from,
+                        final KObject to ) {
+        operations.add( "rename:" + to.getClusterId() );
+    }
+
+    @Override
+    public void delete( final KCluster cluster ) {
+        operations.add( "deleteCluster:" + cluster.getClusterId() );
+    }
+
+    @Override
+    public void delete( final KObjectKey objectKey ) {
+        operations.add( "delete:" + objectKey.getClusterId() );
+    }
+
+    @Override
+    public void delete( final KObjectKey... objectsKey ) {
+        for ( KObjectKey objectKey : objectsKey ) {
+            delete( objectKey );
+        }
+    }
+
+    @Override
+    public void commit( final KCluster cluster ) {
+        operations.add( "commit:" + cluster.getClusterId() );
+    }
+
+    @Override
+    public void beforeDispose( final Runnable callback ) {
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    public static KCluster makeCluster( final String clusterId ) {
+        return new KCluster() {
+            @Override
+            public String getClusterId() {
+                return clusterId;
+            }
+        };
+    }
+
+    //Only the cluster of a KObject is of interest to the engines under test; it has no properties
+    public static KObject makeKObject( final String clusterId ) {
+        return (KObject) Proxy.newProxyInstance( KObject.class.getClassLoader(),
+                                                 new Class<?>[]{ KObject.class },
+                                                 new InvocationHandler() {
+                                                     @Override
+                                                     public Object invoke( final Object proxy,
+                                                                           final Method method,
+                                                                           final Object[] args ) {
+                                                         if ( "getClusterId".equals( method.getName() ) ) {
+                                                             return clusterId;
+                                                         }
+                                                         if ( "getProperties".equals( method.getName() ) ) {
+                                                             return Collections.emptyList();
+                                                         }
+                                                         return null;
+                                                     }
+                                                 } );
+    }
+
+}